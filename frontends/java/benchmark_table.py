@@ -0,0 +1,81 @@
+# Copyright 2023 Fuzz Introspector Authors
+#
+# Licensed under the Apache License, Version 2.0 (the "License");
+# you may not use this file except in compliance with the License.
+# You may obtain a copy of the License at
+#
+#      http://www.apache.org/licenses/LICENSE-2.0
+#
+# Unless required by applicable law or agreed to in writing, software
+# distributed under the License is distributed on an "AS IS" BASIS,
+# WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+# See the License for the specific language governing permissions and
+# limitations under the License.
+"""Formats the CallGraphAlgorithmBenchmark results as a markdown table.
+
+The benchmark is run with
+  mvn -Pbenchmark -DskipTests verify -Djmh.include=CallGraphAlgorithmBenchmark
+and the table is printed from its JSON results with
+  python3 benchmark_table.py [target/jmh-result.json]
+"""
+
+import json
+import sys
+
+BENCHMARK = "CallGraphAlgorithmBenchmark.buildCallGraph"
+ALGORITHMS = ["CHA", "RTA", "VTA", "SPARK"]
+
+
+def read_results(filename):
+  """Reads the edge count, build time and peak heap of each project and
+  algorithm from a JMH JSON result file.
+  """
+  with open(filename, "r") as f:
+    results = json.load(f)
+
+  table = {}
+  for result in results:
+    if not result["benchmark"].endswith(BENCHMARK):
+      continue
+    params = result["params"]
+    secondary = result["secondaryMetrics"]
+    table.setdefault(params["project"], {})[params["algorithm"]] = (
+        secondary["edges"]["score"], result["primaryMetric"]["score"],
+        secondary["peakHeapMegabytes"]["score"])
+  return table
+
+
+def format_table(table):
+  """Formats one row per project, with the edges, milliseconds and peak heap
+  megabytes of each algorithm.
+  """
+  header = ["Project"]
+  for algorithm in ALGORITHMS:
+    header += [
+        "%s edges" % algorithm,
+        "%s ms" % algorithm,
+        "%s heap MB" % algorithm
+    ]
+  lines = [
+      "| " + " | ".join(header) + " |",
+      "|" + "---|" * len(header)
+  ]
+  for project in sorted(table):
+    row = [project]
+    for algorithm in ALGORITHMS:
+      if algorithm in table[project]:
+        edges, millis, heap = table[project][algorithm]
+        row += ["%d" % edges, "%.0f" % millis, "%.0f" % heap]
+      else:
+        row += ["-", "-", "-"]
+    lines.append("| " + " | ".join(row) + " |")
+  return "\n".join(lines)
+
+
+def main():
+  filename = sys.argv[1] if len(sys.argv) > 1 else "target/jmh-result.json"
+  print(format_table(read_results(filename)))
+
+
+if __name__ == "__main__":
+  main()
@@ -0,0 +1,75 @@
+# Copyright 2023 Fuzz Introspector Authors
+#
+# Licensed under the Apache License, Version 2.0 (the "License");
+# you may not use this file except in compliance with the License.
+# You may obtain a copy of the License at
+#
+#      http://www.apache.org/licenses/LICENSE-2.0
+#
+# Unless required by applicable law or agreed to in writing, software
+# distributed under the License is distributed on an "AS IS" BASIS,
+# WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+# See the License for the specific language governing permissions and
+# limitations under the License.
+"""Client of the Soot frontend analysis daemon.
+
+The daemon is started with
+  java -Xmx6144M -cp target/ossf.fuzz.introspector.soot-1.0.jar \
+      ossf.fuzz.introspector.soot.AnalysisDaemon --port=<port>
+and runs the analysis jobs sent to it in a warm JVM. A job takes the same
+arguments as CallGraphGenerator and writes the output files to the given
+directory.
+
+Usage:
+  python3 daemon_client.py <port> <directory> <CallGraphGenerator arguments>
+  python3 daemon_client.py <port> --shutdown
+"""
+
+import json
+import os
+import socket
+import sys
+
+DAEMON_HOST = "127.0.0.1"
+
+
+def send_request(port, request):
+  """Sends one request to the daemon and waits for the response."""
+  with socket.create_connection((DAEMON_HOST, port)) as conn:
+    conn.sendall((json.dumps(request) + "\n").encode("utf-8"))
+    with conn.makefile("r", encoding="utf-8") as reader:
+      line = reader.readline()
+  if not line:
+    raise RuntimeError("No response from the analysis daemon")
+  return json.loads(line)
+
+
+def run_job(port, directory, args):
+  """Runs an analysis job in the daemon, the output files are written to
+  `directory`. Returns True if the analysis is completed.
+  """
+  response = send_request(port, {
+      "directory": os.path.abspath(directory),
+      "args": args
+  })
+  print("Analysis daemon job %s in %.1f seconds" %
+        (response["status"], response["seconds"]))
+  if "message" in response:
+    print(response["message"])
+  return response["status"] == "done"
+
+
+def shutdown(port):
+  """Stops the daemon."""
+  send_request(port, {"command": "shutdown"})
+
+
+if __name__ == "__main__":
+  if len(sys.argv) == 3 and sys.argv[2] == "--shutdown":
+    shutdown(int(sys.argv[1]))
+  elif len(sys.argv) > 3:
+    if not run_job(int(sys.argv[1]), sys.argv[2], sys.argv[3:]):
+      sys.exit(1)
+  else:
+    print(__doc__)
+    sys.exit(1)
@@ -22,8 +22,11 @@ the OSS-Fuzz environment. The steps taken are:
 """
 
 import os
+import shlex
 import subprocess
 
+import daemon_client
+
 FI_JVM_BASE="/fuzz-introspector/frontends/java"
 PLUGIN_PATH="target/ossf.fuzz.introspector.soot-1.0.jar"
 CGRAPH_STR="ossf.fuzz.introspector.soot.CallGraphGenerator"
@@ -106,26 +109,25 @@ def get_all_jar_files(path):
   return jar_files
 
 
-def run_introspector_frontend(target_class, jar_set):
-  """Call into the frontend for analysing java targets. The output of this
+def run_introspector_frontend(target_classes, jar_set):
+  """Call into the frontend for analysing java targets. All target classes
+  are analysed in a single run sharing the same call graph. The output of this
   is a set of *.data and *.data.yaml files in the current directory.
+
+  If FI_JVM_DAEMON_PORT is set, the analysis is sent to the analysis daemon
+  listening on that port instead of starting a new JVM.
   """
-  print("Running introspector frontend on %s :: %s" % (target_class, jar_set))
+  print("Running introspector frontend on %s :: %s" % (target_classes, jar_set))
   jarfile_str = ":".join(jar_set)
   package_name = os.getenv("TARGET_PACKAGE_PREFIX")
   if not package_name:
     package_name = "ALL"
-  cmd = [
-      "java",
-      "-Xmx6144M",
-      "-cp",
-      FI_JVM_BASE + "/" + PLUGIN_PATH,
-      CGRAPH_STR,
+  args = [
       jarfile_str, # jar files path
-      target_class, # entry class
+      ":".join(target_classes), # entry classes
       "fuzzerTestOneInput", # entry method
       package_name, # target package prefix
-      "\"<clinit>:finalize:main\"", # exclude method list
+      "<clinit>:finalize:main", # exclude method list
       "NULL", # source directory
       "False", # Auto-fuzz switch
       """===jdk.*:java.*:javax.*:sun.*:sunw.*:com.sun.*:com.ibm.*:\
@@ -143,6 +145,20 @@ com.apple.*:apple.awt.*===[java.lang.Runtime].exec:[javax.xml.xpath.XPath].compi
 [java.lang.ProcessBuilder].start""" # include prefix === exclude prefix === sink functions
   ]
 
+  daemon_port = os.getenv("FI_JVM_DAEMON_PORT")
+  if daemon_port:
+    if not daemon_client.run_job(int(daemon_port), os.getcwd(), args):
+      raise RuntimeError("Analysis daemon job failed")
+    return
+
+  cmd = [
+      "java",
+      "-Xmx6144M",
+      "-cp",
+      FI_JVM_BASE + "/" + PLUGIN_PATH,
+      CGRAPH_STR,
+  ] + [shlex.quote(arg) for arg in args]
+
   print("Running command: [%s]" % " ".join(cmd))
   subprocess.check_call(" ".join(cmd), shell=True)
 
@@ -157,8 +173,8 @@ def run_analysis(path):
   targets = find_fuzz_targets(path)
   jar_files = get_all_jar_files(path)
 
-  for target in targets:
-    run_introspector_frontend(target, jar_files)
+  if len(targets) > 0:
+    run_introspector_frontend(targets, jar_files)
   os.chdir(currwd)
 
 if __name__ == "__main__":
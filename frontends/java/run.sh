@@ -68,6 +68,54 @@ while [[ $# -gt 0 ]]; do
       AUTOFUZZ="True"
       shift
       ;;
+    -t|--threads)
+      THREADS="$2"
+      shift
+      shift
+      ;;
+    -k|--cache)
+      CACHEDIR="$2"
+      shift
+      shift
+      ;;
+    -g|--callgraph)
+      CGALGORITHM="$2"
+      shift
+      shift
+      ;;
+    -b|--time-budget)
+      TIMEBUDGET="$2"
+      shift
+      shift
+      ;;
+    -u|--memory-budget)
+      MEMORYBUDGET="$2"
+      shift
+      shift
+      ;;
+    -o|--output-format)
+      OUTPUTFORMAT="$2"
+      shift
+      shift
+      ;;
+    -z|--export-csr)
+      EXPORTCSR="true"
+      shift
+      ;;
+    -n|--unreachable)
+      UNREACHABLE="$2"
+      shift
+      shift
+      ;;
+    -l|--prescan)
+      PRESCAN="true"
+      shift
+      ;;
+    -d|--daemon)
+      DAEMONPORT="$2"
+      shift
+      shift
+      ;;
     *)
       echo "Unknown option $1"
       exit 1
@@ -123,13 +171,53 @@ if [ -z $AUTOFUZZ ]
 then
     AUTOFUZZ="False"
 fi
+if [ -z $THREADS ]
+then
+    THREADS="1"
+fi
+OPTIONS="--threads=$THREADS"
+if [ -n "$CACHEDIR" ]
+then
+    OPTIONS="$OPTIONS --cache=$CACHEDIR"
+fi
+if [ -n "$CGALGORITHM" ]
+then
+    OPTIONS="$OPTIONS --cg=$CGALGORITHM"
+fi
+if [ -n "$OUTPUTFORMAT" ]
+then
+    OPTIONS="$OPTIONS --output-format=$OUTPUTFORMAT"
+fi
+if [ -n "$EXPORTCSR" ]
+then
+    OPTIONS="$OPTIONS --export-csr=$EXPORTCSR"
+fi
+if [ -n "$PRESCAN" ]
+then
+    OPTIONS="$OPTIONS --prescan=$PRESCAN"
+fi
+if [ -n "$UNREACHABLE" ]
+then
+    OPTIONS="$OPTIONS --unreachable=$UNREACHABLE"
+fi
+if [ -n "$TIMEBUDGET" ]
+then
+    OPTIONS="$OPTIONS --time-budget=$TIMEBUDGET"
+fi
+if [ -n "$MEMORYBUDGET" ]
+then
+    OPTIONS="$OPTIONS --memory-budget=$MEMORYBUDGET"
+fi
+
+# Send the analysis to a running analysis daemon instead of starting a new JVM
+if [ -n "$DAEMONPORT" ]
+then
+    python3 "$(dirname "$0")/daemon_client.py" $DAEMONPORT "$(pwd)" $JARFILE $ENTRYCLASS $ENTRYMETHOD "$PACKAGEPREFIX" "$EXCLUDEMETHOD" "$SRCDIRECTORY" $AUTOFUZZ "$INCLUDEPREFIX===$EXCLUDEPREFIX===$SINKMETHOD" $OPTIONS
+    exit $?
+fi
 
 # Build and execute the call graph generator
 mvn clean package -Dmaven.test.skip
 
-# Loop through all entry class
-for CLASS in $(echo $ENTRYCLASS | tr ":" "\n")
-do
-    echo $CLASS
-    java -Xmx6144M -cp "target/ossf.fuzz.introspector.soot-1.0.jar" ossf.fuzz.introspector.soot.CallGraphGenerator $JARFILE $CLASS $ENTRYMETHOD "$PACKAGEPREFIX" "$EXCLUDEMETHOD" "$SRCDIRECTORY" $AUTOFUZZ "$INCLUDEPREFIX===$EXCLUDEPREFIX===$SINKMETHOD"
-done
+# Analyse all entry classes in a single run sharing the same call graph
+java -Xmx6144M -cp "target/ossf.fuzz.introspector.soot-1.0.jar" ossf.fuzz.introspector.soot.CallGraphGenerator $JARFILE $ENTRYCLASS $ENTRYMETHOD "$PACKAGEPREFIX" "$EXCLUDEMETHOD" "$SRCDIRECTORY" $AUTOFUZZ "$INCLUDEPREFIX===$EXCLUDEPREFIX===$SINKMETHOD" $OPTIONS
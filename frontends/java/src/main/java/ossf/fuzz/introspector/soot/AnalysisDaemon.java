@@ -0,0 +1,183 @@
+// Copyright 2022 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import ossf.fuzz.introspector.soot.cache.CacheEntry;
+
+/**
+ * Long-running analysis process listening on a local socket. Each connection sends one JSON job
+ * request in a single line and receives one JSON response line when the job is finished.
+ *
+ * <p>An analysis job is sent as {"directory": "/out", "args": [...]}, where args are the command
+ * line arguments of CallGraphGenerator and directory is where the output files are written. The
+ * response is {"status": "done" | "failed", "seconds": ..., "message": ...}. A {"command":
+ * "shutdown"} request stops the daemon.
+ *
+ * <p>Jobs are run one after another, as Soot keeps its scene in global state. The JVM, with the
+ * Soot and JDK classes loaded and compiled, is kept warm between jobs, together with the analysis
+ * cache entries of the jar files of the last job. Unchanged jar files are then not analysed again.
+ */
+public class AnalysisDaemon {
+  // Time a client may take to send its request line before the connection is dropped
+  private static final int READ_TIMEOUT_MILLIS = 30000;
+
+  private ServerSocket serverSocket;
+  private ObjectMapper mapper;
+  private Map<String, CacheEntry> cachePool;
+  private int readTimeout;
+
+  public AnalysisDaemon(ServerSocket serverSocket) {
+    this.serverSocket = serverSocket;
+    this.mapper = new ObjectMapper();
+    this.cachePool = new HashMap<String, CacheEntry>();
+    this.readTimeout = READ_TIMEOUT_MILLIS;
+  }
+
+  /**
+   * The method sets the time a client may take to send its request line. A client connecting
+   * without sending a request would otherwise block the daemon, as the requests are handled one
+   * after another.
+   *
+   * @param readTimeout the read timeout in milliseconds, 0 for no timeout
+   */
+  public void setReadTimeout(int readTimeout) {
+    this.readTimeout = readTimeout;
+  }
+
+  public static void main(String[] args) throws IOException {
+    int port = 0;
+    for (String arg : args) {
+      if (arg.startsWith("--port=")) {
+        try {
+          port = Integer.parseInt(arg.substring(7));
+        } catch (NumberFormatException e) {
+          System.err.println("Invalid port: " + arg.substring(7));
+          return;
+        }
+      }
+    }
+
+    try (ServerSocket serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+      System.out.println(
+          "[Callgraph] Analysis daemon listening on port " + serverSocket.getLocalPort());
+      new AnalysisDaemon(serverSocket).serve();
+    }
+  }
+
+  /** The method accepts and handles the job requests until a shutdown request is received. */
+  public void serve() throws IOException {
+    boolean running = true;
+    while (running) {
+      try (Socket socket = this.serverSocket.accept()) {
+        socket.setSoTimeout(this.readTimeout);
+        BufferedReader reader =
+            new BufferedReader(
+                new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+
+        ObjectNode response;
+        String line = reader.readLine();
+        if (line == null) {
+          continue;
+        }
+        try {
+          JsonNode request = this.mapper.readTree(line);
+          if ("shutdown".equals(request.path("command").asText("analyse"))) {
+            running = false;
+            response = this.createResponse("done", 0, null);
+          } else {
+            response = this.handleJob(request);
+          }
+        } catch (IOException e) {
+          response = this.createResponse("failed", 0, "Invalid request: " + e.getMessage());
+        }
+
+        writer.write(this.mapper.writeValueAsString(response));
+        writer.write('\n');
+        writer.flush();
+      } catch (IOException e) {
+        System.err.println("[Callgraph] Failed to handle the request: " + e);
+      }
+    }
+  }
+
+  /**
+   * The method runs the analysis job of the provided request.
+   *
+   * @param request the JSON object of the job request
+   * @return the JSON object of the response
+   */
+  public ObjectNode handleJob(JsonNode request) {
+    List<String> argList = new ArrayList<String>();
+    for (JsonNode arg : request.path("args")) {
+      argList.add(arg.asText());
+    }
+    File outputDirectory = null;
+    if (request.hasNonNull("directory")) {
+      outputDirectory = new File(request.get("directory").asText());
+      if (!outputDirectory.isDirectory()) {
+        return this.createResponse("failed", 0, "Invalid directory: " + outputDirectory);
+      }
+    }
+
+    System.out.println("[Callgraph] Analysis daemon running job " + argList);
+    long startTime = System.nanoTime();
+    String status = "failed";
+    String message = null;
+    try {
+      if (CallGraphGenerator.run(argList.toArray(new String[0]), outputDirectory, this.cachePool)) {
+        status = "done";
+      }
+    } catch (RuntimeException | StackOverflowError | OutOfMemoryError e) {
+      message = e.toString();
+      System.err.println("[Callgraph] Analysis job failed: " + e);
+    } finally {
+      // Release the scene of the job, the daemon only keeps the cache pool between jobs
+      soot.G.reset();
+    }
+    double seconds = (System.nanoTime() - startTime) / 1e9;
+    System.out.println("[Callgraph] Analysis daemon finished job in " + seconds + " seconds");
+
+    return this.createResponse(status, seconds, message);
+  }
+
+  private ObjectNode createResponse(String status, double seconds, String message) {
+    ObjectNode response = this.mapper.createObjectNode();
+    response.put("status", status);
+    response.put("seconds", seconds);
+    if (message != null) {
+      response.put("message", message);
+    }
+    return response;
+  }
+}
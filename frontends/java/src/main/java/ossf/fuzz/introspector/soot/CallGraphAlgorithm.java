@@ -0,0 +1,67 @@
+// Copyright 2022 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot;
+
+import soot.options.Options;
+
+/**
+ * Call graph construction algorithms supported by Soot, from the fastest and least precise to the
+ * slowest and most precise. CHA is Soot's default and connects each virtual call to every override
+ * in the class hierarchy. RTA and VTA are run by SPARK without building the points-to sets, only
+ * keeping the overrides of instantiated classes or of the types flowing to the receiver. SPARK
+ * builds the call graph on the fly from the points-to analysis.
+ */
+public enum CallGraphAlgorithm {
+  CHA,
+  RTA,
+  VTA,
+  SPARK;
+
+  /**
+   * The method retrieves the algorithm with the provided name, ignoring the case.
+   *
+   * @param name the name of the algorithm
+   * @return the CallGraphAlgorithm object, or null if no algorithm has the name
+   */
+  public static CallGraphAlgorithm fromName(String name) {
+    for (CallGraphAlgorithm algorithm : CallGraphAlgorithm.values()) {
+      if (algorithm.name().equalsIgnoreCase(name)) {
+        return algorithm;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * The method sets the Soot phase options of the cg pack to use this algorithm. All options
+   * selecting the algorithm are set explicitly, so switching from one algorithm to another does not
+   * leave options of the previous one set, e.g. SPARK refuses to run with both rta and vta set.
+   */
+  public void setSootOptions() {
+    Options.v().setPhaseOption("cg.cha", "enabled:" + (this == CHA));
+    Options.v().setPhaseOption("cg.spark", "enabled:" + (this != CHA));
+    Options.v().setPhaseOption("cg.spark", "rta:" + (this == RTA));
+    Options.v().setPhaseOption("cg.spark", "vta:" + (this == VTA));
+    Options.v().setPhaseOption("cg.spark", "on-fly-cg:" + (this == SPARK));
+    // Constant strings are not needed for the call graph and only add objects to the analysis
+    Options.v().setPhaseOption("cg.spark", "string-constants:false");
+    // Only the call graph is used, so no transformed classes are written. SPARK still asks for the
+    // output directory, which creates it if missing, so an existing directory is given instead of
+    // the default sootOutput directory
+    Options.v().set_output_format(Options.output_format_none);
+    Options.v().set_output_dir(System.getProperty("java.io.tmpdir"));
+  }
+}
@@ -16,9 +16,20 @@
 package ossf.fuzz.introspector.soot;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import ossf.fuzz.introspector.soot.cache.AnalysisCache;
+import ossf.fuzz.introspector.soot.cache.CacheEntry;
+import ossf.fuzz.introspector.soot.utils.AnalysisBudget;
+import ossf.fuzz.introspector.soot.utils.ClassPrescanner;
+import ossf.fuzz.introspector.soot.utils.MetricsRecorder;
+import ossf.fuzz.introspector.soot.utils.SourceIndex;
 import soot.PackManager;
 import soot.Scene;
 import soot.SootClass;
@@ -30,16 +41,44 @@ import soot.tagkit.VisibilityAnnotationTag;
 
 public class CallGraphGenerator {
   public static void main(String[] args) {
+    CallGraphGenerator.run(args, null, null);
+  }
+
+  /**
+   * The method runs one call graph analysis with the provided command line arguments. All Soot
+   * state is reset before the analysis, so the method can be called repeatedly in the same process.
+   *
+   * @param args the command line arguments of the analysis
+   * @param outputDirectory the directory to store the output files, or null for the current working
+   *     directory
+   * @param cachePool a map keeping the analysis cache entries in memory between runs, or null to
+   *     only use the cache directory from the arguments
+   * @return true if the output files are generated
+   */
+  public static boolean run(
+      String[] args, File outputDirectory, Map<String, CacheEntry> cachePool) {
     System.out.println("[Callgraph] Running callgraph plugin");
 
+    // Separate the optional --name=value arguments from the positional arguments
+    List<String> argList = new LinkedList<String>();
+    Map<String, String> optionMap = new HashMap<String, String>();
+    for (String arg : args) {
+      if (arg.startsWith("--") && arg.contains("=")) {
+        optionMap.put(arg.substring(2, arg.indexOf("=")), arg.substring(arg.indexOf("=") + 1));
+      } else {
+        argList.add(arg);
+      }
+    }
+    args = argList.toArray(new String[0]);
+
     // Handle arguments
     if (args.length < 7 || args.length > 8) {
       System.err.println("No jarFiles, entryClass, entryMethod and target package.");
-      return;
+      return false;
     }
     List<String> jarFiles =
         CallGraphGenerator.handleJarFilesWildcard(Arrays.asList(args[0].split(":")));
-    String entryClass = args[1];
+    List<String> entryClassList = Arrays.asList(args[1].split(":"));
     String entryMethod = args[2];
     String targetPackagePrefix = args[3];
     String excludeMethod = args[4];
@@ -56,30 +95,228 @@ public class CallGraphGenerator {
     if (jarFiles.size() < 1) {
       System.err.println("Invalid jarFiles");
     }
+    Integer threadCount = 1;
+    if (optionMap.containsKey("threads")) {
+      try {
+        threadCount = Integer.parseInt(optionMap.get("threads"));
+      } catch (NumberFormatException e) {
+        System.err.println("Invalid thread count: " + optionMap.get("threads"));
+        return false;
+      }
+      if (threadCount < 1) {
+        threadCount = Runtime.getRuntime().availableProcessors();
+      }
+    }
+
+    CallGraphAlgorithm algorithm = CallGraphAlgorithm.CHA;
+    if (optionMap.containsKey("cg")) {
+      algorithm = CallGraphAlgorithm.fromName(optionMap.get("cg"));
+      if (algorithm == null) {
+        System.err.println("Invalid call graph algorithm: " + optionMap.get("cg"));
+        return false;
+      }
+    }
+
+    OutputFormat outputFormat = OutputFormat.YAML;
+    if (optionMap.containsKey("output-format")) {
+      outputFormat = OutputFormat.fromName(optionMap.get("output-format"));
+      if (outputFormat == null) {
+        System.err.println("Invalid output format: " + optionMap.get("output-format"));
+        return false;
+      }
+    }
+
+    UnreachableMethods unreachableMethods = UnreachableMethods.ANALYSE;
+    if (optionMap.containsKey("unreachable")) {
+      unreachableMethods = UnreachableMethods.fromName(optionMap.get("unreachable"));
+      if (unreachableMethods == null) {
+        System.err.println("Invalid unreachable method handling: " + optionMap.get("unreachable"));
+        return false;
+      }
+    }
+
+    AnalysisBudget budget = null;
+    if (optionMap.containsKey("time-budget") || optionMap.containsKey("memory-budget")) {
+      try {
+        budget =
+            new AnalysisBudget(
+                Long.parseLong(optionMap.getOrDefault("time-budget", "0")),
+                Long.parseLong(optionMap.getOrDefault("memory-budget", "0")));
+      } catch (NumberFormatException e) {
+        System.err.println("Invalid analysis budget: " + e.getMessage());
+        return false;
+      }
+    }
 
     System.out.println("[Callgraph] Jar files used for analysis: " + jarFiles);
+    System.out.println("[Callgraph] Call graph algorithm: " + algorithm);
 
     soot.G.reset();
+    MetricsRecorder metrics = new MetricsRecorder();
+
+    // Index the source directory, keeping the index in the cache directory between runs
+    File sourceIndexFile = null;
+    if (optionMap.containsKey("cache")) {
+      try {
+        sourceIndexFile =
+            new File(
+                optionMap.get("cache"),
+                "sources-" + AnalysisCache.hashString(sourceDirectory) + ".index");
+      } catch (IOException e) {
+        System.err.println("Failed to locate the source index, indexing all source files: " + e);
+      }
+    }
+    metrics.startPhase("indexSources");
+    SourceIndex sourceIndex =
+        SootSceneTransformer.createSourceIndex(sourceDirectory, sourceIndexFile, threadCount);
+    metrics.endPhase("indexSources");
 
     // Add an custom analysis phase to Soot
     SootSceneTransformer transformer =
         new SootSceneTransformer(
-            entryClass,
+            args[1],
             entryMethod,
             targetPackagePrefix,
             excludeMethod,
             includePrefix,
             excludePrefix,
             sinkMethod,
-            sourceDirectory,
+            sourceIndex,
             isAutoFuzz);
+    transformer.setThreadCount(threadCount);
+    transformer.setOutputDirectory(outputDirectory);
+    transformer.setBudget(budget);
+    transformer.setOutputFormat(outputFormat);
+    transformer.setExportCsr(Boolean.parseBoolean(optionMap.get("export-csr")));
+    transformer.setUnreachableMethods(unreachableMethods);
+    metrics.setSetting("callGraphAlgorithm", algorithm.name());
+    metrics.setSetting("unreachableMethods", unreachableMethods.name());
+    transformer.setMetrics(metrics);
+    if (optionMap.containsKey("cache") || cachePool != null) {
+      // The method facts only depend on the excluded methods, sink methods and autofuzz mode
+      String cacheOptions = excludeMethod + "===" + sinkMethod + "===" + isAutoFuzz;
+      File cacheDir = optionMap.containsKey("cache") ? new File(optionMap.get("cache")) : null;
+      try {
+        transformer.setAnalysisCache(
+            new AnalysisCache(
+                cacheDir,
+                jarFiles,
+                cacheOptions,
+                (cachePool == null) ? new HashMap<String, CacheEntry>() : cachePool));
+      } catch (IOException e) {
+        System.err.println("Failed to open the analysis cache, running without cache: " + e);
+      }
+    }
 
     // Set basic settings for the call graph generation
+    CallGraphGenerator.setSootOptions(
+        jarFiles, transformer.getIncludeList(), transformer.getExcludeList());
+    algorithm.setSootOptions();
+
+    // Only hand the classes referenced from the entry classes to Soot if requested
+    if (Boolean.parseBoolean(optionMap.get("prescan"))) {
+      metrics.startPhase("prescanClasses");
+      try {
+        ClassPrescanner prescanner = new ClassPrescanner(jarFiles);
+        Set<String> rootClasses = prescanner.getClassesWithPrefix(transformer.getIncludeList());
+        rootClasses.addAll(entryClassList);
+        Set<String> classes = prescanner.getReferencedClasses(rootClasses);
+        CallGraphGenerator.setSootClasses(jarFiles, classes);
+        metrics.addCounter("prescannedClasses", classes.size());
+        System.out.println(
+            "[Callgraph] Prescan: "
+                + classes.size()
+                + " of "
+                + prescanner.getClassCount()
+                + " classes referenced from the entry classes");
+      } catch (IOException e) {
+        System.err.println("Failed to prescan the jar files, loading all classes: " + e);
+      }
+      metrics.endPhase("prescanClasses");
+    }
+
+    // Load and set main class
+    Options.v().set_main_class(entryClassList.get(0));
+
+    // Load and set custom entry point for each entry class
+    List<SootMethod> entryPoints = new LinkedList<SootMethod>();
+    for (String entryClass : entryClassList) {
+      SootClass c = Scene.v().loadClass(entryClass, SootClass.BODIES);
+      c.setApplicationClass();
+
+      SootMethod entryPoint = CallGraphGenerator.findEntryMethod(c, entryMethod);
+      if (entryPoint == null) {
+        System.out.println(
+            "Cannot find method: "
+                + entryMethod
+                + " or methods with @FuzzTest annotation from class: "
+                + entryClass
+                + ".");
+        continue;
+      }
+      transformer.addEntryMethod(entryClass, entryPoint);
+      entryPoints.add(entryPoint);
+    }
+
+    if (entryPoints.size() == 0) {
+      return false;
+    }
+    Scene.v().setEntryPoints(entryPoints);
+
+    // Load all related classes
+    metrics.startPhase("loadClasses");
+    Scene.v().loadNecessaryClasses();
+    Scene.v().loadDynamicClasses();
+    metrics.endPhase("loadClasses");
+    metrics.addCounter("classes", Scene.v().getClasses().size());
+
+    // Replace points-to based algorithms by RTA if loading classes used much of the budget
+    if (budget != null
+        && (algorithm == CallGraphAlgorithm.VTA || algorithm == CallGraphAlgorithm.SPARK)
+        && budget.shouldDegrade("callGraphAlgorithm:RTA", AnalysisBudget.CALL_GRAPH_THRESHOLD)) {
+      algorithm = CallGraphAlgorithm.RTA;
+      algorithm.setSootOptions();
+      metrics.setSetting("callGraphAlgorithm", algorithm.name());
+    }
+
+    try {
+      // Start the generation, the call graph phase is ended by the transformer
+      metrics.startPhase("callGraph");
+      PackManager.v().getPack("wjtp").add(new Transform("wjtp.custom", transformer));
+      PackManager.v().runPacks();
+    } catch (RuntimeException e) {
+      if (!transformer.isAnalyseFinished()) {
+        // Only flow the runtime exception when the analyse is not finished.
+        // Runtime exception may happens in stages after the analyse is completed.
+        throw e;
+      }
+    }
+
+    if (budget != null) {
+      metrics.setSetting("degradations", budget.getDegradations());
+    }
+    try {
+      metrics.write(new File(outputDirectory, "callgraph-metrics.json"));
+    } catch (IOException e) {
+      System.err.println("Failed to write the metrics: " + e);
+    }
+    return transformer.isAnalyseFinished();
+  }
+
+  /**
+   * The method sets the Soot options used for the call graph generation of the provided jar files.
+   *
+   * @param jarFiles the list of jar files to analyse
+   * @param includeList the list of class prefixes which must be handled
+   * @param excludeList the list of class prefixes which are excluded from the analysis
+   */
+  public static void setSootOptions(
+      List<String> jarFiles, List<String> includeList, List<String> excludeList) {
     Options.v().set_process_dir(jarFiles);
     Options.v().set_prepend_classpath(true);
     Options.v().set_src_prec(Options.src_prec_java);
-    Options.v().set_include(transformer.getIncludeList());
-    Options.v().set_exclude(transformer.getExcludeList());
+    Options.v().set_include(includeList);
+    Options.v().set_exclude(excludeList);
     Options.v().set_no_bodies_for_excluded(true);
     Options.v().set_allow_phantom_refs(true);
     Options.v().set_whole_program(true);
@@ -93,63 +330,48 @@ public class CallGraphGenerator {
     // instance object will trigger resolve error because of
     // wrong staticness invocation
     Options.v().set_wrong_staticness(Options.wrong_staticness_ignore);
+  }
 
-    // Load and set main class
-    Options.v().set_main_class(entryClass);
-    SootClass c = Scene.v().loadClass(entryClass, SootClass.BODIES);
-    c.setApplicationClass();
+  /**
+   * The method restricts the classes Soot loads from the provided jar files to the provided
+   * classes. The jar files stay on the Soot class path, so the other classes they contain are still
+   * resolved on demand when referenced, but they are no longer loaded as application classes.
+   *
+   * @param jarFiles the list of jar files and class directories to analyse
+   * @param classes the names of the classes to load from the jar files
+   */
+  public static void setSootClasses(List<String> jarFiles, Collection<String> classes) {
+    Options.v().set_process_dir(new LinkedList<String>());
+    Options.v().set_soot_classpath(String.join(File.pathSeparator, jarFiles));
+    Options.v().classes().addAll(classes);
+  }
 
-    // Load and set custom entry point
-    SootMethod entryPoint = null;
+  /**
+   * The method retrieves the fuzzing entry method of the provided entry class. If no method with
+   * the provided name exists, the first method annotated with @FuzzTest is used instead.
+   *
+   * @param c the SootClass object of the entry class
+   * @param entryMethod the name of the entry method
+   * @return the SootMethod object of the entry method, or null if none is found
+   */
+  public static SootMethod findEntryMethod(SootClass c, String entryMethod) {
     try {
-      entryPoint = c.getMethodByName(entryMethod);
+      return c.getMethodByName(entryMethod);
     } catch (RuntimeException e) {
       // Default entry method not found. Try retrieve entry method by annotation.
-      outer:
       for (SootMethod method : c.getMethods()) {
         if (method.hasTag("VisibilityAnnotationTag")) {
           VisibilityAnnotationTag tag =
               (VisibilityAnnotationTag) method.getTag("VisibilityAnnotationTag");
           for (AnnotationTag annotation : tag.getAnnotations()) {
             if (annotation.getType().equals("Lcom/code_intelligence/jazzer/junit/FuzzTest;")) {
-              entryPoint = method;
-              break outer;
+              return method;
             }
           }
         }
       }
     }
-
-    if (entryPoint == null) {
-      System.out.println(
-          "Cannot find method: "
-              + entryMethod
-              + " or methods with @FuzzTest annotation from class: "
-              + entryClass
-              + ".");
-      return;
-    }
-    transformer.setEntryMethodStr(entryPoint.getName());
-
-    List<SootMethod> entryPoints = new LinkedList<SootMethod>();
-    entryPoints.add(entryPoint);
-    Scene.v().setEntryPoints(entryPoints);
-
-    // Load all related classes
-    Scene.v().loadNecessaryClasses();
-    Scene.v().loadDynamicClasses();
-
-    try {
-      // Start the generation
-      PackManager.v().getPack("wjtp").add(new Transform("wjtp.custom", transformer));
-      PackManager.v().runPacks();
-    } catch (RuntimeException e) {
-      if (!transformer.isAnalyseFinished()) {
-        // Only flow the runtime exception when the analyse is not finished.
-        // Runtime exception may happens in stages after the analyse is completed.
-        throw e;
-      }
-    }
+    return null;
   }
 
   public static List<String> handleJarFilesWildcard(List<String> jarFiles) {
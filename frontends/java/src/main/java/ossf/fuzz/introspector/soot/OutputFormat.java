@@ -0,0 +1,50 @@
+// Copyright 2022 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot;
+
+/**
+ * Formats of the per fuzzer function data written next to the .data call tree file. YAML writes the
+ * .data.yaml file, BINARY writes the compact .data.bin file read by the binary_data module of the
+ * Python package, and BOTH writes both of them.
+ */
+public enum OutputFormat {
+  YAML,
+  BINARY,
+  BOTH;
+
+  /**
+   * The method retrieves the output format with the provided name, ignoring the case.
+   *
+   * @param name the name of the output format
+   * @return the OutputFormat object, or null if no output format has the name
+   */
+  public static OutputFormat fromName(String name) {
+    for (OutputFormat format : OutputFormat.values()) {
+      if (format.name().equalsIgnoreCase(name)) {
+        return format;
+      }
+    }
+    return null;
+  }
+
+  public boolean writesYaml() {
+    return this != BINARY;
+  }
+
+  public boolean writesBinary() {
+    return this != YAML;
+  }
+}
@@ -15,60 +15,100 @@
 
 package ossf.fuzz.introspector.soot;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import ossf.fuzz.introspector.soot.cache.AnalysisCache;
+import ossf.fuzz.introspector.soot.cache.BranchFacts;
+import ossf.fuzz.introspector.soot.cache.MethodFacts;
+import ossf.fuzz.introspector.soot.utils.AnalysisBudget;
 import ossf.fuzz.introspector.soot.utils.BlockGraphInfoUtils;
+import ossf.fuzz.introspector.soot.utils.BlockLineIndex;
 import ossf.fuzz.introspector.soot.utils.CalculationUtils;
+import ossf.fuzz.introspector.soot.utils.CallGraphCsrWriter;
 import ossf.fuzz.introspector.soot.utils.CalltreeUtils;
+import ossf.fuzz.introspector.soot.utils.CalltreeWriter;
+import ossf.fuzz.introspector.soot.utils.CsrCallGraph;
 import ossf.fuzz.introspector.soot.utils.EdgeUtils;
+import ossf.fuzz.introspector.soot.utils.FunctionLineIndex;
+import ossf.fuzz.introspector.soot.utils.MergedEdgeView;
+import ossf.fuzz.introspector.soot.utils.MethodRegistry;
+import ossf.fuzz.introspector.soot.utils.MetricsRecorder;
+import ossf.fuzz.introspector.soot.utils.PrefixMatcher;
+import ossf.fuzz.introspector.soot.utils.SourceIndex;
 import ossf.fuzz.introspector.soot.yaml.Callsite;
 import ossf.fuzz.introspector.soot.yaml.FunctionConfig;
 import ossf.fuzz.introspector.soot.yaml.FunctionElement;
-import ossf.fuzz.introspector.soot.yaml.FuzzerConfig;
+import ossf.fuzz.introspector.soot.yaml.FuzzerBinaryWriter;
+import ossf.fuzz.introspector.soot.yaml.FuzzerConfigWriter;
 import soot.Body;
+import soot.ResolutionFailedException;
 import soot.Scene;
 import soot.SceneTransformer;
 import soot.SootClass;
 import soot.SootMethod;
 import soot.Unit;
 import soot.jimple.IfStmt;
+import soot.jimple.InvokeExpr;
 import soot.jimple.Stmt;
-import soot.jimple.toolkits.callgraph.CallGraph;
 import soot.toolkits.graph.Block;
 import soot.toolkits.graph.BlockGraph;
 import soot.toolkits.graph.BriefBlockGraph;
 
 public class SootSceneTransformer extends SceneTransformer {
+  private static final int INCLUDE = 1;
+  private static final int EXCLUDE = 2;
+  private static final int TARGET_PACKAGE = 4;
+
+  // Degradation steps applied when running out of the analysis budget
+  private static final String NO_BRANCH_PROFILES = "noBranchProfiles";
+  private static final String SKIP_LARGE_METHODS = "skipLargeMethodBodies";
+  private static final int LARGE_METHOD_UNITS = 5000;
+
   private List<String> targetPackageList;
   private List<String> includeList;
+  private List<String> entryClassList;
+  private List<String> fuzzerIncludeList;
   private List<String> excludeList;
   private List<String> excludeMethodList;
-  private List<String> projectClassList;
+  private SourceIndex sourceIndex;
+  private PrefixMatcher classMatcher;
   private List<SootMethod> reachedSinkMethodList;
   private List<FunctionElement> depthHandled;
-  private Map<String, Set<String>> edgeClassMap;
+  private MethodRegistry methodRegistry;
+  private MergedEdgeView mergedEdgeView;
   private Map<String, Set<String>> sinkMethodMap;
+  private Map<String, SootMethod> entryMethodMap;
   private String entryClassStr;
   private String entryMethodStr;
   private SootMethod entryMethod;
   private FunctionConfig methodList;
   private Boolean isAutoFuzz;
   private Boolean analyseFinished;
+  private Integer threadCount;
+  private AnalysisCache analysisCache;
+  private File outputDirectory;
+  private MetricsRecorder metrics;
+  private AnalysisBudget budget;
+  private OutputFormat outputFormat;
+  private boolean exportCsr;
+  private UnreachableMethods unreachableMethods;
 
   public SootSceneTransformer(
       String entryClassStr,
@@ -80,21 +120,50 @@ public class SootSceneTransformer extends SceneTransformer {
       String sinkMethod,
       String sourceDirectory,
       Boolean isAutoFuzz) {
+    this(
+        entryClassStr,
+        entryMethodStr,
+        targetPackagePrefix,
+        excludeMethodStr,
+        includePrefix,
+        excludePrefix,
+        sinkMethod,
+        SootSceneTransformer.createSourceIndex(sourceDirectory, null, 1),
+        isAutoFuzz);
+  }
+
+  public SootSceneTransformer(
+      String entryClassStr,
+      String entryMethodStr,
+      String targetPackagePrefix,
+      String excludeMethodStr,
+      String includePrefix,
+      String excludePrefix,
+      String sinkMethod,
+      SourceIndex sourceIndex,
+      Boolean isAutoFuzz) {
     this.entryClassStr = entryClassStr;
     this.entryMethodStr = entryMethodStr;
     this.isAutoFuzz = isAutoFuzz;
     this.entryMethod = null;
+    this.entryMethodMap = new LinkedHashMap<String, SootMethod>();
 
     targetPackageList = new LinkedList<String>();
     includeList = new LinkedList<String>();
+    entryClassList = new LinkedList<String>();
     excludeList = new LinkedList<String>();
     excludeMethodList = new LinkedList<String>();
-    projectClassList = new LinkedList<String>();
+    this.sourceIndex = sourceIndex;
     reachedSinkMethodList = new LinkedList<SootMethod>();
-    edgeClassMap = new HashMap<String, Set<String>>();
     sinkMethodMap = new HashMap<String, Set<String>>();
     methodList = new FunctionConfig();
     analyseFinished = false;
+    threadCount = 1;
+    outputFormat = OutputFormat.YAML;
+    exportCsr = false;
+    unreachableMethods = UnreachableMethods.ANALYSE;
+    metrics = new MetricsRecorder();
+    methodRegistry = new MethodRegistry();
 
     // Process the target package prefix string
     if (!targetPackagePrefix.equals("ALL")) {
@@ -105,32 +174,20 @@ public class SootSceneTransformer extends SceneTransformer {
       }
     }
 
-    // Retrieve a list of class for the target project source directory
-    if ((!sourceDirectory.equals("")) && (!sourceDirectory.equals("NULL"))) {
-      try (Stream<Path> walk = Files.walk(Paths.get(sourceDirectory))) {
-        List<String> sourceList =
-            walk.map(x -> x.toString())
-                .filter(f -> f.endsWith(".java"))
-                .collect(Collectors.toList());
-        for (String source : sourceList) {
-          projectClassList.add(source.substring(source.lastIndexOf("/") + 1).replace(".java", ""));
-        }
-      } catch (IOException e) {
-        // Fail to retrieve project class list, ignore the list.
-        projectClassList = new LinkedList<String>();
-      }
-    }
-
     // Process the whitelist of class prefix
     for (String include : includePrefix.split(":")) {
       if (!include.equals("")) {
         includeList.add(include);
       }
     }
-    includeList.add(entryClassStr);
+
+    // Each entry class is only included in the analysing scope of its own fuzzer
+    for (String entryClass : entryClassStr.split(":")) {
+      entryClassList.add(entryClass);
+    }
 
     // Process the blacklist of class prefix
-    if (projectClassList.size() == 0) {
+    if (this.sourceIndex.isEmpty()) {
       for (String exclude : excludePrefix.split(":")) {
         if (!exclude.equals("")) {
           excludeList.add(exclude);
@@ -155,21 +212,100 @@ public class SootSceneTransformer extends SceneTransformer {
         sinkMethodMap.put(className, set);
       }
     }
+
+    this.setFuzzerEntryClasses(entryClassList);
   }
 
   @Override
   protected void internalTransform(String phaseName, Map<String, String> options) {
-    CallGraph callGraph = Scene.v().getCallGraph();
+    this.metrics.endPhase("callGraph");
+
+    // Freeze the call graph into int arrays, Soot's edges are not used afterwards
+    this.metrics.startPhase("freezeCallGraph");
+    CsrCallGraph callGraph =
+        CsrCallGraph.fromCallGraph(Scene.v().getCallGraph(), this.methodRegistry);
+    Scene.v().releaseCallGraph();
+    Scene.v().releasePointsToAnalysis();
+    this.metrics.endPhase("freezeCallGraph");
+    this.metrics.addCounter("edges", callGraph.size());
 
     System.out.println("[Callgraph] Internal transform init");
+
+    // Analyse each fuzzer with the shared scene and call graph, a failing fuzzer does not stop
+    // the analysis of the others
+    RuntimeException failure = null;
+    int analysedCount = 0;
+    for (String entryClass : this.entryMethodMap.keySet()) {
+      SootMethod method = this.entryMethodMap.get(entryClass);
+
+      this.entryClassStr = entryClass;
+      this.entryMethodStr = method.getName();
+      this.entryMethod = method;
+      this.reachedSinkMethodList = new LinkedList<SootMethod>();
+      this.methodList = new FunctionConfig();
+      this.metrics.setFuzzer(entryClass);
+      this.setFuzzerEntryClasses(Collections.singletonList(entryClass));
+
+      CsrCallGraph fuzzerCallGraph = callGraph;
+      if (this.entryMethodMap.size() > 1) {
+        // Only keep the edges reachable from the entry method of this fuzzer
+        this.metrics.startPhase("reachableCallGraph");
+        fuzzerCallGraph = callGraph.getReachableGraph(method);
+        this.metrics.endPhase("reachableCallGraph");
+      }
+
+      try {
+        this.analyseFuzzer(fuzzerCallGraph);
+        analysedCount++;
+      } catch (RuntimeException e) {
+        System.err.println("Failed to analyse fuzzer " + entryClass + ": " + e.getMessage());
+        failure = e;
+      }
+    }
+    this.metrics.setFuzzer(null);
+
+    if (this.analysisCache != null) {
+      try {
+        this.analysisCache.save();
+      } catch (IOException e) {
+        System.err.println("Failed to save the analysis cache: " + e);
+      }
+    }
+
+    // Only fail the run if no fuzzer produced any output
+    if (analysedCount == 0 && failure != null) {
+      throw failure;
+    }
+    analyseFinished = true;
+  }
+
+  private void analyseFuzzer(CsrCallGraph callGraph) {
+    // Merged outgoing edges are shared by the method processing and the call tree extraction
+    this.mergedEdgeView = new MergedEdgeView(callGraph);
+
     System.out.println("[Callgraph] Determining classes to use for analysis.");
 
+    // Classes are visited by name, as the load order of the scene depends on the other fuzzers
+    // analysed in the same run
+    this.metrics.startPhase("generateClassMethodMap");
+    List<SootClass> classList = new ArrayList<SootClass>(Scene.v().getClasses());
+    classList.sort(Comparator.comparing(SootClass::getName));
     Map<SootClass, List<SootMethod>> classMethodMap =
-        this.generateClassMethodMap(Scene.v().getClasses().snapshotIterator());
+        this.generateClassMethodMap(classList.iterator());
+    this.metrics.endPhase("generateClassMethodMap");
 
     System.out.println("[Callgraph] Finished going through classes");
 
+    this.metrics.startPhase("processMethods");
     this.processMethods(classMethodMap, callGraph);
+    this.metrics.endPhase("processMethods");
+
+    this.metrics.addCounter("classes", classMethodMap.size());
+    this.metrics.addCounter("methods", methodList.getFunctionElements().size());
+    this.metrics.addCounter("edges", callGraph.size());
+    for (FunctionElement element : methodList.getFunctionElements()) {
+      this.metrics.addCounter("callsites", element.getCallsites().size());
+    }
 
     if (methodList.getFunctionElements().size() == 0) {
       throw new RuntimeException(
@@ -177,50 +313,109 @@ public class SootSceneTransformer extends SceneTransformer {
     }
 
     try {
+      this.metrics.startPhase("calculateCallDepth");
       CalculationUtils.calculateAllCallDepth(this.methodList);
+      this.metrics.endPhase("calculateCallDepth");
 
       if (!isAutoFuzz) {
-        CalltreeUtils.addSinkMethods(this.methodList, this.reachedSinkMethodList, this.isAutoFuzz);
+        CalltreeUtils.addSinkMethods(
+            this.methodList, this.reachedSinkMethodList, this.isAutoFuzz, this.methodRegistry);
       }
 
       // Extract call tree and write to .data
       System.out.println("[Callgraph] Generating fuzzerLogFile-" + this.entryClassStr + ".data");
-      File file = new File("fuzzerLogFile-" + this.entryClassStr + ".data");
+      File file = new File(this.outputDirectory, "fuzzerLogFile-" + this.entryClassStr + ".data");
       file.createNewFile();
-      FileWriter fw = new FileWriter(file);
-      this.edgeClassMap = new HashMap<String, Set<String>>();
       CalltreeUtils.setBaseData(
-          this.includeList,
-          this.excludeList,
-          this.excludeMethodList,
-          this.edgeClassMap,
-          this.sinkMethodMap);
-      CalltreeUtils.extractCallTree(fw, callGraph, this.entryMethod, 0, -1);
-      fw.close();
+          this.fuzzerIncludeList, this.excludeList, this.excludeMethodList, this.sinkMethodMap);
+      CalltreeUtils.setBudget(this.budget);
+      this.metrics.startPhase("extractCallTree");
+      try (CalltreeWriter writer = new CalltreeWriter(file)) {
+        CalltreeUtils.extractCallTree(writer, this.mergedEdgeView, this.entryMethod, 0, -1);
+      }
+      this.metrics.endPhase("extractCallTree");
+
+      // Export the merged call graph as memory-mappable arrays
+      if (this.exportCsr) {
+        System.out.println(
+            "[Callgraph] Generating fuzzerLogFile-" + this.entryClassStr + ".callgraph.csr");
+        file =
+            new File(
+                this.outputDirectory, "fuzzerLogFile-" + this.entryClassStr + ".callgraph.csr");
+        this.metrics.startPhase("writeCallGraphCsr");
+        new CallGraphCsrWriter(
+                this.mergedEdgeView,
+                this.excludeList,
+                this.fuzzerIncludeList,
+                this.excludeMethodList)
+            .write(file, this.entryMethod);
+        this.metrics.endPhase("writeCallGraphCsr");
+      }
 
       // Extract other info and write to .data.yaml
-      System.out.println(
-          "[Callgraph] Generating fuzzerLogFile-" + this.entryClassStr + ".data.yaml");
-      ObjectMapper om = new ObjectMapper(new YAMLFactory());
-      file = new File("fuzzerLogFile-" + this.entryClassStr + ".data.yaml");
-      file.createNewFile();
-      fw = new FileWriter(file);
-      FuzzerConfig config = new FuzzerConfig();
-      config.setFilename(this.entryClassStr);
-      config.setEntryMethod(this.entryMethodStr);
-      config.setFunctionConfig(methodList);
-      fw.write(om.writeValueAsString(config));
-      fw.close();
+      List<String> degradations = (this.budget == null) ? null : this.budget.getDegradations();
+      if (this.outputFormat.writesYaml()) {
+        System.out.println(
+            "[Callgraph] Generating fuzzerLogFile-" + this.entryClassStr + ".data.yaml");
+        file = new File(this.outputDirectory, "fuzzerLogFile-" + this.entryClassStr + ".data.yaml");
+        file.createNewFile();
+        this.metrics.startPhase("writeYaml");
+        try (FuzzerConfigWriter writer =
+            new FuzzerConfigWriter(
+                file,
+                this.entryClassStr,
+                this.entryMethodStr,
+                methodList.getListName(),
+                degradations)) {
+          writer.writeFunctionElements(methodList.getFunctionElements());
+        }
+        this.metrics.endPhase("writeYaml");
+      }
+
+      // Write the same info to the compact .data.bin
+      if (this.outputFormat.writesBinary()) {
+        System.out.println(
+            "[Callgraph] Generating fuzzerLogFile-" + this.entryClassStr + ".data.bin");
+        file = new File(this.outputDirectory, "fuzzerLogFile-" + this.entryClassStr + ".data.bin");
+        this.metrics.startPhase("writeBinary");
+        try (FuzzerBinaryWriter writer =
+            new FuzzerBinaryWriter(
+                file,
+                this.entryClassStr,
+                this.entryMethodStr,
+                methodList.getListName(),
+                degradations)) {
+          writer.writeFunctionElements(methodList.getFunctionElements());
+        }
+        this.metrics.endPhase("writeBinary");
+      }
     } catch (IOException e) {
       System.err.println(e);
     }
     System.out.println("Finish processing for fuzzer: " + this.entryClassStr);
-    analyseFinished = true;
+  }
+
+  /**
+   * The method compiles the class prefix lists for the class filtering of a fuzzer. Only the entry
+   * classes of the fuzzer are included in addition to the include prefixes, so the entry classes of
+   * other fuzzers analysed in the same run do not change its analysing scope.
+   *
+   * @param entryClasses the entry classes of the fuzzer
+   */
+  private void setFuzzerEntryClasses(List<String> entryClasses) {
+    this.fuzzerIncludeList = new LinkedList<String>(this.includeList);
+    this.fuzzerIncludeList.addAll(entryClasses);
+
+    this.classMatcher = new PrefixMatcher();
+    this.classMatcher.addPrefixes(this.fuzzerIncludeList, INCLUDE);
+    this.classMatcher.addPrefixes(this.excludeList, EXCLUDE);
+    this.classMatcher.addPrefixes(this.targetPackageList, TARGET_PACKAGE);
   }
 
   private Map<SootClass, List<SootMethod>> generateClassMethodMap(
       Iterator<SootClass> classIterator) {
-    Map<SootClass, List<SootMethod>> classMethodMap = new HashMap<SootClass, List<SootMethod>>();
+    Map<SootClass, List<SootMethod>> classMethodMap =
+        new LinkedHashMap<SootClass, List<SootMethod>>();
 
     while (classIterator.hasNext()) {
       boolean isInclude = false;
@@ -229,29 +424,20 @@ public class SootSceneTransformer extends SceneTransformer {
       boolean isAutoFuzzIgnore = false;
       SootClass c = classIterator.next();
       String cname = c.getName();
+      int match = classMatcher.match(cname);
 
       // Check for a list of classes of prefixes that must handled
-      for (String prefix : includeList) {
-        if (cname.startsWith(prefix.replace("*", ""))) {
-          isInclude = true;
-          break;
-        }
-      }
+      isInclude = (match & INCLUDE) != 0;
 
       // Check if remaining classes are in the exclude list
       // Or if it is a class contains sink method
       // If the class is in the exclude list and are not classes
       // that contains sink method, ignore it
-      if (!isInclude) {
-        for (String prefix : excludeList) {
-          if (cname.startsWith(prefix.replace("*", ""))) {
-            if (this.sinkMethodMap.containsKey(cname)) {
-              isSinkClass = true;
-            } else {
-              isIgnore = true;
-            }
-            break;
-          }
+      if (!isInclude && (match & EXCLUDE) != 0) {
+        if (this.sinkMethodMap.containsKey(cname)) {
+          isSinkClass = true;
+        } else {
+          isIgnore = true;
         }
       }
 
@@ -265,19 +451,11 @@ public class SootSceneTransformer extends SceneTransformer {
       // directory, ignore it
       if (!isIgnore && !isSinkClass && !isInclude) {
         if (this.hasTargetPackage()) {
-          boolean targetPackage = false;
-          for (String prefix : targetPackageList) {
-            if (cname.startsWith(prefix.replace("*", ""))) {
-              targetPackage = true;
-              break;
-            }
-          }
-          if (!targetPackage) {
+          if ((match & TARGET_PACKAGE) == 0) {
             isIgnore = true;
           }
         } else {
-          String currClassName = cname.substring(cname.lastIndexOf(".") + 1).split("\\$")[0];
-          if ((projectClassList.size() > 0) && (!projectClassList.contains(currClassName))) {
+          if (!this.sourceIndex.isEmpty() && !this.sourceIndex.containsClass(cname)) {
             isIgnore = true;
           }
         }
@@ -315,7 +493,7 @@ public class SootSceneTransformer extends SceneTransformer {
         classMethodMap.put(c, mList);
       }
       if (isAutoFuzz && !isAutoFuzzIgnore) {
-        CalltreeUtils.addConstructors(this.methodList, c);
+        CalltreeUtils.addConstructors(this.methodList, c, this.methodRegistry);
       }
     }
 
@@ -323,7 +501,16 @@ public class SootSceneTransformer extends SceneTransformer {
   }
 
   private void processMethods(
-      Map<SootClass, List<SootMethod>> classMethodMap, CallGraph callGraph) {
+      Map<SootClass, List<SootMethod>> classMethodMap, CsrCallGraph callGraph) {
+    // Only the methods reachable from the entry method are fully analysed if requested
+    BitSet reachable = null;
+    if (this.unreachableMethods != UnreachableMethods.ANALYSE) {
+      reachable = callGraph.getReachableMethods(this.entryMethod);
+    }
+
+    List<SootMethod> methodTaskList = new ArrayList<SootMethod>();
+    List<Boolean> analyseBodyList = new ArrayList<Boolean>();
+    int unreachableCount = 0;
     for (SootClass c : classMethodMap.keySet()) {
       // Skip sink method classes
       if (this.sinkMethodMap.containsKey(c.getName())) {
@@ -333,84 +520,289 @@ public class SootSceneTransformer extends SceneTransformer {
       System.out.println("Inspecting class: " + c.getName());
 
       // Loop through each methods in the class
-      List<SootMethod> mList = new LinkedList<SootMethod>();
-      mList.addAll(classMethodMap.get(c));
-      for (SootMethod m : mList) {
+      for (SootMethod m : classMethodMap.get(c)) {
         if (this.excludeMethodList.contains(m.getName())) {
           continue;
         }
-
-        // Discover method related information
-        FunctionElement element = new FunctionElement();
-        Map<String, Integer> functionLineMap = new HashMap<String, Integer>();
-
-        if (m.getName().equals(this.entryMethodStr) && c.getName().equals(this.entryClassStr)) {
-          this.entryMethod = m;
+        boolean isReachable = (reachable == null) || reachable.get(this.methodRegistry.getId(m));
+        if (!isReachable) {
+          unreachableCount++;
+          if (this.unreachableMethods == UnreachableMethods.OMIT) {
+            continue;
+          }
         }
+        methodTaskList.add(m);
+        analyseBodyList.add(isReachable);
+      }
+    }
+    this.metrics.addCounter("unreachableMethods", unreachableCount);
+
+    // Process each method, in parallel if more than one thread is configured.
+    // Each method collects its results separately and the results are merged
+    // in the original method order to keep the output deterministic.
+    List<FunctionElement> elementList = new ArrayList<FunctionElement>();
+    List<List<SootMethod>> sinkList = new ArrayList<List<SootMethod>>();
+    if (this.threadCount > 1) {
+      List<Callable<FunctionElement>> taskList = new ArrayList<Callable<FunctionElement>>();
+      for (int i = 0; i < methodTaskList.size(); i++) {
+        SootMethod m = methodTaskList.get(i);
+        boolean analyseBody = analyseBodyList.get(i);
+        List<SootMethod> reachedSinkMethods = new ArrayList<SootMethod>();
+        sinkList.add(reachedSinkMethods);
+        taskList.add(() -> this.processMethod(m, callGraph, analyseBody, reachedSinkMethods));
+      }
 
-        element.setFunctionName("[" + c.getFilePath() + "]." + m.getSubSignature().split(" ")[1]);
-        element.setBaseInformation(m);
-        if (isAutoFuzz) {
-          element.setJavaMethodInfo(m);
+      ForkJoinPool pool = new ForkJoinPool(this.threadCount);
+      try {
+        for (Future<FunctionElement> future : pool.invokeAll(taskList)) {
+          elementList.add(future.get());
         }
+      } catch (InterruptedException | ExecutionException e) {
+        throw new RuntimeException("Failed to process methods in parallel.", e);
+      } finally {
+        pool.shutdown();
+      }
+    } else {
+      for (int i = 0; i < methodTaskList.size(); i++) {
+        List<SootMethod> reachedSinkMethods = new ArrayList<SootMethod>();
+        sinkList.add(reachedSinkMethods);
+        elementList.add(
+            this.processMethod(
+                methodTaskList.get(i), callGraph, analyseBodyList.get(i), reachedSinkMethods));
+      }
+    }
 
-        // Retrieve and update incoming and outgoing edges of the target method
-        EdgeUtils.updateIncomingEdges(callGraph, m, element);
-        EdgeUtils.updateOutgoingEdges(
-            callGraph,
-            m,
-            element,
-            this.includeList,
-            this.excludeList,
-            this.excludeMethodList,
-            this.edgeClassMap,
-            functionLineMap);
-
-        // Identify blocks information
-        Body methodBody;
-        try {
-          methodBody = m.retrieveActiveBody();
-        } catch (Exception e) {
-          this.methodList.addFunctionElement(element);
-          // System.err.println("Source code for " + m + " not found.");
-          continue;
+    for (int i = 0; i < elementList.size(); i++) {
+      this.reachedSinkMethodList.addAll(sinkList.get(i));
+      this.methodList.addFunctionElement(elementList.get(i));
+    }
+  }
+
+  /**
+   * The method discovers all the information of the provided method and stores them in a new
+   * FunctionElement object. It only reads the shared analysis state, so it is safe to be called
+   * from multiple threads for different methods. The method body is only retrieved and analysed if
+   * its facts are not found in the analysis cache. Without body analysis, only the signature and
+   * the call graph edges of the method are stored, as for a method without body.
+   *
+   * @param m the SootMethod object to process
+   * @param callGraph the CsrCallGraph object for this run
+   * @param analyseBody a boolean value indicates if the body of the method is analysed
+   * @param reachedSinkMethodList a list to store the sink methods invoked by this method
+   * @return the FunctionElement object storing all the information of this method
+   */
+  private FunctionElement processMethod(
+      SootMethod m,
+      CsrCallGraph callGraph,
+      boolean analyseBody,
+      List<SootMethod> reachedSinkMethodList) {
+    SootClass c = m.getDeclaringClass();
+
+    // Discover method related information
+    FunctionElement element = new FunctionElement();
+    FunctionLineIndex functionLineIndex = new FunctionLineIndex();
+
+    MethodFacts facts = null;
+    if (this.analysisCache != null && analyseBody) {
+      facts = this.analysisCache.getMethodFacts(c.getName(), m.getSignature());
+    }
+
+    // Retrieve the method body first as the method line number is only
+    // available after the body has been retrieved. Methods of classes
+    // shared between fuzzers may already have their bodies retrieved.
+    Body methodBody = null;
+    if (facts == null && analyseBody) {
+      try {
+        methodBody = m.retrieveActiveBody();
+      } catch (Exception e) {
+        methodBody = null;
+      }
+    }
+
+    // Degrade the analysis of this method if the budget is running out,
+    // the facts of a degraded analysis are not stored in the cache
+    boolean withBranches = true;
+    boolean skipBody = false;
+    if (this.budget != null) {
+      withBranches =
+          !this.budget.shouldDegrade(NO_BRANCH_PROFILES, AnalysisBudget.BRANCH_PROFILE_THRESHOLD);
+      skipBody =
+          methodBody != null
+              && methodBody.getUnits().size() > LARGE_METHOD_UNITS
+              && this.budget.shouldDegrade(
+                  SKIP_LARGE_METHODS, AnalysisBudget.LARGE_METHOD_THRESHOLD);
+    }
+
+    element.setFunctionName(this.methodRegistry.getFunctionName(this.methodRegistry.getId(m)));
+    element.setBaseInformation(m);
+    if (isAutoFuzz) {
+      element.setJavaMethodInfo(m);
+    }
+
+    // Retrieve and update incoming and outgoing edges of the target method
+    EdgeUtils.updateIncomingEdges(callGraph, m, element);
+    EdgeUtils.updateOutgoingEdges(
+        this.mergedEdgeView,
+        m,
+        element,
+        this.fuzzerIncludeList,
+        this.excludeList,
+        this.excludeMethodList,
+        functionLineIndex);
+
+    if (facts == null) {
+      facts =
+          this.collectMethodFacts(
+              m, skipBody ? null : methodBody, withBranches, reachedSinkMethodList);
+      if (this.analysisCache != null && analyseBody && withBranches && !skipBody) {
+        this.analysisCache.putMethodFacts(c.getName(), m.getSignature(), facts);
+      }
+    } else {
+      for (String signature : facts.getReachedSinkMethods()) {
+        SootMethod sinkMethod = Scene.v().grabMethod(signature);
+        if (sinkMethod != null) {
+          reachedSinkMethodList.add(sinkMethod);
         }
-        BlockGraph blockGraph = new BriefBlockGraph(methodBody);
-
-        int iCount = 0;
-        for (Block block : blockGraph.getBlocks()) {
-          Iterator<Unit> blockIt = block.iterator();
-          while (blockIt.hasNext()) {
-            // Looping statement from all blocks from this specific method.
-            Unit unit = blockIt.next();
-            if (unit instanceof Stmt) {
-              Callsite callsite =
-                  BlockGraphInfoUtils.handleMethodInvocationInStatement(
-                      (Stmt) unit,
-                      c.getFilePath(),
-                      this.isAutoFuzz,
-                      this.sinkMethodMap,
-                      this.reachedSinkMethodList,
-                      this.excludeMethodList);
-              if (callsite != null) {
-                element.addCallsite(callsite);
-              }
-              if (unit instanceof IfStmt) {
-                element.addBranchProfile(
-                    BlockGraphInfoUtils.handleIfStatement(
-                        blockGraph.getBlocks(), unit, c.getName(), functionLineMap));
-              }
+      }
+    }
+
+    // Store blocks information
+    element.setFunctionLinenumber(facts.getFunctionLinenumber());
+    if (!facts.getHasBody()) {
+      return element;
+    }
+    if (!facts.getCallsites().isEmpty()) {
+      element.setCallsites(new ArrayList<Callsite>(facts.getCallsites()));
+    }
+    if (withBranches) {
+      for (BranchFacts branchFacts : facts.getBranches()) {
+        element.addBranchProfile(
+            BlockGraphInfoUtils.createBranchProfile(branchFacts, functionLineIndex));
+      }
+    }
+    element.setCountInformation(facts.getBbCount(), facts.getiCount(), facts.getComplexity());
+
+    return element;
+  }
+
+  /**
+   * The method discovers the information of the provided method which only depends on its body,
+   * including the block counts, call sites and the line ranges of all branches.
+   *
+   * @param m the SootMethod object to process
+   * @param methodBody the retrieved body of the method, or null if it is not available
+   * @param withBranches a boolean value indicates if the line ranges of branches are needed
+   * @param reachedSinkMethodList a list to store the sink methods invoked by this method
+   * @return the MethodFacts object storing the body information of this method
+   */
+  private MethodFacts collectMethodFacts(
+      SootMethod m, Body methodBody, boolean withBranches, List<SootMethod> reachedSinkMethodList) {
+    SootClass c = m.getDeclaringClass();
+    MethodFacts facts = new MethodFacts();
+    facts.setFunctionLinenumber(m.getJavaSourceStartLineNumber());
+
+    // Identify blocks information
+    if (methodBody == null) {
+      // System.err.println("Source code for " + m + " not found.");
+      return facts;
+    }
+    BlockGraph blockGraph = new BriefBlockGraph(methodBody);
+    FunctionElement callsiteElement = new FunctionElement();
+    List<SootMethod> sinkMethodList = new ArrayList<SootMethod>();
+
+    // The line interval index of the blocks is only built for methods with branches
+    BlockLineIndex blockLineIndex = null;
+    Set<String> dependencies = (this.analysisCache == null) ? null : new TreeSet<String>();
+    int iCount = 0;
+    for (Block block : blockGraph.getBlocks()) {
+      Iterator<Unit> blockIt = block.iterator();
+      while (blockIt.hasNext()) {
+        // Looping statement from all blocks from this specific method.
+        Unit unit = blockIt.next();
+        if (unit instanceof Stmt) {
+          Callsite callsite =
+              BlockGraphInfoUtils.handleMethodInvocationInStatement(
+                  (Stmt) unit,
+                  c.getFilePath(),
+                  this.isAutoFuzz,
+                  this.sinkMethodMap,
+                  sinkMethodList,
+                  this.excludeMethodList,
+                  this.methodRegistry);
+          if (callsite != null) {
+            callsiteElement.addCallsite(callsite);
+          }
+          if (dependencies != null && ((Stmt) unit).containsInvokeExpr()) {
+            this.addDependencies(dependencies, ((Stmt) unit).getInvokeExpr());
+          }
+          if (withBranches && unit instanceof IfStmt) {
+            if (blockLineIndex == null) {
+              blockLineIndex = new BlockLineIndex(blockGraph.getBlocks());
             }
-            iCount++;
+            facts.addBranch(BlockGraphInfoUtils.getBranchFacts(blockLineIndex, unit, c.getName()));
           }
         }
+        iCount++;
+      }
+    }
+
+    for (SootMethod sinkMethod : sinkMethodList) {
+      facts.addReachedSinkMethod(sinkMethod.getSignature());
+    }
+    reachedSinkMethodList.addAll(sinkMethodList);
+
+    facts.setHasBody(true);
+    facts.setCallsites(callsiteElement.getCallsites());
+    facts.setBbCount(blockGraph.size());
+    facts.setiCount(iCount);
+    facts.setComplexity(CalculationUtils.calculateCyclomaticComplexity(blockGraph));
+    if (dependencies != null) {
+      dependencies.remove(c.getName());
+      facts.setDependencies(new ArrayList<String>(dependencies));
+    }
 
-        element.setCountInformation(
-            blockGraph.size(), iCount, CalculationUtils.calculateCyclomaticComplexity(blockGraph));
+    return facts;
+  }
 
-        this.methodList.addFunctionElement(element);
+  /**
+   * The method adds the classes taking part in resolving the method invoked by the provided
+   * expression to the dependencies of the cached method facts. These are the referenced class, its
+   * superclasses and the declaring class of the resolved method. Classes outside of the jar files
+   * are ignored, as the cache never sees them change.
+   *
+   * @param dependencies a set to store the names of the classes the method facts depend on
+   * @param expr the InvokeExpr object of the invocation
+   */
+  private void addDependencies(Set<String> dependencies, InvokeExpr expr) {
+    SootClass cl = expr.getMethodRef().getDeclaringClass();
+    while (cl != null && this.analysisCache.containsClass(cl.getName())) {
+      dependencies.add(cl.getName());
+      cl = cl.hasSuperclass() ? cl.getSuperclass() : null;
+    }
+    try {
+      String targetClassName = expr.getMethod().getDeclaringClass().getName();
+      if (this.analysisCache.containsClass(targetClassName)) {
+        dependencies.add(targetClassName);
       }
+    } catch (ResolutionFailedException e) {
+      // Unresolvable invocations are skipped as in handleMethodInvocationInStatement
+    }
+  }
+
+  /**
+   * The method indexes the classes of the provided source directory of the target project.
+   *
+   * @param sourceDirectory the source directory, or "" or "NULL" if it is not provided
+   * @param indexFile the file storing the index between runs, or null to always parse all files
+   * @param threadCount the number of threads parsing the source files
+   * @return the SourceIndex object of the source directory, empty if it is not provided
+   */
+  public static SourceIndex createSourceIndex(
+      String sourceDirectory, File indexFile, int threadCount) {
+    if (sourceDirectory.equals("") || sourceDirectory.equals("NULL")) {
+      return SourceIndex.empty();
     }
+    return SourceIndex.build(sourceDirectory, indexFile, threadCount);
   }
 
   public Boolean hasTargetPackage() {
@@ -419,6 +811,7 @@ public class SootSceneTransformer extends SceneTransformer {
 
   public List<String> getIncludeList() {
     List<String> output = new LinkedList<String>(this.includeList);
+    output.addAll(this.entryClassList);
     output.addAll(this.sinkMethodMap.keySet());
     return output;
   }
@@ -431,7 +824,63 @@ public class SootSceneTransformer extends SceneTransformer {
     return this.analyseFinished;
   }
 
-  public void setEntryMethodStr(String entryMethodStr) {
-    this.entryMethodStr = entryMethodStr;
+  public void setAnalysisCache(AnalysisCache analysisCache) {
+    this.analysisCache = analysisCache;
+  }
+
+  /**
+   * The method sets the directory for the output files, they are written to the current working
+   * directory if it is not set.
+   *
+   * @param outputDirectory the directory to store the output files
+   */
+  public void setOutputDirectory(File outputDirectory) {
+    this.outputDirectory = outputDirectory;
+  }
+
+  /**
+   * The method sets the time and memory budget of the analysis, the analysis is never degraded if
+   * it is not set.
+   *
+   * @param budget the AnalysisBudget object of this run, or null for no budget
+   */
+  public void setBudget(AnalysisBudget budget) {
+    this.budget = budget;
+  }
+
+  public void setOutputFormat(OutputFormat outputFormat) {
+    this.outputFormat = outputFormat;
+  }
+
+  /**
+   * The method sets whether the merged call graph of each fuzzer is exported to a .callgraph.csr
+   * file, see CallGraphCsrWriter for the format.
+   *
+   * @param exportCsr true to export the merged call graph
+   */
+  public void setExportCsr(boolean exportCsr) {
+    this.exportCsr = exportCsr;
+  }
+
+  /**
+   * The method sets the handling of the methods in analysing scope which can not be reached from
+   * the entry method of the fuzzer, they are analysed like all other methods if it is not set.
+   *
+   * @param unreachableMethods the UnreachableMethods object of this run
+   */
+  public void setUnreachableMethods(UnreachableMethods unreachableMethods) {
+    this.unreachableMethods = unreachableMethods;
+  }
+
+  public void setMetrics(MetricsRecorder metrics) {
+    this.metrics = metrics;
+  }
+
+  public void setThreadCount(Integer threadCount) {
+    this.threadCount = threadCount;
+  }
+
+  public void addEntryMethod(String entryClassStr, SootMethod entryMethod) {
+    this.entryMethodMap.put(entryClassStr, entryMethod);
   }
 }
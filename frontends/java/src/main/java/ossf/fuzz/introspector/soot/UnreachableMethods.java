@@ -0,0 +1,44 @@
+// Copyright 2022 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot;
+
+/**
+ * Handling of the methods in analysing scope which can not be reached from the entry method of the
+ * fuzzer on the call graph. ANALYSE processes them like all other methods, SIGNATURE keeps them in
+ * the function data with their signature and call graph edges only, skipping the retrieval and
+ * analysis of their bodies, and OMIT leaves them out of the function data.
+ */
+public enum UnreachableMethods {
+  ANALYSE,
+  SIGNATURE,
+  OMIT;
+
+  /**
+   * The method retrieves the handling of unreachable methods with the provided name, ignoring the
+   * case.
+   *
+   * @param name the name of the handling
+   * @return the UnreachableMethods object, or null if no handling has the name
+   */
+  public static UnreachableMethods fromName(String name) {
+    for (UnreachableMethods mode : UnreachableMethods.values()) {
+      if (mode.name().equalsIgnoreCase(name)) {
+        return mode;
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,321 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.cache;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * On-disk cache of the per-method facts derived from method bodies. The cache directory holds one
+ * file per jar, named after the SHA-256 hash of the jar path, which stores the facts grouped by
+ * class together with a fingerprint of each class file. When the cache is opened, the classes whose
+ * fingerprint changed, and the classes whose facts depend on them, are dropped from the cache, so
+ * only their methods are analysed again. Each entry also records the analysis options affecting the
+ * facts and is discarded if they differ. The loaded entries can also be kept in memory between runs
+ * of the same process with an entry pool, and without a cache directory the cache only lives in the
+ * entry pool.
+ */
+public class AnalysisCache {
+  private static final String CACHE_VERSION = "2";
+
+  private File cacheDir;
+  private String options;
+  private ObjectMapper mapper;
+  private Map<String, String> classJarMap;
+  private Map<String, CacheEntry> entryMap;
+  private AtomicInteger hitCount;
+  private AtomicInteger missCount;
+
+  /**
+   * Creates the cache for the given jar files and loads the existing entries of them.
+   *
+   * @param cacheDir the directory storing the cache entries
+   * @param jarFiles the list of jar files to be analysed
+   * @param options a string representing all analysis options which affect the method facts
+   */
+  public AnalysisCache(File cacheDir, List<String> jarFiles, String options) throws IOException {
+    this(cacheDir, jarFiles, options, new HashMap<String, CacheEntry>());
+  }
+
+  /**
+   * Creates the cache for the given jar files, taking the entries from the provided pool when they
+   * are kept there from a previous run. Afterwards the pool only keeps the entries of the given jar
+   * files, so entries of removed jars do not pile up in memory.
+   *
+   * @param cacheDir the directory storing the cache entries, or null to keep them in memory only
+   * @param jarFiles the list of jar files to be analysed
+   * @param options a string representing all analysis options which affect the method facts
+   * @param entryPool a map storing the entries of the previous run keyed by the jar path hash
+   */
+  public AnalysisCache(
+      File cacheDir, List<String> jarFiles, String options, Map<String, CacheEntry> entryPool)
+      throws IOException {
+    this.cacheDir = cacheDir;
+    this.options = options;
+    this.mapper = new ObjectMapper();
+    this.mapper.configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+    this.mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    this.classJarMap = new HashMap<String, String>();
+    this.entryMap = new LinkedHashMap<String, CacheEntry>();
+    this.hitCount = new AtomicInteger();
+    this.missCount = new AtomicInteger();
+
+    if (cacheDir != null) {
+      Files.createDirectories(cacheDir.toPath());
+    }
+    Set<String> changedClasses = new HashSet<String>();
+    for (String jarFile : jarFiles) {
+      File file = new File(jarFile);
+      if (!file.isFile()) {
+        continue;
+      }
+      String key = AnalysisCache.hashString(file.getCanonicalPath());
+      if (this.entryMap.containsKey(key)) {
+        continue;
+      }
+      CacheEntry entry = entryPool.get(key);
+      if (entry == null || !this.isValid(entry)) {
+        entry = this.loadEntry(key);
+      }
+      this.entryMap.put(key, entry);
+      this.updateClasses(file, key, entry, changedClasses);
+    }
+    int invalidCount = this.invalidateDependents(changedClasses);
+    System.out.println(
+        "[Callgraph] Analysis cache: "
+            + changedClasses.size()
+            + " changed classes, "
+            + invalidCount
+            + " dependent classes invalidated");
+
+    entryPool.clear();
+    entryPool.putAll(this.entryMap);
+  }
+
+  /**
+   * The method checks if the given class comes from one of the jar files, so that the facts
+   * depending on it are tracked.
+   *
+   * @param className the name of the class
+   * @return true if the class is in one of the jar files
+   */
+  public boolean containsClass(String className) {
+    return this.classJarMap.containsKey(className);
+  }
+
+  /**
+   * The method retrieves the cached facts of a method. This method is safe to be called from
+   * multiple threads.
+   *
+   * @param className the name of the declaring class of the method
+   * @param signature the Soot signature of the method
+   * @return the cached MethodFacts object, or null if the method is not cached
+   */
+  public MethodFacts getMethodFacts(String className, String signature) {
+    CacheEntry entry = this.getEntry(className);
+    MethodFacts facts = (entry == null) ? null : entry.getMethodFacts(className, signature);
+    if (facts == null) {
+      this.missCount.incrementAndGet();
+    } else {
+      this.hitCount.incrementAndGet();
+    }
+    return facts;
+  }
+
+  /**
+   * The method stores the facts of a method in the entry of the jar containing its class. Methods
+   * of classes which do not come from any of the jar files are ignored. The dependencies of the
+   * facts should only list classes for which containsClass returns true. This method is safe to be
+   * called from multiple threads.
+   *
+   * @param className the name of the declaring class of the method
+   * @param signature the Soot signature of the method
+   * @param facts the MethodFacts object to store
+   */
+  public void putMethodFacts(String className, String signature, MethodFacts facts) {
+    CacheEntry entry = this.getEntry(className);
+    if (entry != null) {
+      entry.putMethodFacts(className, signature, facts);
+    }
+  }
+
+  /** The method writes all modified entries back to the cache directory. */
+  public void save() throws IOException {
+    for (Map.Entry<String, CacheEntry> entry : this.entryMap.entrySet()) {
+      if (this.cacheDir != null && entry.getValue().isModified()) {
+        // Write to a temporary file first so concurrent runs never read a partial entry
+        File file = this.getEntryFile(entry.getKey());
+        File tempFile = File.createTempFile(entry.getKey(), ".tmp", this.cacheDir);
+        this.mapper.writeValue(tempFile, entry.getValue());
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        entry.getValue().markSaved();
+      }
+    }
+    System.out.println(
+        "[Callgraph] Analysis cache: "
+            + this.hitCount.get()
+            + " hits, "
+            + this.missCount.get()
+            + " misses");
+  }
+
+  /**
+   * The method compares the classes of a jar file with the classes of its cache entry. The entries
+   * of changed and new classes are reset, and the entries of classes no longer served from this jar
+   * are removed. All these classes are added to the provided set of changed classes.
+   *
+   * @param file the jar file
+   * @param key the key of the cache entry of the jar file
+   * @param entry the cache entry of the jar file
+   * @param changedClasses a set to store the names of the changed classes
+   */
+  private void updateClasses(File file, String key, CacheEntry entry, Set<String> changedClasses)
+      throws IOException {
+    // Classes are served from the first jar containing them, as on the class path.
+    // The CRC and size of the class files stored in the zip directory serve as
+    // fingerprint, so the classes need not be read.
+    try (ZipFile zipFile = new ZipFile(file)) {
+      Enumeration<? extends ZipEntry> entries = zipFile.entries();
+      while (entries.hasMoreElements()) {
+        ZipEntry zipEntry = entries.nextElement();
+        String name = zipEntry.getName();
+        if (!name.endsWith(".class") || name.startsWith("META-INF/")) {
+          continue;
+        }
+        String className = name.substring(0, name.length() - 6).replace('/', '.');
+        if (this.classJarMap.putIfAbsent(className, key) != null) {
+          continue;
+        }
+        String fingerprint =
+            Long.toHexString(zipEntry.getCrc()) + ":" + Long.toHexString(zipEntry.getSize());
+        ClassEntry classEntry = entry.getClassEntry(className);
+        if (classEntry == null || !fingerprint.equals(classEntry.getFingerprint())) {
+          entry.putClassEntry(className, new ClassEntry(fingerprint));
+          changedClasses.add(className);
+        }
+      }
+    }
+
+    for (String className : new ArrayList<String>(entry.getClasses().keySet())) {
+      if (!key.equals(this.classJarMap.get(className))) {
+        entry.removeClassEntry(className);
+        changedClasses.add(className);
+      }
+    }
+  }
+
+  /**
+   * The method resets the entries of the unchanged classes having a method whose facts depend on
+   * one of the changed classes. The dependencies of a method already cover all classes taking part
+   * in resolving its invoked methods, so the dependents of the reset classes need not be reset.
+   *
+   * @param changedClasses the set of the names of the changed classes
+   * @return the number of reset classes
+   */
+  private int invalidateDependents(Set<String> changedClasses) {
+    int count = 0;
+    if (changedClasses.isEmpty()) {
+      return count;
+    }
+    for (CacheEntry entry : this.entryMap.values()) {
+      for (Map.Entry<String, ClassEntry> classEntry : entry.getClasses().entrySet()) {
+        if (!changedClasses.contains(classEntry.getKey())
+            && AnalysisCache.dependsOn(classEntry.getValue(), changedClasses)) {
+          entry.putClassEntry(
+              classEntry.getKey(), new ClassEntry(classEntry.getValue().getFingerprint()));
+          count++;
+        }
+      }
+    }
+    return count;
+  }
+
+  private static boolean dependsOn(ClassEntry classEntry, Set<String> classes) {
+    for (MethodFacts facts : classEntry.getMethods().values()) {
+      for (String dependency : facts.getDependencies()) {
+        if (classes.contains(dependency)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private CacheEntry getEntry(String className) {
+    String key = this.classJarMap.get(className);
+    return (key == null) ? null : this.entryMap.get(key);
+  }
+
+  private File getEntryFile(String key) {
+    return new File(this.cacheDir, key + ".json");
+  }
+
+  private boolean isValid(CacheEntry entry) {
+    return CACHE_VERSION.equals(entry.getVersion()) && this.options.equals(entry.getOptions());
+  }
+
+  private CacheEntry loadEntry(String key) {
+    if (this.cacheDir == null) {
+      return new CacheEntry(CACHE_VERSION, this.options);
+    }
+    File file = this.getEntryFile(key);
+    if (file.isFile()) {
+      try {
+        CacheEntry entry = this.mapper.readValue(file, CacheEntry.class);
+        if (this.isValid(entry)) {
+          return entry;
+        }
+      } catch (IOException e) {
+        System.err.println("Ignoring invalid analysis cache entry " + file + ": " + e);
+      }
+    }
+    return new CacheEntry(CACHE_VERSION, this.options);
+  }
+
+  public static String hashString(String str) throws IOException {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IOException(e);
+    }
+
+    StringBuilder hash = new StringBuilder();
+    for (byte b : digest.digest(str.getBytes(StandardCharsets.UTF_8))) {
+      hash.append(String.format("%02x", b));
+    }
+    return hash.toString();
+  }
+}
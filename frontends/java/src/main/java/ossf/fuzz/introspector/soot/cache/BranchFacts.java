@@ -0,0 +1,91 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Body derived facts of an if statement. The functions invoked in each branch side depend on the
+ * call graph, so only the source line range of each side is stored and the function list is
+ * recalculated for every run.
+ */
+public class BranchFacts {
+  private String branchString;
+  private List<Side> sides;
+
+  public BranchFacts() {
+    this.sides = new ArrayList<Side>();
+  }
+
+  public String getBranchString() {
+    return branchString;
+  }
+
+  public void setBranchString(String branchString) {
+    this.branchString = branchString;
+  }
+
+  public List<Side> getSides() {
+    return sides;
+  }
+
+  public void addSide(Side side) {
+    this.sides.add(side);
+  }
+
+  public void setSides(List<Side> sides) {
+    this.sides = sides;
+  }
+
+  public static class Side {
+    private String branchSideStr;
+    private Integer start;
+    private Integer end;
+
+    public Side() {}
+
+    public Side(String branchSideStr, Integer start, Integer end) {
+      this.branchSideStr = branchSideStr;
+      this.start = start;
+      this.end = end;
+    }
+
+    public String getBranchSideStr() {
+      return branchSideStr;
+    }
+
+    public void setBranchSideStr(String branchSideStr) {
+      this.branchSideStr = branchSideStr;
+    }
+
+    public Integer getStart() {
+      return start;
+    }
+
+    public void setStart(Integer start) {
+      this.start = start;
+    }
+
+    public Integer getEnd() {
+      return end;
+    }
+
+    public void setEnd(Integer end) {
+      this.end = end;
+    }
+  }
+}
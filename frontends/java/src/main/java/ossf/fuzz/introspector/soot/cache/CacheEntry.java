@@ -0,0 +1,115 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.cache;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cached method facts of all classes of one jar, keyed by class name. The entry holds a ClassEntry
+ * for every class of the jar, also for those without analysed methods, so classes added to the jar
+ * can be told apart from unchanged ones.
+ */
+public class CacheEntry {
+  private String version;
+  private String options;
+  private Map<String, ClassEntry> classes;
+  private Boolean modified;
+
+  public CacheEntry() {
+    this.classes = new ConcurrentHashMap<String, ClassEntry>();
+    this.modified = false;
+  }
+
+  public CacheEntry(String version, String options) {
+    this();
+    this.version = version;
+    this.options = options;
+  }
+
+  public String getVersion() {
+    return version;
+  }
+
+  public void setVersion(String version) {
+    this.version = version;
+  }
+
+  public String getOptions() {
+    return options;
+  }
+
+  public void setOptions(String options) {
+    this.options = options;
+  }
+
+  public Map<String, ClassEntry> getClasses() {
+    return classes;
+  }
+
+  public void setClasses(Map<String, ClassEntry> classes) {
+    this.classes = new ConcurrentHashMap<String, ClassEntry>(classes);
+  }
+
+  public ClassEntry getClassEntry(String className) {
+    return this.classes.get(className);
+  }
+
+  /**
+   * The method stores the entry of a class, replacing the existing entry and its method facts.
+   *
+   * @param className the name of the class
+   * @param classEntry the ClassEntry object to store
+   */
+  public void putClassEntry(String className, ClassEntry classEntry) {
+    this.classes.put(className, classEntry);
+    this.modified = true;
+  }
+
+  /**
+   * The method removes the entry of a class, if it exists.
+   *
+   * @param className the name of the class
+   */
+  public void removeClassEntry(String className) {
+    if (this.classes.remove(className) != null) {
+      this.modified = true;
+    }
+  }
+
+  public MethodFacts getMethodFacts(String className, String signature) {
+    ClassEntry classEntry = this.classes.get(className);
+    return (classEntry == null) ? null : classEntry.getMethods().get(signature);
+  }
+
+  public void putMethodFacts(String className, String signature, MethodFacts facts) {
+    ClassEntry classEntry = this.classes.get(className);
+    if (classEntry != null && classEntry.getMethods().putIfAbsent(signature, facts) == null) {
+      this.modified = true;
+    }
+  }
+
+  @JsonIgnore
+  public Boolean isModified() {
+    return modified;
+  }
+
+  /** The method marks the entry as unmodified after it is written to the cache directory. */
+  public void markSaved() {
+    this.modified = false;
+  }
+}
@@ -0,0 +1,53 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cached method facts of all analysed methods of one class, keyed by method signature, together
+ * with the fingerprint of the class file they are derived from.
+ */
+public class ClassEntry {
+  private String fingerprint;
+  private Map<String, MethodFacts> methods;
+
+  public ClassEntry() {
+    this.methods = new ConcurrentHashMap<String, MethodFacts>();
+  }
+
+  public ClassEntry(String fingerprint) {
+    this();
+    this.fingerprint = fingerprint;
+  }
+
+  public String getFingerprint() {
+    return fingerprint;
+  }
+
+  public void setFingerprint(String fingerprint) {
+    this.fingerprint = fingerprint;
+  }
+
+  public Map<String, MethodFacts> getMethods() {
+    return methods;
+  }
+
+  public void setMethods(Map<String, MethodFacts> methods) {
+    this.methods = new ConcurrentHashMap<String, MethodFacts>(methods);
+  }
+}
@@ -0,0 +1,129 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import ossf.fuzz.introspector.soot.yaml.Callsite;
+
+/**
+ * Facts of a single method which depend on the method body and on the classes it references to
+ * resolve the invoked methods. They stay valid as long as the class of the method and the classes
+ * listed as its dependencies are unchanged.
+ */
+public class MethodFacts {
+  private Boolean hasBody;
+  private Integer functionLinenumber;
+  private Integer bbCount;
+  private Integer iCount;
+  private Integer complexity;
+  private List<Callsite> callsites;
+  private List<BranchFacts> branches;
+  private List<String> reachedSinkMethods;
+  private List<String> dependencies;
+
+  public MethodFacts() {
+    this.hasBody = false;
+    this.functionLinenumber = -1;
+    this.bbCount = 0;
+    this.iCount = 0;
+    this.complexity = 0;
+    this.callsites = new ArrayList<Callsite>();
+    this.branches = new ArrayList<BranchFacts>();
+    this.reachedSinkMethods = new ArrayList<String>();
+    this.dependencies = new ArrayList<String>();
+  }
+
+  public Boolean getHasBody() {
+    return hasBody;
+  }
+
+  public void setHasBody(Boolean hasBody) {
+    this.hasBody = hasBody;
+  }
+
+  public Integer getFunctionLinenumber() {
+    return functionLinenumber;
+  }
+
+  public void setFunctionLinenumber(Integer functionLinenumber) {
+    this.functionLinenumber = functionLinenumber;
+  }
+
+  public Integer getBbCount() {
+    return bbCount;
+  }
+
+  public void setBbCount(Integer bbCount) {
+    this.bbCount = bbCount;
+  }
+
+  public Integer getiCount() {
+    return iCount;
+  }
+
+  public void setiCount(Integer iCount) {
+    this.iCount = iCount;
+  }
+
+  public Integer getComplexity() {
+    return complexity;
+  }
+
+  public void setComplexity(Integer complexity) {
+    this.complexity = complexity;
+  }
+
+  public List<Callsite> getCallsites() {
+    return callsites;
+  }
+
+  public void setCallsites(List<Callsite> callsites) {
+    this.callsites = callsites;
+  }
+
+  public List<BranchFacts> getBranches() {
+    return branches;
+  }
+
+  public void addBranch(BranchFacts branch) {
+    this.branches.add(branch);
+  }
+
+  public void setBranches(List<BranchFacts> branches) {
+    this.branches = branches;
+  }
+
+  public List<String> getReachedSinkMethods() {
+    return reachedSinkMethods;
+  }
+
+  public void addReachedSinkMethod(String signature) {
+    this.reachedSinkMethods.add(signature);
+  }
+
+  public void setReachedSinkMethods(List<String> reachedSinkMethods) {
+    this.reachedSinkMethods = reachedSinkMethods;
+  }
+
+  public List<String> getDependencies() {
+    return dependencies;
+  }
+
+  public void setDependencies(List<String> dependencies) {
+    this.dependencies = dependencies;
+  }
+}
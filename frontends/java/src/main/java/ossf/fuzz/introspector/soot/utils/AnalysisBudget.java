@@ -0,0 +1,146 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.utils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Time and memory budget of an analysis run. The usage of the budget is the larger of the elapsed
+ * time and the used heap, as a fraction of their limits. The analysis degrades step by step when
+ * the usage reaches the threshold of each step, and a step once applied stays applied for the rest
+ * of the run. The applied steps are recorded so that they can be marked in the output.
+ */
+public class AnalysisBudget {
+  // Usage thresholds of the degradation steps, in the order they are usually reached
+  public static final double CALL_GRAPH_THRESHOLD = 0.25;
+  public static final double BRANCH_PROFILE_THRESHOLD = 0.5;
+  public static final double LARGE_METHOD_THRESHOLD = 0.6;
+  public static final double CALL_TREE_THRESHOLD = 0.8;
+
+  // The usage is measured again at most once per interval
+  private static final long MEASURE_INTERVAL_NANOS = 50000000L;
+
+  private long startTime;
+  private long timeLimitNanos;
+  private long heapLimitBytes;
+  private Set<String> degradationSet;
+  private volatile double usage;
+  private volatile long measureTime;
+
+  /**
+   * Creates the budget starting from now.
+   *
+   * @param timeLimitSeconds the time limit in seconds, or 0 for no time limit
+   * @param heapLimitMegabytes the heap limit in megabytes, or 0 for the maximum heap size
+   */
+  public AnalysisBudget(long timeLimitSeconds, long heapLimitMegabytes) {
+    this.startTime = System.nanoTime();
+    this.timeLimitNanos = timeLimitSeconds * 1000000000L;
+    this.heapLimitBytes = Runtime.getRuntime().maxMemory();
+    if (heapLimitMegabytes > 0) {
+      this.heapLimitBytes = Math.min(this.heapLimitBytes, heapLimitMegabytes << 20);
+    }
+    this.degradationSet = new LinkedHashSet<String>();
+    this.usage = 0;
+    this.measureTime = this.startTime - MEASURE_INTERVAL_NANOS;
+  }
+
+  /**
+   * The method decides if a degradation step should be applied, and records it if so. This method
+   * is safe to be called from multiple threads.
+   *
+   * @param degradation the name of the degradation step
+   * @param threshold the usage of the budget from which the step is applied
+   * @return true if the step is applied
+   */
+  public boolean shouldDegrade(String degradation, double threshold) {
+    synchronized (this.degradationSet) {
+      if (this.degradationSet.contains(degradation)) {
+        return true;
+      }
+    }
+    if (this.getUsage() < threshold) {
+      return false;
+    }
+    synchronized (this.degradationSet) {
+      if (this.degradationSet.add(degradation)) {
+        System.out.println(
+            "[Callgraph] Analysis budget "
+                + Math.round(this.usage * 100)
+                + "% used, applying degradation: "
+                + degradation);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * The method retrieves the applied degradation steps.
+   *
+   * @return the list of the applied degradation steps in the order they are applied
+   */
+  public List<String> getDegradations() {
+    synchronized (this.degradationSet) {
+      return new ArrayList<String>(this.degradationSet);
+    }
+  }
+
+  /**
+   * The method retrieves the used fraction of the budget, which could be more than 1 when the
+   * budget is exceeded.
+   *
+   * @return the used fraction of the budget
+   */
+  public double getUsage() {
+    long now = System.nanoTime();
+    if (now - this.measureTime >= MEASURE_INTERVAL_NANOS) {
+      double currentUsage = (double) AnalysisBudget.getUsedHeap() / this.heapLimitBytes;
+      if (this.timeLimitNanos > 0) {
+        currentUsage =
+            Math.max(currentUsage, (double) (now - this.startTime) / this.timeLimitNanos);
+      }
+      this.usage = currentUsage;
+      this.measureTime = now;
+    }
+    return this.usage;
+  }
+
+  static long getUsedHeap() {
+    // Heap usage after the last collection excludes the garbage not collected yet, but it is 0 for
+    // pools never collected and stale for pools rarely collected, e.g. the old generation holding
+    // the large arrays allocated since. The larger of the two is taken, so live data is never
+    // missed, at the cost of also counting some garbage.
+    long used = 0;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        long poolUsed = pool.getUsage().getUsed();
+        MemoryUsage collectionUsage = pool.getCollectionUsage();
+        if (collectionUsage != null) {
+          poolUsed = Math.max(poolUsed, collectionUsage.getUsed());
+        }
+        used += poolUsed;
+      }
+    }
+    return used;
+  }
+}
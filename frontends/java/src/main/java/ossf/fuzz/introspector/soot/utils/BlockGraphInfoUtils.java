@@ -16,12 +16,10 @@
 package ossf.fuzz.introspector.soot.utils;
 
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import ossf.fuzz.introspector.soot.cache.BranchFacts;
 import ossf.fuzz.introspector.soot.yaml.BranchProfile;
 import ossf.fuzz.introspector.soot.yaml.BranchSide;
 import ossf.fuzz.introspector.soot.yaml.Callsite;
@@ -32,7 +30,6 @@ import soot.Unit;
 import soot.jimple.IfStmt;
 import soot.jimple.InvokeExpr;
 import soot.jimple.Stmt;
-import soot.toolkits.graph.Block;
 
 public class BlockGraphInfoUtils {
   /**
@@ -48,6 +45,7 @@ public class BlockGraphInfoUtils {
    * @param reachedSinkMethodList a list of sink methods which are reachable by the given entry
    *     method
    * @param excludeMethodList a list to store all excluded method names for this run
+   * @param methodRegistry the MethodRegistry object providing the method names
    * @return the callsite object to store in the output yaml file, return null if Soot fails to
    *     resolve the invocation
    */
@@ -57,7 +55,8 @@ public class BlockGraphInfoUtils {
       Boolean isAutoFuzz,
       Map<String, Set<String>> sinkMethodMap,
       List<SootMethod> reachedSinkMethodList,
-      List<String> excludeMethodList) {
+      List<String> excludeMethodList,
+      MethodRegistry methodRegistry) {
     // Handle statements of a method
     try {
       if ((stmt.containsInvokeExpr()) && (sourceFilePath != null)) {
@@ -72,8 +71,7 @@ public class BlockGraphInfoUtils {
         if (!excludeMethodList.contains(target.getName())) {
           callsite.setSource(sourceFilePath + ":" + stmt.getJavaSourceStartLineNumber() + ",1");
           if (isAutoFuzz) {
-            callsite.setMethodName(
-                "[" + tClass.getName() + "]." + target.getSubSignature().split(" ")[1]);
+            callsite.setMethodName(methodRegistry.getFunctionName(methodRegistry.getId(target)));
           } else {
             callsite.setMethodName("[" + tClass.getName() + "]." + target.getName());
           }
@@ -95,95 +93,77 @@ public class BlockGraphInfoUtils {
    * includes the information of the true or false blocks of code pointed by the provided if
    * statement.
    *
-   * @param blocks a list of all code blocks
+   * @param blockLineIndex the line interval index of all code blocks of the method
    * @param unit the Unit object that contains the if statement block
    * @param cname the name of the class where the target code block belongs
-   * @param functionLineMap a map object to store the starting line number of known methods
+   * @param functionLineIndex the index of the lines of the methods invoked by the method
    * @return the BranchProfile object with all the source information for the if statement
    */
   public static BranchProfile handleIfStatement(
-      List<Block> blocks, Unit unit, String cname, Map<String, Integer> functionLineMap) {
+      BlockLineIndex blockLineIndex, Unit unit, String cname, FunctionLineIndex functionLineIndex) {
+    return createBranchProfile(getBranchFacts(blockLineIndex, unit, cname), functionLineIndex);
+  }
+
+  /**
+   * The method retrieves the source line ranges of the true and false blocks of code pointed by the
+   * provided if statement. The result only depends on the method body.
+   *
+   * @param blockLineIndex the line interval index of all code blocks of the method
+   * @param unit the Unit object that contains the if statement block
+   * @param cname the name of the class where the target code block belongs
+   * @return the BranchFacts object with the line ranges of both branch sides
+   */
+  public static BranchFacts getBranchFacts(BlockLineIndex blockLineIndex, Unit unit, String cname) {
     // Handle if branch
-    BranchProfile branchProfile = new BranchProfile();
+    BranchFacts branchFacts = new BranchFacts();
 
-    Integer trueBlockLineNumber = unit.getJavaSourceStartLineNumber() + 1;
-    Integer falseBlockLineNumber =
+    int trueBlockLineNumber = unit.getJavaSourceStartLineNumber() + 1;
+    int falseBlockLineNumber =
         ((IfStmt) unit).getUnitBoxes().get(0).getUnit().getJavaSourceStartLineNumber();
 
-    Map<String, Integer> trueBlockLine =
-        getBlockStartEndLineWithLineNumber(blocks, trueBlockLineNumber);
-    Map<String, Integer> falseBlockLine =
-        getBlockStartEndLineWithLineNumber(blocks, falseBlockLineNumber);
+    int[] trueBlockLine = blockLineIndex.getBlockLines(trueBlockLineNumber);
+    int[] falseBlockLine = blockLineIndex.getBlockLines(falseBlockLineNumber);
 
     // True branch
-    if (!trueBlockLine.isEmpty()) {
-      Integer start = falseBlockLine.get("start");
-      branchProfile.addBranchSides(
-          processBranch(trueBlockLine, cname + ":" + start, functionLineMap));
+    if (trueBlockLine != null) {
+      Integer start = (falseBlockLine == null) ? null : falseBlockLine[0];
+      branchFacts.addSide(
+          new BranchFacts.Side(cname + ":" + start, trueBlockLine[0], trueBlockLine[1]));
     }
 
     // False branch
-    if (!falseBlockLine.isEmpty()) {
-      Integer start = falseBlockLine.get("start");
-      branchProfile.addBranchSides(
-          processBranch(falseBlockLine, cname + ":" + (start - 1), functionLineMap));
+    if (falseBlockLine != null) {
+      Integer start = falseBlockLine[0];
+      branchFacts.addSide(
+          new BranchFacts.Side(cname + ":" + (start - 1), falseBlockLine[0], falseBlockLine[1]));
     }
 
-    branchProfile.setBranchString(cname + ":" + unit.getJavaSourceStartLineNumber());
+    branchFacts.setBranchString(cname + ":" + unit.getJavaSourceStartLineNumber());
 
-    return branchProfile;
+    return branchFacts;
   }
 
-  private static BranchSide processBranch(
-      Map<String, Integer> blockLine, String cname, Map<String, Integer> functionLineMap) {
-    BranchSide branchSide = new BranchSide();
-
-    Integer start = blockLine.get("start");
-    Integer end = blockLine.get("end");
-    branchSide.setBranchSideStr(cname);
-    branchSide.setBranchSideFuncs(getFunctionCallInTargetLine(functionLineMap, start, end));
-
-    return branchSide;
-  }
+  /**
+   * The method creates the BranchProfile object of an if statement from its line ranges and the
+   * lines of the methods invoked in the containing method.
+   *
+   * @param branchFacts the BranchFacts object of the if statement
+   * @param functionLineIndex the index of the lines of the methods invoked by the method
+   * @return the BranchProfile object with all the source information for the if statement
+   */
+  public static BranchProfile createBranchProfile(
+      BranchFacts branchFacts, FunctionLineIndex functionLineIndex) {
+    BranchProfile branchProfile = new BranchProfile();
 
-  private static Map<String, Integer> getBlockStartEndLineWithLineNumber(
-      List<Block> blocks, Integer lineNumber) {
-    Integer startLine;
-    Integer endLine;
-
-    for (Block block : blocks) {
-      Iterator<Unit> it = block.iterator();
-      startLine = -1;
-      endLine = -1;
-      while (it.hasNext()) {
-        Unit unit = it.next();
-        if (startLine == -1) {
-          startLine = unit.getJavaSourceStartLineNumber();
-        }
-        endLine = unit.getJavaSourceStartLineNumber();
-      }
-      if (lineNumber >= startLine && lineNumber <= endLine) {
-        Map<String, Integer> line = new HashMap<String, Integer>();
-        line.put("start", startLine);
-        line.put("end", endLine);
-        return line;
-      }
+    for (BranchFacts.Side side : branchFacts.getSides()) {
+      BranchSide branchSide = new BranchSide();
+      branchSide.setBranchSideStr(side.getBranchSideStr());
+      branchSide.setBranchSideFuncs(functionLineIndex.getFunctions(side.getStart(), side.getEnd()));
+      branchProfile.addBranchSides(branchSide);
     }
 
-    return Collections.emptyMap();
-  }
-
-  private static List<String> getFunctionCallInTargetLine(
-      Map<String, Integer> functionLineMap, Integer startLine, Integer endLine) {
-    List<String> targetFunctionList = new LinkedList<String>();
-
-    for (String key : functionLineMap.keySet()) {
-      Integer lineNumber = functionLineMap.get(key);
-      if (lineNumber >= startLine && lineNumber <= endLine) {
-        targetFunctionList.add(key);
-      }
-    }
+    branchProfile.setBranchString(branchFacts.getBranchString());
 
-    return targetFunctionList;
+    return branchProfile;
   }
 }
@@ -0,0 +1,145 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.utils;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import soot.Unit;
+import soot.toolkits.graph.Block;
+
+/**
+ * Line interval index of the blocks of a method body. Each block covers the lines from its first to
+ * its last unit. A line is resolved to the first block in the block order that covers it, in the
+ * same way as scanning the blocks one by one, but with a binary search over precomputed disjoint
+ * line ranges.
+ */
+public class BlockLineIndex {
+  private int[] rangeStarts;
+  private int[] rangeEnds;
+  private int[] blockStarts;
+  private int[] blockEnds;
+
+  public BlockLineIndex(List<Block> blocks) {
+    this(getStartLines(blocks), getEndLines(blocks));
+  }
+
+  /**
+   * The constructor builds the index from the start and end lines of the blocks in the block order.
+   *
+   * @param startLines the start line of each block
+   * @param endLines the end line of each block
+   */
+  public BlockLineIndex(int[] startLines, int[] endLines) {
+    // Disjoint line ranges, each mapped to the first block covering it.
+    // The union of covered lines is kept separately so that each block
+    // only walks through the ranges it overlaps once.
+    TreeMap<Integer, int[]> rangeMap = new TreeMap<Integer, int[]>();
+    TreeMap<Integer, Integer> coveredMap = new TreeMap<Integer, Integer>();
+
+    for (int block = 0; block < startLines.length; block++) {
+      int startLine = startLines[block];
+      int endLine = endLines[block];
+      if (startLine > endLine) {
+        continue;
+      }
+
+      int coveredStart = startLine;
+      int coveredEnd = endLine;
+      long pos = startLine;
+      Map.Entry<Integer, Integer> previous = coveredMap.floorEntry(startLine);
+      if (previous != null && previous.getValue() >= startLine) {
+        coveredStart = previous.getKey();
+        coveredEnd = Math.max(coveredEnd, previous.getValue());
+        pos = (long) previous.getValue() + 1;
+        coveredMap.remove(previous.getKey());
+      }
+
+      // Assign the uncovered gaps of the block range to this block
+      while (pos <= endLine) {
+        Map.Entry<Integer, Integer> next = coveredMap.ceilingEntry((int) pos);
+        if (next == null || next.getKey() > endLine) {
+          rangeMap.put((int) pos, new int[] {endLine, startLine, endLine});
+          break;
+        }
+        if (next.getKey() > pos) {
+          rangeMap.put((int) pos, new int[] {next.getKey() - 1, startLine, endLine});
+        }
+        coveredEnd = Math.max(coveredEnd, next.getValue());
+        pos = (long) next.getValue() + 1;
+        coveredMap.remove(next.getKey());
+      }
+      coveredMap.put(coveredStart, coveredEnd);
+    }
+
+    int size = rangeMap.size();
+    this.rangeStarts = new int[size];
+    this.rangeEnds = new int[size];
+    this.blockStarts = new int[size];
+    this.blockEnds = new int[size];
+    int i = 0;
+    for (Map.Entry<Integer, int[]> entry : rangeMap.entrySet()) {
+      this.rangeStarts[i] = entry.getKey();
+      this.rangeEnds[i] = entry.getValue()[0];
+      this.blockStarts[i] = entry.getValue()[1];
+      this.blockEnds[i] = entry.getValue()[2];
+      i++;
+    }
+  }
+
+  private static int[] getStartLines(List<Block> blocks) {
+    int[] startLines = new int[blocks.size()];
+    for (int i = 0; i < startLines.length; i++) {
+      startLines[i] = -1;
+      Iterator<Unit> it = blocks.get(i).iterator();
+      while (it.hasNext() && startLines[i] == -1) {
+        startLines[i] = it.next().getJavaSourceStartLineNumber();
+      }
+    }
+    return startLines;
+  }
+
+  private static int[] getEndLines(List<Block> blocks) {
+    int[] endLines = new int[blocks.size()];
+    for (int i = 0; i < endLines.length; i++) {
+      endLines[i] = -1;
+      Iterator<Unit> it = blocks.get(i).iterator();
+      while (it.hasNext()) {
+        endLines[i] = it.next().getJavaSourceStartLineNumber();
+      }
+    }
+    return endLines;
+  }
+
+  /**
+   * The method finds the first block covering the provided line.
+   *
+   * @param lineNumber the line number to search for
+   * @return an array of the start and end line of the block, or null if no block covers the line
+   */
+  public int[] getBlockLines(int lineNumber) {
+    int index = Arrays.binarySearch(this.rangeStarts, lineNumber);
+    if (index < 0) {
+      index = -index - 2;
+    }
+    if (index < 0 || this.rangeEnds[index] < lineNumber) {
+      return null;
+    }
+    return new int[] {this.blockStarts[index], this.blockEnds[index]};
+  }
+}
@@ -15,8 +15,10 @@
 
 package ossf.fuzz.introspector.soot.utils;
 
-import java.util.LinkedList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import ossf.fuzz.introspector.soot.yaml.Callsite;
 import ossf.fuzz.introspector.soot.yaml.FunctionConfig;
 import ossf.fuzz.introspector.soot.yaml.FunctionElement;
@@ -24,8 +26,6 @@ import soot.toolkits.graph.Block;
 import soot.toolkits.graph.BlockGraph;
 
 public class CalculationUtils {
-  private static List<FunctionElement> depthHandled;
-
   /**
    * The method calculates the cyclomatic complexity of a target method by analysing the BlockGraph
    * objects that contain all blocks code for the target method.
@@ -51,56 +51,119 @@ public class CalculationUtils {
 
   /**
    * The method calculates and updates the method call depth value for every FunctionElement in the
-   * provided FunctionConfig object
+   * provided FunctionConfig object. The depth of a method is the length of the longest call chain
+   * starting from it, following the callsites of the elements matched by function name. The call
+   * graph is not used, as its polymorphic edges and its per fuzzer reduction would change the
+   * reported depths. Recursive methods are collapsed into strongly connected components with
+   * Tarjan's algorithm, all methods in the same component share the same depth. Components are
+   * emitted in reverse topological order, so the depth of each component is calculated once from
+   * its already finished callees. The traversal uses explicit stacks to avoid stack overflow on
+   * deep call chains.
    *
    * @param methodList the FunctionConfig object that contains every methods for this run
    */
   public static void calculateAllCallDepth(FunctionConfig methodList) {
-    List<FunctionElement> newMethodList = new LinkedList<FunctionElement>();
-    depthHandled = new LinkedList<FunctionElement>();
+    List<FunctionElement> elements = methodList.getFunctionElements();
+    int size = elements.size();
 
-    for (FunctionElement element : methodList.getFunctionElements()) {
-      if (!element.getFunctionName().contains("init>")) {
-        calculateCallDepth(methodList, element, null);
-        for (FunctionElement handledElement : depthHandled) {
-          newMethodList.add(handledElement);
+    // Assign a dense index to each element and resolve the callees of each element
+    Map<FunctionElement, Integer> indexMap = new IdentityHashMap<FunctionElement, Integer>();
+    for (int i = 0; i < size; i++) {
+      indexMap.put(elements.get(i), i);
+    }
+    int[][] callees = new int[size][];
+    for (int i = 0; i < size; i++) {
+      List<Callsite> callsites = elements.get(i).getCallsites();
+      int[] targets = new int[callsites.size()];
+      int count = 0;
+      for (Callsite callsite : callsites) {
+        FunctionElement callee = methodList.searchElement(callsite.getMethodName());
+        if (callee != null) {
+          targets[count++] = indexMap.get(callee);
         }
-      } else {
-        newMethodList.add(element);
       }
+      callees[i] = Arrays.copyOf(targets, count);
     }
 
-    methodList.setFunctionElements(newMethodList);
-  }
+    int[] index = new int[size];
+    int[] lowLink = new int[size];
+    int[] component = new int[size];
+    int[] depth = new int[size];
+    int[] edgePos = new int[size];
+    int[] callStack = new int[size];
+    int[] sccStack = new int[size];
+    boolean[] onStack = new boolean[size];
+    Arrays.fill(index, -1);
+    Arrays.fill(component, -1);
+    int counter = 0;
+    int componentCount = 0;
 
-  private static Integer calculateCallDepth(
-      FunctionConfig methodList, FunctionElement element, List<FunctionElement> handled) {
-    if (handled == null) {
-      handled = new LinkedList<FunctionElement>();
-    }
+    for (int root = 0; root < size; root++) {
+      // Constructors are not used as starting point, same as the other non-reached methods
+      if (index[root] != -1 || elements.get(root).getFunctionName().contains("init>")) {
+        continue;
+      }
 
-    List<String> handledName = new LinkedList<String>();
-    for (FunctionElement handledElement : handled) {
-      handledName.add(handledElement.getFunctionName());
-    }
+      int callTop = 0;
+      int sccTop = 0;
+      index[root] = lowLink[root] = counter++;
+      onStack[root] = true;
+      sccStack[sccTop++] = root;
+      callStack[callTop++] = root;
+
+      while (callTop > 0) {
+        int node = callStack[callTop - 1];
+        if (edgePos[node] < callees[node].length) {
+          int target = callees[node][edgePos[node]++];
+          if (index[target] == -1) {
+            index[target] = lowLink[target] = counter++;
+            onStack[target] = true;
+            sccStack[sccTop++] = target;
+            callStack[callTop++] = target;
+          } else if (onStack[target]) {
+            lowLink[node] = Math.min(lowLink[node], index[target]);
+          }
+          continue;
+        }
+
+        // All callees of this node are handled
+        callTop--;
+        if (callTop > 0) {
+          int parent = callStack[callTop - 1];
+          lowLink[parent] = Math.min(lowLink[parent], lowLink[node]);
+        }
+        if (lowLink[node] != index[node]) {
+          continue;
+        }
 
-    Integer depth = element.getFunctionDepth();
-    if (!handledName.contains(element.getFunctionName())) {
-      handled.add(element);
-      if (depth == 0) {
-        for (Callsite callsite : element.getCallsites()) {
-          String callerName = callsite.getMethodName();
-          FunctionElement caller = methodList.searchElement(callerName);
-          if (caller != null) {
-            Integer newDepth = calculateCallDepth(methodList, caller, handled) + 1;
-            depth = (newDepth > depth) ? newDepth : depth;
+        // Node is the root of a component, pop the component and calculate its depth
+        int start = sccTop;
+        do {
+          start--;
+          onStack[sccStack[start]] = false;
+          component[sccStack[start]] = componentCount;
+        } while (sccStack[start] != node);
+
+        int componentDepth = 0;
+        for (int i = start; i < sccTop; i++) {
+          for (int target : callees[sccStack[i]]) {
+            if (component[target] != componentCount) {
+              componentDepth = Math.max(componentDepth, depth[target] + 1);
+            }
           }
         }
+        for (int i = start; i < sccTop; i++) {
+          depth[sccStack[i]] = componentDepth;
+        }
+        sccTop = start;
+        componentCount++;
       }
-      element.setFunctionDepth(depth);
     }
-    depthHandled = handled;
 
-    return depth;
+    for (int i = 0; i < size; i++) {
+      if (index[i] != -1) {
+        elements.get(i).setFunctionDepth(depth[i]);
+      }
+    }
   }
 }
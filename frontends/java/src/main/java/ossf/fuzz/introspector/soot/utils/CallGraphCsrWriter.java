@@ -0,0 +1,224 @@
+// Copyright 2022 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.utils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import soot.SootMethod;
+
+/**
+ * Writer exporting the merged call graph of a fuzzer as memory-mappable CSR (compressed sparse row)
+ * arrays, so consumers can map the file and traverse the graph without parsing it. The nodes are
+ * the methods reachable from the entry method through the merged outgoing edges, numbered in
+ * breadth-first order with the entry method as node 0, and the edges of each node are kept in the
+ * line sorted order of the merged edges. The edges are filtered as in the other outputs: edges to
+ * classes of the exclude list and to the excluded methods are left out, as in functionsReached,
+ * and so are the calls of a method to itself, as in the call tree.
+ *
+ * <p>All integers are little-endian, the native order of the common hosts, and each section starts
+ * at a multiple of 8 bytes. The file starts with a header of 72 bytes: the magic "FICG", the int32
+ * format version, the int32 number of nodes, edges and edge kinds, an unused int32, and the int64
+ * file offsets of the six sections. The sections are the int32 offsets array with one entry per
+ * node plus one, where the edges of node n are the edges from offsets[n] to offsets[n + 1], the
+ * int32 targets array with the target node of each edge, the int32 lines array with the source line
+ * number of each edge or -1, the uint8 kinds array with the kind index of each edge, and the string
+ * table made of the int32 offsets array of the strings into the UTF-8 blob, with one entry per
+ * string plus one, followed by the blob. The first strings are the function names of the nodes in
+ * the "[className].methodName(parameterTypes)" format of the other outputs, and the following
+ * strings are the names of the edge kinds in the order of their index.
+ */
+public class CallGraphCsrWriter {
+  public static final int VERSION = 1;
+  public static final int HEADER_SIZE = 72;
+
+  private static final byte[] MAGIC = {'F', 'I', 'C', 'G'};
+
+  private MergedEdgeView mergedEdgeView;
+  private List<String> excludeList;
+  private List<String> includeList;
+  private List<String> excludeMethodList;
+
+  /**
+   * Creates the writer for the merged edges of the provided view.
+   *
+   * @param mergedEdgeView the MergedEdgeView object of the fuzzer
+   * @param excludeList a list of class prefixes whose methods are removed from the edges
+   * @param includeList a list of class names which are not removed
+   * @param excludeMethodList a list of method names which are removed from the edges
+   */
+  public CallGraphCsrWriter(
+      MergedEdgeView mergedEdgeView,
+      List<String> excludeList,
+      List<String> includeList,
+      List<String> excludeMethodList) {
+    this.mergedEdgeView = mergedEdgeView;
+    this.excludeList = excludeList;
+    this.includeList = includeList;
+    this.excludeMethodList = excludeMethodList;
+  }
+
+  /**
+   * The method writes the merged call graph reachable from the provided entry method to the file.
+   *
+   * @param file the file to write
+   * @param entryMethod the entry method of the fuzzer
+   * @throws IOException if the file cannot be written
+   */
+  public void write(File file, SootMethod entryMethod) throws IOException {
+    MethodRegistry registry = this.mergedEdgeView.getMethodRegistry();
+
+    // Node numbers are stored plus one by registry id, so that 0 stands for an unseen method
+    int[] nodeByRegistryId = new int[Math.max(registry.size(), 16)];
+    int[] nodes = new int[16];
+    int nodeCount = 0;
+    int[] offsets = new int[17];
+    int[] targets = new int[16];
+    int[] lines = new int[16];
+    byte[] kinds = new byte[16];
+    int edgeCount = 0;
+    Map<String, Integer> kindMap = new LinkedHashMap<String, Integer>();
+
+    int entryId = registry.getId(entryMethod);
+    nodeByRegistryId = ensureCapacity(nodeByRegistryId, entryId + 1);
+    nodeByRegistryId[entryId] = 1;
+    nodes[nodeCount++] = entryId;
+
+    for (int node = 0; node < nodeCount; node++) {
+      MergedEdges edges =
+          this.mergedEdgeView.getMergedEdges(
+              registry.getMethod(nodes[node]), this.excludeList, this.includeList);
+      if (edgeCount + edges.size() > targets.length) {
+        int capacity = Math.max(targets.length * 2, edgeCount + edges.size());
+        targets = Arrays.copyOf(targets, capacity);
+        lines = Arrays.copyOf(lines, capacity);
+        kinds = Arrays.copyOf(kinds, capacity);
+      }
+
+      for (int i = 0; i < edges.size(); i++) {
+        int targetId = edges.getTargetId(i);
+        if (targetId == nodes[node]
+            || this.excludeMethodList.contains(registry.getMethod(targetId).getName())) {
+          continue;
+        }
+        nodeByRegistryId = ensureCapacity(nodeByRegistryId, targetId + 1);
+        if (nodeByRegistryId[targetId] == 0) {
+          nodes = ensureCapacity(nodes, nodeCount + 1);
+          nodes[nodeCount++] = targetId;
+          nodeByRegistryId[targetId] = nodeCount;
+        }
+
+        String kind = edges.getKind(i).toString();
+        Integer kindIndex = kindMap.get(kind);
+        if (kindIndex == null) {
+          kindIndex = kindMap.size();
+          kindMap.put(kind, kindIndex);
+        }
+
+        targets[edgeCount] = nodeByRegistryId[targetId] - 1;
+        lines[edgeCount] = edges.getLine(i);
+        kinds[edgeCount] = kindIndex.byteValue();
+        edgeCount++;
+      }
+      offsets = ensureCapacity(offsets, node + 2);
+      offsets[node + 1] = edgeCount;
+    }
+
+    // Encode the function names of the nodes followed by the edge kind names
+    int stringCount = nodeCount + kindMap.size();
+    byte[][] strings = new byte[stringCount][];
+    for (int node = 0; node < nodeCount; node++) {
+      strings[node] = registry.getFunctionName(nodes[node]).getBytes(StandardCharsets.UTF_8);
+    }
+    for (Map.Entry<String, Integer> entry : kindMap.entrySet()) {
+      strings[nodeCount + entry.getValue()] = entry.getKey().getBytes(StandardCharsets.UTF_8);
+    }
+    int blobSize = 0;
+    for (byte[] string : strings) {
+      blobSize += string.length;
+    }
+
+    long offsetsStart = HEADER_SIZE;
+    long targetsStart = align(offsetsStart + 4L * (nodeCount + 1));
+    long linesStart = align(targetsStart + 4L * edgeCount);
+    long kindsStart = align(linesStart + 4L * edgeCount);
+    long stringOffsetsStart = align(kindsStart + edgeCount);
+    long blobStart = align(stringOffsetsStart + 4L * (stringCount + 1));
+    long size = blobStart + blobSize;
+
+    ByteBuffer buffer = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+    buffer.put(MAGIC);
+    buffer.putInt(VERSION);
+    buffer.putInt(nodeCount);
+    buffer.putInt(edgeCount);
+    buffer.putInt(kindMap.size());
+    buffer.putInt(0);
+    buffer.putLong(offsetsStart);
+    buffer.putLong(targetsStart);
+    buffer.putLong(linesStart);
+    buffer.putLong(kindsStart);
+    buffer.putLong(stringOffsetsStart);
+    buffer.putLong(blobStart);
+
+    buffer.position((int) offsetsStart);
+    buffer.asIntBuffer().put(offsets, 0, nodeCount + 1);
+    buffer.position((int) targetsStart);
+    buffer.asIntBuffer().put(targets, 0, edgeCount);
+    buffer.position((int) linesStart);
+    buffer.asIntBuffer().put(lines, 0, edgeCount);
+    buffer.position((int) kindsStart);
+    buffer.put(kinds, 0, edgeCount);
+
+    buffer.position((int) stringOffsetsStart);
+    int stringOffset = 0;
+    buffer.putInt(stringOffset);
+    for (byte[] string : strings) {
+      stringOffset += string.length;
+      buffer.putInt(stringOffset);
+    }
+    buffer.position((int) blobStart);
+    for (byte[] string : strings) {
+      buffer.put(string);
+    }
+
+    buffer.flip();
+    try (FileOutputStream out = new FileOutputStream(file)) {
+      FileChannel channel = out.getChannel();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+  }
+
+  private static int[] ensureCapacity(int[] array, int capacity) {
+    if (capacity <= array.length) {
+      return array;
+    }
+    return Arrays.copyOf(array, Math.max(array.length * 2, capacity));
+  }
+
+  private static long align(long offset) {
+    return (offset + 7) & ~7L;
+  }
+}
@@ -15,29 +15,34 @@
 
 package ossf.fuzz.introspector.soot.utils;
 
-import java.io.FileWriter;
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
-import java.util.HashSet;
-import java.util.Iterator;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import org.apache.commons.lang3.StringUtils;
 import ossf.fuzz.introspector.soot.yaml.FunctionConfig;
 import ossf.fuzz.introspector.soot.yaml.FunctionElement;
 import soot.SootClass;
 import soot.SootMethod;
-import soot.jimple.toolkits.callgraph.CallGraph;
-import soot.jimple.toolkits.callgraph.Edge;
 
 public class CalltreeUtils {
+  // Depth limit of the call tree once the analysis budget is running out
+  private static final int DEPTH_LIMIT = 32;
+  private static final int BUDGET_CHECK_INTERVAL = 1024;
+
   private static List<String> includeList;
   private static List<String> excludeList;
+  private static PrefixMatcher excludeMatcher;
   private static List<String> excludeMethodList;
-  private static Map<String, Set<String>> edgeClassMap;
+  private static Map<String, String> edgeClassMap;
   private static Map<String, Set<String>> sinkMethodMap;
+  private static AnalysisBudget budget;
 
   /**
    * The method stores all the base data as static variables for the calltree generation process
@@ -45,7 +50,6 @@ public class CalltreeUtils {
    * @param includeList a list to store all whitelist class names for this run
    * @param excludeList a list to store all blacklist class names for this run
    * @param excludeMethodList a list to store all backlist method names for this run
-   * @param edgeClassMap a map to store class names with polymorphism methods that are merged
    * @param sinkMethodMap a map to store a set of sink methods names grouped by their containing
    *     classes
    */
@@ -53,32 +57,41 @@ public class CalltreeUtils {
       List<String> includeList,
       List<String> excludeList,
       List<String> excludeMethodList,
-      Map<String, Set<String>> edgeClassMap,
       Map<String, Set<String>> sinkMethodMap) {
     CalltreeUtils.includeList = includeList;
     CalltreeUtils.excludeList = excludeList;
+    CalltreeUtils.excludeMatcher = new PrefixMatcher(excludeList);
     CalltreeUtils.excludeMethodList = excludeMethodList;
-    CalltreeUtils.edgeClassMap = edgeClassMap;
     CalltreeUtils.sinkMethodMap = sinkMethodMap;
   }
 
+  /**
+   * The method stores the analysis budget for the calltree generation process. The call tree is
+   * limited in depth once the budget is running out.
+   *
+   * @param budget the AnalysisBudget object of this run, or null for no budget
+   */
+  public static void setBudget(AnalysisBudget budget) {
+    CalltreeUtils.budget = budget;
+  }
+
   /**
    * The method interprets and adds all constructors of the provided SootClass object as
    * FunctionElement objects into the provided FunctionConfig object.
    *
    * @param methodList the FunctionConfig object that stores all the methods of this run
    * @param sootClass the target SootClass object to process
+   * @param methodRegistry the MethodRegistry object providing the method names
    */
-  public static void addConstructors(FunctionConfig methodList, SootClass sootClass) {
+  public static void addConstructors(
+      FunctionConfig methodList, SootClass sootClass, MethodRegistry methodRegistry) {
     List<FunctionElement> eList = new LinkedList<FunctionElement>();
 
     List<SootMethod> mList = new LinkedList<SootMethod>(sootClass.getMethods());
     for (SootMethod method : mList) {
       if (method.getName().equals("<init>")) {
-        String name = "[" + sootClass.getName() + "]." + method.getSubSignature().split(" ")[1];
-
         FunctionElement element = new FunctionElement();
-        element.setFunctionName(name);
+        element.setFunctionName(methodRegistry.getFunctionName(methodRegistry.getId(method)));
         element.setBaseInformation(method);
         element.setJavaMethodInfo(method);
 
@@ -96,16 +109,18 @@ public class CalltreeUtils {
    * @param methodList the FunctionConfig object that stores all the methods of this run
    * @param reachedSinkMethodList the list of sink methods that are reachable in this run
    * @param isAutoFuzz a boolean value indicates if this run is initiated by Auto-Fuzz
+   * @param methodRegistry the MethodRegistry object providing the method names
    */
   public static void addSinkMethods(
-      FunctionConfig methodList, List<SootMethod> reachedSinkMethodList, Boolean isAutoFuzz) {
+      FunctionConfig methodList,
+      List<SootMethod> reachedSinkMethodList,
+      Boolean isAutoFuzz,
+      MethodRegistry methodRegistry) {
     List<FunctionElement> eList = new LinkedList<FunctionElement>();
 
     for (SootMethod method : reachedSinkMethodList) {
-      SootClass cl = method.getDeclaringClass();
-
       FunctionElement element = new FunctionElement();
-      element.setFunctionName("[" + cl.getName() + "]." + method.getSubSignature().split(" ")[1]);
+      element.setFunctionName(methodRegistry.getFunctionName(methodRegistry.getId(method)));
       element.setBaseInformation(method);
       if (isAutoFuzz) {
         element.setJavaMethodInfo(method);
@@ -118,119 +133,148 @@ public class CalltreeUtils {
   }
 
   /**
-   * The method recursively extracts the call tree from the provided CallGraph object and pipes to
-   * the provided FileWriter object.
+   * The method extracts the call tree from the call graph of the provided MergedEdgeView object and
+   * pipes to the provided CalltreeWriter object. The call tree is traversed depth first with an
+   * explicit stack, and each method is only expanded the first time it is visited.
    *
-   * @param fw the FileWriter object that receives and processes the extracted call tree
-   * @param cg the CallGraph object describing the method relation of the target
+   * @param writer the CalltreeWriter object that receives and writes the extracted call tree
+   * @param mergedEdgeView the MergedEdgeView object of the call graph of the target
    * @param method the SootMethod object of the entry class for this run
    * @param depth the integer value storing the current method depth level
    * @param line the integer value storing the line number of method invocation
    */
   public static void extractCallTree(
-      FileWriter fw, CallGraph cg, SootMethod method, Integer depth, Integer line)
-      throws IOException {
-    fw.write("Call tree\n");
-    extractCallTree(fw, cg, method, depth, line, new LinkedList<SootMethod>(), null);
-  }
-
-  private static void extractCallTree(
-      FileWriter fw,
-      CallGraph cg,
+      CalltreeWriter writer,
+      MergedEdgeView mergedEdgeView,
       SootMethod method,
       Integer depth,
-      Integer line,
-      List<SootMethod> handled,
-      String callerClass)
+      Integer line)
       throws IOException {
-    StringBuilder callTree = new StringBuilder();
+    writer.writeHeader();
 
-    if (excludeMethodList.contains(method.getName())) {
-      return;
-    }
+    // Stores merged class names of all expanded methods, keyed by "class:method:line"
+    edgeClassMap = new HashMap<String, String>();
 
-    // Interpret the class name to be printed
-    String className = "";
-    if (callerClass != null) {
-      Set<String> classNameSet =
-          new HashSet<String>(
-              edgeClassMap.getOrDefault(
-                  callerClass + ":" + method.getName() + ":" + line, Collections.emptySet()));
-      className = MergeUtils.mergeClassName(classNameSet);
-      boolean merged = false;
-      for (String name : className.split(":")) {
-        if (name.equals(method.getDeclaringClass().getName())) {
-          merged = true;
-          break;
+    MethodRegistry registry = mergedEdgeView.getMethodRegistry();
+    BitSet handled = new BitSet(registry.size());
+    Deque<CalltreeNode> stack = new ArrayDeque<CalltreeNode>();
+    List<CalltreeNode> children = new ArrayList<CalltreeNode>();
+    stack.push(new CalltreeNode(method, registry.getId(method), depth, line, null, -1));
+
+    int depthLimit = Integer.MAX_VALUE;
+    int count = 0;
+    while (!stack.isEmpty()) {
+      CalltreeNode node = stack.pop();
+      if (budget != null
+          && depthLimit == Integer.MAX_VALUE
+          && ++count % BUDGET_CHECK_INTERVAL == 0
+          && budget.shouldDegrade(
+              "callTreeDepthLimit:" + DEPTH_LIMIT, AnalysisBudget.CALL_TREE_THRESHOLD)) {
+        depthLimit = DEPTH_LIMIT;
+      }
+      if (!extractCallTreeLine(writer, registry, node) || handled.get(node.id)) {
+        continue;
+      }
+      if (node.depth >= depthLimit) {
+        // Methods beyond the depth limit are written but not expanded
+        continue;
+      }
+      handled.set(node.id);
+
+      // Push the methods called by the current method in reverse order,
+      // so that they are popped and written in the order of the sorted edges
+      MergedEdges outEdges = mergedEdgeView.getMergedEdges(node.method, includeList, excludeList);
+      edgeClassMap.putAll(outEdges.getMergedClassNameMap());
+      for (int i = 0; i < outEdges.size(); i++) {
+        int id = outEdges.getTargetId(i);
+        if (id == node.id) {
+          continue;
         }
+
+        children.add(
+            new CalltreeNode(
+                outEdges.getTarget(i), id, node.depth + 1, outEdges.getLine(i), outEdges, i));
       }
-      if (!merged) {
-        className = method.getDeclaringClass().getName();
+      for (int i = children.size() - 1; i >= 0; i--) {
+        stack.push(children.get(i));
       }
-    } else {
-      className = method.getDeclaringClass().getName();
+      children.clear();
+    }
+  }
+
+  /**
+   * The method writes the line of the provided call tree node if needed.
+   *
+   * @param writer the CalltreeWriter object that receives and writes the extracted call tree
+   * @param registry the MethodRegistry object providing the method names
+   * @param node the call tree node to handle
+   * @return true if the methods called by this node should be extracted
+   */
+  private static boolean extractCallTreeLine(
+      CalltreeWriter writer, MethodRegistry registry, CalltreeNode node) throws IOException {
+    SootMethod method = node.method;
+    if (excludeMethodList.contains(method.getName())) {
+      return false;
     }
 
-    // Add the line of the current method
-    String methodName = method.getSubSignature().split(" ")[1];
-    String calltreeLine =
-        StringUtils.leftPad("", depth * 2)
-            + methodName
-            + " "
-            + className
-            + " linenumber="
-            + line
-            + "\n";
+    // Interpret the class name to be printed
+    String declaringClassName = registry.getClassName(node.id);
+    String className = declaringClassName;
+    if (node.callerEdges != null && !edgeClassMap.isEmpty()) {
+      String mergedClassName = edgeClassMap.get(node.callerEdges.getKey(node.edgeIndex));
+      if (mergedClassName != null
+          && MergeUtils.containsClassName(mergedClassName, declaringClassName)) {
+        className = mergedClassName;
+      }
+    }
 
     // Handle excluded or sink methods
     boolean excluded = false;
     boolean sink = false;
-    checkExclusionLoop:
-    for (String cl : className.split(":")) {
-      for (String prefix : excludeList) {
-        if (cl.startsWith(prefix.replace("*", ""))) {
-          if (sinkMethodMap.getOrDefault(cl, Collections.emptySet()).contains(method.getName())) {
-            sink = true;
-          }
-          excluded = true;
-          break checkExclusionLoop;
+    int start = 0;
+    while (start <= className.length()) {
+      int end = className.indexOf(':', start);
+      if (end == -1) {
+        end = className.length();
+      }
+      if (excludeMatcher.match(className, start, end) != 0) {
+        String cl = className.substring(start, end);
+        if (sinkMethodMap.getOrDefault(cl, Collections.emptySet()).contains(method.getName())) {
+          sink = true;
         }
+        excluded = true;
+        break;
       }
+      start = end + 1;
     }
 
-    // Write the method line to the FileWriter object
+    // Write the method line to the CalltreeWriter object
     if (excluded) {
       if (sink) {
-        fw.write(calltreeLine);
+        writer.writeLine(node.depth, registry.getMethodName(node.id), className, node.line);
       }
-      return;
-    } else {
-      fw.write(calltreeLine);
+      return false;
     }
+    writer.writeLine(node.depth, registry.getMethodName(node.id), className, node.line);
+    return true;
+  }
 
-    // Recursively calculate and process the methods called by the current method
-    if (!handled.contains(method)) {
-      handled.add(method);
-      Iterator<Edge> outEdges =
-          MergeUtils.mergePolymorphism(
-              cg, cg.edgesOutOf(method), includeList, excludeList, edgeClassMap);
-      while (outEdges.hasNext()) {
-        Edge edge = outEdges.next();
-        SootMethod tgt = edge.tgt();
-
-        if (tgt.equals(edge.src())) {
-          continue;
-        }
+  private static class CalltreeNode {
+    private final SootMethod method;
+    private final int id;
+    private final int depth;
+    private final int line;
+    private final MergedEdges callerEdges;
+    private final int edgeIndex;
 
-        extractCallTree(
-            fw,
-            cg,
-            tgt,
-            depth + 1,
-            (edge.srcStmt() == null) ? -1 : edge.srcStmt().getJavaSourceStartLineNumber(),
-            handled,
-            edge.src().getDeclaringClass().getName());
-      }
+    private CalltreeNode(
+        SootMethod method, int id, int depth, int line, MergedEdges callerEdges, int edgeIndex) {
+      this.method = method;
+      this.id = id;
+      this.depth = depth;
+      this.line = line;
+      this.callerEdges = callerEdges;
+      this.edgeIndex = edgeIndex;
     }
   }
 }
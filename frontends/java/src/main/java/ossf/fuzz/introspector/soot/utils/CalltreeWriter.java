@@ -0,0 +1,117 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.utils;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writer for the call tree lines of the .data output. The output goes through a large buffer on top
+ * of a file channel. The indentation prefixes are cached and the method names come from the
+ * MethodRegistry, so writing a line does not allocate new strings in the common case.
+ */
+public class CalltreeWriter implements Closeable {
+  private static final int BUFFER_SIZE = 1 << 20;
+
+  private Writer writer;
+  private List<String> indentList;
+  private char[] digits;
+
+  public CalltreeWriter(File file) throws IOException {
+    this(
+        new BufferedWriter(
+            Channels.newWriter(
+                FileChannel.open(
+                    file.toPath(),
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING),
+                StandardCharsets.UTF_8.newEncoder(),
+                BUFFER_SIZE),
+            BUFFER_SIZE));
+  }
+
+  public CalltreeWriter(Writer writer) {
+    this.writer = writer;
+    this.indentList = new ArrayList<String>();
+    this.digits = new char[11];
+  }
+
+  public void writeHeader() throws IOException {
+    this.writer.write("Call tree\n");
+  }
+
+  /**
+   * The method writes one line of the call tree in the format of "{indentation}{method name} {class
+   * name} linenumber={line}".
+   *
+   * @param depth the depth of the method in the call tree, each level is indented by two spaces
+   * @param methodName the method name with its parameter types to be printed for this method
+   * @param className the (merged) class name to be printed for this method
+   * @param line the line number of the method invocation
+   */
+  public void writeLine(int depth, String methodName, String className, int line)
+      throws IOException {
+    this.writer.write(this.getIndent(depth));
+    this.writer.write(methodName);
+    this.writer.write(' ');
+    this.writer.write(className);
+    this.writer.write(" linenumber=");
+    this.writeInt(line);
+    this.writer.write('\n');
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.writer.close();
+  }
+
+  private String getIndent(int depth) {
+    while (this.indentList.size() <= depth) {
+      char[] indent = new char[this.indentList.size() * 2];
+      Arrays.fill(indent, ' ');
+      this.indentList.add(new String(indent));
+    }
+    return this.indentList.get(depth);
+  }
+
+  private void writeInt(int value) throws IOException {
+    if (value < 0) {
+      if (value == Integer.MIN_VALUE) {
+        this.writer.write(Integer.toString(value));
+        return;
+      }
+      this.writer.write('-');
+      value = -value;
+    }
+    int pos = this.digits.length;
+    do {
+      this.digits[--pos] = (char) ('0' + (value % 10));
+      value /= 10;
+    } while (value > 0);
+    this.writer.write(this.digits, pos, this.digits.length - pos);
+  }
+}
@@ -0,0 +1,334 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.utils;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Lightweight scanner of the class files in a list of jar files and class directories, used to
+ * restrict the classes loaded by Soot. The classes of the jars are indexed from the zip central
+ * directories and the classes of the directories from their .class files, and the classes
+ * referenced by a class are read from its constant pool and member descriptors without loading it.
+ * Classes are served from the first jar or directory containing them, as on the class path.
+ */
+public class ClassPrescanner {
+  private List<String> jarFiles;
+  private Map<String, Integer> classJarMap;
+
+  /**
+   * Creates the scanner and indexes the classes of the provided jar files and class directories.
+   *
+   * @param jarFiles the list of jar files and class directories to scan
+   */
+  public ClassPrescanner(List<String> jarFiles) throws IOException {
+    this.jarFiles = new ArrayList<String>();
+    this.classJarMap = new HashMap<String, Integer>();
+
+    for (String jarFile : jarFiles) {
+      File file = new File(jarFile);
+      if (!file.exists()) {
+        continue;
+      }
+      int index = this.jarFiles.size();
+      this.jarFiles.add(jarFile);
+      for (String name : ClassPrescanner.listEntries(file)) {
+        if (!name.endsWith(".class") || name.startsWith("META-INF/")) {
+          continue;
+        }
+        String className = name.substring(0, name.length() - 6).replace('/', '.');
+        this.classJarMap.putIfAbsent(className, index);
+      }
+    }
+  }
+
+  private static List<String> listEntries(File file) throws IOException {
+    List<String> entryList = new ArrayList<String>();
+    if (file.isDirectory()) {
+      // Entries are named relative to the directory as in a jar file
+      Path root = file.toPath();
+      try (Stream<Path> stream = Files.walk(root)) {
+        stream
+            .filter(Files::isRegularFile)
+            .forEach(path -> entryList.add(root.relativize(path).toString().replace('\\', '/')));
+      }
+    } else {
+      try (ZipFile zipFile = new ZipFile(file)) {
+        Enumeration<? extends ZipEntry> entries = zipFile.entries();
+        while (entries.hasMoreElements()) {
+          entryList.add(entries.nextElement().getName());
+        }
+      }
+    }
+    return entryList;
+  }
+
+  public int getClassCount() {
+    return this.classJarMap.size();
+  }
+
+  public boolean containsClass(String className) {
+    return this.classJarMap.containsKey(className);
+  }
+
+  /**
+   * The method retrieves the classes of the jar files having one of the provided prefixes. Empty
+   * prefixes are ignored, as they would match every class.
+   *
+   * @param prefixList the list of class name prefixes
+   * @return the set of the names of the matching classes
+   */
+  public Set<String> getClassesWithPrefix(List<String> prefixList) {
+    List<String> nonEmptyList = new ArrayList<String>();
+    for (String prefix : prefixList) {
+      if (!prefix.replace("*", "").isEmpty()) {
+        nonEmptyList.add(prefix);
+      }
+    }
+
+    Set<String> result = new LinkedHashSet<String>();
+    if (nonEmptyList.isEmpty()) {
+      return result;
+    }
+    PrefixMatcher matcher = new PrefixMatcher(nonEmptyList);
+    for (String className : this.classJarMap.keySet()) {
+      if (matcher.match(className) != 0) {
+        result.add(className);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * The method computes the classes of the jar files and class directories which are transitively
+   * referenced from the provided root classes, including the root classes themselves. Classes
+   * outside of them, like the classes of the JDK, are neither returned nor scanned. Class files
+   * which can not be parsed are kept without following their references.
+   *
+   * @param rootClasses the names of the classes to start from
+   * @return the set of the names of the referenced classes in the jar files
+   */
+  public Set<String> getReferencedClasses(Collection<String> rootClasses) throws IOException {
+    Set<String> result = new LinkedHashSet<String>();
+    Deque<String> queue = new ArrayDeque<String>();
+    for (String className : rootClasses) {
+      if (this.classJarMap.containsKey(className) && result.add(className)) {
+        queue.add(className);
+      }
+    }
+
+    ZipFile[] zipFiles = new ZipFile[this.jarFiles.size()];
+    try {
+      while (!queue.isEmpty()) {
+        String className = queue.poll();
+        String entryName = className.replace('.', '/') + ".class";
+        int index = this.classJarMap.get(className);
+        File file = new File(this.jarFiles.get(index));
+        InputStream classStream;
+        if (file.isDirectory()) {
+          classStream = new FileInputStream(new File(file, entryName));
+        } else {
+          if (zipFiles[index] == null) {
+            zipFiles[index] = new ZipFile(file);
+          }
+          ZipEntry entry = zipFiles[index].getEntry(entryName);
+          if (entry == null) {
+            continue;
+          }
+          classStream = zipFiles[index].getInputStream(entry);
+        }
+
+        Set<String> references;
+        try (InputStream in = classStream) {
+          references = ClassPrescanner.readReferencedClasses(in);
+        } catch (IOException e) {
+          System.err.println("Failed to scan class " + className + ": " + e);
+          continue;
+        }
+        for (String reference : references) {
+          if (this.classJarMap.containsKey(reference) && result.add(reference)) {
+            queue.add(reference);
+          }
+        }
+      }
+    } finally {
+      for (ZipFile zipFile : zipFiles) {
+        if (zipFile != null) {
+          zipFile.close();
+        }
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * The method reads the names of the classes referenced by the provided class file. These are the
+   * classes of the constant pool, including the superclass, interfaces and nested classes, and the
+   * classes in the descriptors of the referenced and declared fields and methods.
+   *
+   * @param in the input stream of the class file
+   * @return the set of the names of the referenced classes
+   */
+  public static Set<String> readReferencedClasses(InputStream in) throws IOException {
+    DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+    if (data.readInt() != 0xCAFEBABE) {
+      throw new IOException("Invalid class file magic number");
+    }
+    data.readUnsignedShort();
+    data.readUnsignedShort();
+
+    // Only the strings of the constant pool are kept, the other constants are
+    // recorded as the index of the string they refer to
+    int count = data.readUnsignedShort();
+    String[] strings = new String[count];
+    List<Integer> classIndexes = new ArrayList<Integer>();
+    List<Integer> descriptorIndexes = new ArrayList<Integer>();
+    for (int i = 1; i < count; i++) {
+      int tag = data.readUnsignedByte();
+      switch (tag) {
+        case 1: // Utf8
+          strings[i] = data.readUTF();
+          break;
+        case 7: // Class
+          classIndexes.add(data.readUnsignedShort());
+          break;
+        case 12: // NameAndType
+          data.readUnsignedShort();
+          descriptorIndexes.add(data.readUnsignedShort());
+          break;
+        case 16: // MethodType
+          descriptorIndexes.add(data.readUnsignedShort());
+          break;
+        case 8: // String
+        case 19: // Module
+        case 20: // Package
+          data.readUnsignedShort();
+          break;
+        case 15: // MethodHandle
+          ClassPrescanner.skipFully(data, 3);
+          break;
+        case 3: // Integer
+        case 4: // Float
+        case 9: // Fieldref
+        case 10: // Methodref
+        case 11: // InterfaceMethodref
+        case 17: // Dynamic
+        case 18: // InvokeDynamic
+          ClassPrescanner.skipFully(data, 4);
+          break;
+        case 5: // Long
+        case 6: // Double
+          ClassPrescanner.skipFully(data, 8);
+          i++;
+          break;
+        default:
+          throw new IOException("Invalid constant pool tag " + tag);
+      }
+    }
+
+    // Skip the access flags, this class, superclass and interfaces, which are all
+    // in the constant pool, and collect the descriptors of the declared members
+    ClassPrescanner.skipFully(data, 6);
+    ClassPrescanner.skipFully(data, data.readUnsignedShort() * 2);
+    for (int member = 0; member < 2; member++) {
+      int memberCount = data.readUnsignedShort();
+      for (int i = 0; i < memberCount; i++) {
+        ClassPrescanner.skipFully(data, 4);
+        descriptorIndexes.add(data.readUnsignedShort());
+        int attributeCount = data.readUnsignedShort();
+        for (int j = 0; j < attributeCount; j++) {
+          ClassPrescanner.skipFully(data, 2);
+          ClassPrescanner.skipFully(data, data.readInt());
+        }
+      }
+    }
+
+    Set<String> result = new LinkedHashSet<String>();
+    for (int index : classIndexes) {
+      String name = ClassPrescanner.getString(strings, index);
+      if (name.startsWith("[")) {
+        ClassPrescanner.addDescriptorClasses(result, name);
+      } else {
+        result.add(name.replace('/', '.'));
+      }
+    }
+    for (int index : descriptorIndexes) {
+      ClassPrescanner.addDescriptorClasses(result, ClassPrescanner.getString(strings, index));
+    }
+
+    return result;
+  }
+
+  /** Skips the provided number of bytes, failing at the end of the stream. */
+  private static void skipFully(DataInputStream data, int length) throws IOException {
+    while (length > 0) {
+      int skipped = data.skipBytes(length);
+      if (skipped <= 0) {
+        data.readByte();
+        skipped = 1;
+      }
+      length -= skipped;
+    }
+  }
+
+  private static String getString(String[] strings, int index) throws IOException {
+    if (index <= 0 || index >= strings.length || strings[index] == null) {
+      throw new IOException("Invalid constant pool index " + index);
+    }
+    return strings[index];
+  }
+
+  /**
+   * The method adds the classes of the provided field or method descriptor to the provided set.
+   *
+   * @param result the set to store the names of the classes
+   * @param descriptor the descriptor, like (ILjava/lang/String;)[Ljava/lang/Object;
+   */
+  private static void addDescriptorClasses(Set<String> result, String descriptor) {
+    int i = 0;
+    while (i < descriptor.length()) {
+      if (descriptor.charAt(i) == 'L') {
+        int end = descriptor.indexOf(';', i);
+        if (end == -1) {
+          return;
+        }
+        result.add(descriptor.substring(i + 1, end).replace('/', '.'));
+        i = end;
+      }
+      i++;
+    }
+  }
+}
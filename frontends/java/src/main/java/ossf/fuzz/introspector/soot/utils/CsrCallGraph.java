@@ -0,0 +1,292 @@
+// Copyright 2022 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.utils;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import soot.Kind;
+import soot.MethodOrMethodContext;
+import soot.SootMethod;
+import soot.jimple.toolkits.callgraph.CallGraph;
+import soot.jimple.toolkits.callgraph.Edge;
+
+/**
+ * Immutable call graph in CSR (compressed sparse row) form, converted once from a Soot CallGraph so
+ * the later stages traverse int arrays instead of Edge objects. Nodes are the ids of the methods in
+ * the MethodRegistry, the outgoing edges of a node are the edge indexes from getEdgeStart(id) to
+ * getEdgeEnd(id) in the order Soot returns them, and the line number, kind and target of each edge
+ * and the in-degree of each node are precomputed. Methods registered after the conversion have no
+ * edges. This class is safe to be used from multiple threads.
+ */
+public class CsrCallGraph {
+  private MethodRegistry methodRegistry;
+  private int nodeCount;
+  private int[] offsets;
+  private int[] targets;
+  private int[] lines;
+  private byte[] kinds;
+  private Kind[] kindTable;
+  private int[] inDegrees;
+
+  private CsrCallGraph(
+      MethodRegistry methodRegistry,
+      int nodeCount,
+      int[] offsets,
+      int[] targets,
+      int[] lines,
+      byte[] kinds,
+      Kind[] kindTable) {
+    this.methodRegistry = methodRegistry;
+    this.nodeCount = nodeCount;
+    this.offsets = offsets;
+    this.targets = targets;
+    this.lines = lines;
+    this.kinds = kinds;
+    this.kindTable = kindTable;
+    this.inDegrees = new int[nodeCount];
+    for (int edge = 0; edge < targets.length; edge++) {
+      this.inDegrees[targets[edge]]++;
+    }
+  }
+
+  /**
+   * The method converts the provided Soot CallGraph object, registering all of its methods in the
+   * provided MethodRegistry. The CallGraph object is not referred to afterwards.
+   *
+   * @param callGraph the CallGraph object to convert
+   * @param methodRegistry the MethodRegistry object giving the node ids
+   * @return the CsrCallGraph object of the call graph
+   */
+  public static CsrCallGraph fromCallGraph(CallGraph callGraph, MethodRegistry methodRegistry) {
+    int edgeCount = callGraph.size();
+    int[] sources = new int[edgeCount];
+    int[] targets = new int[edgeCount];
+    int[] lines = new int[edgeCount];
+    byte[] kinds = new byte[edgeCount];
+    Map<Kind, Integer> kindMap = new LinkedHashMap<Kind, Integer>();
+
+    // Edges of the same source are returned together, so they stay grouped by source
+    int count = 0;
+    Iterator<MethodOrMethodContext> it = callGraph.sourceMethods();
+    while (it.hasNext()) {
+      MethodOrMethodContext src = it.next();
+      int srcId = methodRegistry.getId(src.method());
+      Iterator<Edge> edges = callGraph.edgesOutOf(src);
+      while (edges.hasNext()) {
+        Edge edge = edges.next();
+        Integer kind = kindMap.get(edge.kind());
+        if (kind == null) {
+          kind = kindMap.size();
+          kindMap.put(edge.kind(), kind);
+        }
+
+        sources[count] = srcId;
+        targets[count] = methodRegistry.getId(edge.tgt());
+        lines[count] =
+            (edge.srcStmt() == null) ? -1 : edge.srcStmt().getJavaSourceStartLineNumber();
+        kinds[count] = kind.byteValue();
+        count++;
+      }
+    }
+
+    return CsrCallGraph.build(
+        methodRegistry,
+        methodRegistry.size(),
+        count,
+        sources,
+        targets,
+        lines,
+        kinds,
+        kindMap.keySet().toArray(new Kind[0]));
+  }
+
+  /**
+   * The method computes the methods which are reachable from the provided entry method on this call
+   * graph, including the entry method itself.
+   *
+   * @param entryMethod the entry method of the target fuzzer
+   * @return a BitSet object with the method ids of the reachable methods set
+   */
+  public BitSet getReachableMethods(SootMethod entryMethod) {
+    BitSet reachable = new BitSet(this.nodeCount);
+    int entryId = this.methodRegistry.getId(entryMethod);
+    reachable.set(entryId);
+    if (entryId >= this.nodeCount) {
+      return reachable;
+    }
+
+    int[] queue = new int[this.nodeCount];
+    int queueSize = 0;
+    queue[queueSize++] = entryId;
+    for (int i = 0; i < queueSize; i++) {
+      int node = queue[i];
+      for (int edge = this.offsets[node]; edge < this.offsets[node + 1]; edge++) {
+        int target = this.targets[edge];
+        if (!reachable.get(target)) {
+          reachable.set(target);
+          queue[queueSize++] = target;
+        }
+      }
+    }
+
+    return reachable;
+  }
+
+  /**
+   * The method extracts the part of this call graph which is reachable from the provided entry
+   * method. This allows multiple fuzzers to share one call graph built with all of their entry
+   * methods, while each fuzzer still only sees the edges it could reach on its own. The node ids
+   * and the order of the edges are kept.
+   *
+   * @param entryMethod the entry method of the target fuzzer
+   * @return a new CsrCallGraph object containing only the edges reachable from the entry method
+   */
+  public CsrCallGraph getReachableGraph(SootMethod entryMethod) {
+    BitSet reachable = this.getReachableMethods(entryMethod);
+
+    int edgeCount = 0;
+    for (int node = 0; node < this.nodeCount; node++) {
+      if (reachable.get(node)) {
+        edgeCount += this.offsets[node + 1] - this.offsets[node];
+      }
+    }
+    int[] sources = new int[edgeCount];
+    int[] targets = new int[edgeCount];
+    int[] lines = new int[edgeCount];
+    byte[] kinds = new byte[edgeCount];
+    int count = 0;
+    for (int node = 0; node < this.nodeCount; node++) {
+      if (reachable.get(node)) {
+        int start = this.offsets[node];
+        int length = this.offsets[node + 1] - start;
+        Arrays.fill(sources, count, count + length, node);
+        System.arraycopy(this.targets, start, targets, count, length);
+        System.arraycopy(this.lines, start, lines, count, length);
+        System.arraycopy(this.kinds, start, kinds, count, length);
+        count += length;
+      }
+    }
+
+    return CsrCallGraph.build(
+        this.methodRegistry, this.nodeCount, count, sources, targets, lines, kinds, this.kindTable);
+  }
+
+  /** Places the edges, which are grouped by source, at the CSR position of their source. */
+  private static CsrCallGraph build(
+      MethodRegistry methodRegistry,
+      int nodeCount,
+      int edgeCount,
+      int[] sources,
+      int[] targets,
+      int[] lines,
+      byte[] kinds,
+      Kind[] kindTable) {
+    int[] offsets = new int[nodeCount + 1];
+    for (int edge = 0; edge < edgeCount; edge++) {
+      offsets[sources[edge] + 1]++;
+    }
+    for (int node = 0; node < nodeCount; node++) {
+      offsets[node + 1] += offsets[node];
+    }
+
+    int[] positions = Arrays.copyOf(offsets, nodeCount);
+    int[] csrTargets = new int[edgeCount];
+    int[] csrLines = new int[edgeCount];
+    byte[] csrKinds = new byte[edgeCount];
+    for (int edge = 0; edge < edgeCount; edge++) {
+      int position = positions[sources[edge]]++;
+      csrTargets[position] = targets[edge];
+      csrLines[position] = lines[edge];
+      csrKinds[position] = kinds[edge];
+    }
+
+    return new CsrCallGraph(
+        methodRegistry, nodeCount, offsets, csrTargets, csrLines, csrKinds, kindTable);
+  }
+
+  public MethodRegistry getMethodRegistry() {
+    return methodRegistry;
+  }
+
+  /**
+   * The method returns the number of edges of the call graph.
+   *
+   * @return the number of edges
+   */
+  public int size() {
+    return targets.length;
+  }
+
+  public int getNodeCount() {
+    return nodeCount;
+  }
+
+  /**
+   * The method returns the index of the first outgoing edge of the provided method.
+   *
+   * @param id the method id of the source
+   * @return the index of the first outgoing edge
+   */
+  public int getEdgeStart(int id) {
+    return (id < nodeCount) ? offsets[id] : 0;
+  }
+
+  /**
+   * The method returns the index following the last outgoing edge of the provided method.
+   *
+   * @param id the method id of the source
+   * @return the index following the last outgoing edge
+   */
+  public int getEdgeEnd(int id) {
+    return (id < nodeCount) ? offsets[id + 1] : 0;
+  }
+
+  public int getOutDegree(int id) {
+    return this.getEdgeEnd(id) - this.getEdgeStart(id);
+  }
+
+  public int getInDegree(int id) {
+    return (id < nodeCount) ? inDegrees[id] : 0;
+  }
+
+  /**
+   * The method returns the method id of the target of the provided edge.
+   *
+   * @param edge the index of the edge
+   * @return the method id of the edge target
+   */
+  public int getTarget(int edge) {
+    return targets[edge];
+  }
+
+  /**
+   * The method returns the source line number of the call of the provided edge, or -1 if the edge
+   * has no source statement.
+   *
+   * @param edge the index of the edge
+   * @return the line number of the edge
+   */
+  public int getLine(int edge) {
+    return lines[edge];
+  }
+
+  public Kind getKind(int edge) {
+    return kindTable[kinds[edge]];
+  }
+}
@@ -15,37 +15,22 @@
 
 package ossf.fuzz.introspector.soot.utils;
 
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 import ossf.fuzz.introspector.soot.yaml.FunctionElement;
 import soot.SootMethod;
-import soot.jimple.toolkits.callgraph.CallGraph;
-import soot.jimple.toolkits.callgraph.Edge;
 
 public class EdgeUtils {
   /**
-   * The method retrieves a list of incoming edges from the provided SootMethod and calculate the
-   * total number of incoming edges and store it in the provided FunctionElement object
+   * The method retrieves the total number of incoming edges of the provided SootMethod, which is
+   * precomputed in the call graph, and store it in the provided FunctionElement object
    *
-   * @param callGraph the CallGraph object for this target project
+   * @param callGraph the CsrCallGraph object for this target project
    * @param m the target SootMethod object to be processed
    * @param element the target FunctionElement object to be processed
    */
   public static void updateIncomingEdges(
-      CallGraph callGraph, SootMethod m, FunctionElement element) {
-    Integer edges = 0;
-
-    Iterator<Edge> inEdges = callGraph.edgesInto(m);
-    while (inEdges.hasNext()) {
-      edges++;
-      inEdges.next();
-    }
-
-    element.setFunctionUses(edges);
+      CsrCallGraph callGraph, SootMethod m, FunctionElement element) {
+    element.setFunctionUses(callGraph.getInDegree(callGraph.getMethodRegistry().getId(m)));
   }
 
   /**
@@ -54,72 +39,44 @@ public class EdgeUtils {
    * according to the three lists provided. Lastly, the edge count and method targets pointed out by
    * the included edges are stored in the provided FunctionElement object.
    *
-   * @param callGraph the CallGraph object for this target project
+   * @param mergedEdgeView the MergedEdgeView object of the call graph for this target project
    * @param m the target SootMethod object to be processed
    * @param element the target FunctionElement object to be processed
    * @param includeList a list to store all whitelist class names for this run
    * @param excludeList a list to store all blacklist class names for this run
    * @param excludeMethodList a list to store all backlist method names for this run
-   * @param edgeClassMap a map to store class names with polymorphism methods that are merged
-   * @param functionLineMap a map object to store the starting line number of known methods
+   * @param functionLineIndex the index to store the lines of the methods invoked by this method
    */
   public static void updateOutgoingEdges(
-      CallGraph callGraph,
+      MergedEdgeView mergedEdgeView,
       SootMethod m,
       FunctionElement element,
       List<String> includeList,
       List<String> excludeList,
       List<String> excludeMethodList,
-      Map<String, Set<String>> edgeClassMap,
-      Map<String, Integer> functionLineMap) {
+      FunctionLineIndex functionLineIndex) {
     Integer edges = 0;
-    Iterator<Edge> outEdges =
-        MergeUtils.mergePolymorphism(
-            callGraph, callGraph.edgesOutOf(m), excludeList, includeList, edgeClassMap);
+    MethodRegistry registry = mergedEdgeView.getMethodRegistry();
+    MergedEdges outEdges = mergedEdgeView.getMergedEdges(m, excludeList, includeList);
 
-    for (; outEdges.hasNext(); edges++) {
-      Edge edge = outEdges.next();
-      SootMethod tgt = edge.tgt();
+    for (int i = 0; i < outEdges.size(); i++) {
+      SootMethod tgt = outEdges.getTarget(i);
 
       // Skip excluded method
       if (excludeMethodList.contains(tgt.getName())) {
-        edges--;
         continue;
       }
+      edges++;
 
-      // Retrieve class name set
-      String callerClass = edge.src().getDeclaringClass().getName();
-      String className = "";
-      Set<String> classNameSet =
-          new HashSet<String>(
-              edgeClassMap.getOrDefault(
-                  callerClass
-                      + ":"
-                      + tgt.getName()
-                      + ":"
-                      + ((edge.srcStmt() == null)
-                          ? -1
-                          : edge.srcStmt().getJavaSourceStartLineNumber()),
-                  Collections.emptySet()));
-      className = MergeUtils.mergeClassName(classNameSet);
-
-      // Check if class name has been merged
-      boolean merged = false;
-      for (String name : className.split(":")) {
-        if (name.equals(tgt.getDeclaringClass().getName())) {
-          merged = true;
-          break;
-        }
+      // Store details of reached methods, using the merged class name if it has been merged
+      int id = outEdges.getTargetId(i);
+      String className = outEdges.getClassName(i);
+      if (className.equals(registry.getClassName(id))) {
+        element.addFunctionsReached(registry.getFunctionName(id));
+      } else {
+        element.addFunctionsReached("[" + className + "]." + registry.getMethodName(id));
       }
-      if (!merged) {
-        className = tgt.getDeclaringClass().getName();
-      }
-
-      // Store details of reached methods
-      element.addFunctionsReached("[" + className + "]." + tgt.getSubSignature().split(" ")[1]);
-      functionLineMap.put(
-          tgt.getSubSignature().split(" ")[1],
-          (edge.srcStmt() == null) ? -1 : edge.srcStmt().getJavaSourceStartLineNumber());
+      functionLineIndex.addFunction(registry.getMethodName(id), outEdges.getLine(i));
     }
 
     element.setEdgeCount(edges);
@@ -0,0 +1,86 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Line sorted index of the methods invoked by a method. A method can be added several times with
+ * different lines, and the methods invoked within a line range are found with a binary search.
+ */
+public class FunctionLineIndex {
+  private List<String> functionList;
+  private List<Integer> lineList;
+  private long[] sortedEntries;
+
+  public FunctionLineIndex() {
+    this.functionList = new ArrayList<String>();
+    this.lineList = new ArrayList<Integer>();
+    this.sortedEntries = null;
+  }
+
+  /**
+   * The method records that the provided method is invoked at the provided line.
+   *
+   * @param functionName the name of the invoked method
+   * @param lineNumber the line number of the invocation
+   */
+  public void addFunction(String functionName, int lineNumber) {
+    this.functionList.add(functionName);
+    this.lineList.add(lineNumber);
+    this.sortedEntries = null;
+  }
+
+  /**
+   * The method retrieves the names of the methods invoked between the provided lines, in the order
+   * of their lines. Each name is only returned once.
+   *
+   * @param startLine the first line of the range
+   * @param endLine the last line of the range
+   * @return the list of method names invoked within the range
+   */
+  public List<String> getFunctions(int startLine, int endLine) {
+    if (this.sortedEntries == null) {
+      // Each entry stores the line in the upper and the insertion index in the lower
+      // 32 bits, so sorting the entries keeps the insertion order of the same line
+      this.sortedEntries = new long[this.lineList.size()];
+      for (int i = 0; i < this.sortedEntries.length; i++) {
+        this.sortedEntries[i] = ((long) this.lineList.get(i) << 32) | i;
+      }
+      Arrays.sort(this.sortedEntries);
+    }
+
+    Set<String> functionSet = new LinkedHashSet<String>();
+    int index = Arrays.binarySearch(this.sortedEntries, (long) startLine << 32);
+    if (index < 0) {
+      index = -index - 1;
+    }
+    for (; index < this.sortedEntries.length; index++) {
+      long entry = this.sortedEntries[index];
+      if ((int) (entry >> 32) > endLine) {
+        break;
+      }
+      functionSet.add(this.functionList.get((int) entry));
+    }
+
+    return new LinkedList<String>(functionSet);
+  }
+}
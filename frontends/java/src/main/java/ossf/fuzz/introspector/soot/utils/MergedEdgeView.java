@@ -0,0 +1,264 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.utils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import soot.SootMethod;
+
+/**
+ * Memoized view of the merged outgoing edges of each method in a call graph. The line sorted
+ * outgoing edges of a method are prepared once, and the polymorphic calls are merged once for each
+ * list of excluded class prefixes, so callers passing the same lists share the results. The lists
+ * are compiled the first time they are used and must not be changed afterwards. This class is safe
+ * to be used from multiple threads.
+ */
+public class MergedEdgeView {
+  private CsrCallGraph callGraph;
+  private MethodRegistry methodRegistry;
+  private Map<SootMethod, SortedEdges> sortedEdgesMap;
+  private Map<List<String>, EdgeFilter> edgeFilterMap;
+
+  public MergedEdgeView(CsrCallGraph callGraph) {
+    this.callGraph = callGraph;
+    this.methodRegistry = callGraph.getMethodRegistry();
+    this.sortedEdgesMap = new ConcurrentHashMap<SootMethod, SortedEdges>();
+    this.edgeFilterMap =
+        Collections.synchronizedMap(new IdentityHashMap<List<String>, EdgeFilter>());
+  }
+
+  public CsrCallGraph getCallGraph() {
+    return callGraph;
+  }
+
+  public MethodRegistry getMethodRegistry() {
+    return methodRegistry;
+  }
+
+  /**
+   * The method retrieves the outgoing edges of the provided method after merging polymorphic calls.
+   * Edges pointing to classes in the exclude list are removed unless the class is in the include
+   * list. Calls to methods without further outgoing edges are merged if they share the same method
+   * name and line number, and the merged class names are recorded.
+   *
+   * @param method the SootMethod object to retrieve the outgoing edges for
+   * @param excludeList a list of class prefixes whose methods are removed from the edges
+   * @param includeList a list of class names which are not removed
+   * @return the MergedEdges object of the method
+   */
+  public MergedEdges getMergedEdges(
+      SootMethod method, List<String> excludeList, List<String> includeList) {
+    EdgeFilter filter =
+        this.edgeFilterMap.computeIfAbsent(excludeList, list -> new EdgeFilter(list, includeList));
+    MergedEdges mergedEdges = filter.mergedEdgesMap.get(method);
+    if (mergedEdges == null) {
+      mergedEdges = this.mergePolymorphism(this.getSortedEdges(method), filter);
+      filter.mergedEdgesMap.putIfAbsent(method, mergedEdges);
+    }
+    return mergedEdges;
+  }
+
+  private SortedEdges getSortedEdges(SootMethod method) {
+    SortedEdges sortedEdges = this.sortedEdgesMap.get(method);
+    if (sortedEdges == null) {
+      sortedEdges = new SortedEdges(this.callGraph, this.methodRegistry, method);
+      this.sortedEdgesMap.putIfAbsent(method, sortedEdges);
+    }
+    return sortedEdges;
+  }
+
+  private MergedEdges mergePolymorphism(SortedEdges sorted, EdgeFilter filter) {
+    int[] indexes = new int[sorted.size];
+    int indexCount = 0;
+    int[] processingIndexes = new int[sorted.size];
+    int processingCount = 0;
+    Map<String, Set<String>> edgeClassMap = null;
+    int previous = -1;
+
+    for (int i = 0; i < sorted.size; i++) {
+      SootMethod tgt = sorted.targets[i];
+      String className = tgt.getDeclaringClass().getName();
+
+      boolean excluded =
+          filter.excludeMatcher.matches(className) && !filter.includeSet.contains(className);
+
+      if (!excluded) {
+        if (!sorted.mergeable[i]) {
+          // Does not merge methods with deeper method calls
+          // Does not merge edge for constructor calls
+          indexes[indexCount++] = i;
+        } else {
+          // Merge previously processed methods when this edge
+          // is differ from the last one cause edges are sorted
+          if (previous != -1) {
+            String edgeName = tgt.getName();
+            String previousEdgeName = sorted.targets[previous].getName();
+            if (!edgeName.equals(previousEdgeName) || sorted.lines[i] != sorted.lines[previous]) {
+              if (processingCount > 0) {
+                int first = processingIndexes[0];
+                indexes[indexCount++] = first;
+                edgeClassMap =
+                    sorted.putClassNames(edgeClassMap, first, processingIndexes, processingCount);
+                processingCount = 0;
+              }
+            }
+          }
+          processingIndexes[processingCount++] = i;
+        }
+      }
+      previous = i;
+    }
+
+    // Merge the final group of processed methods
+    if (processingCount > 0) {
+      int first = processingIndexes[0];
+      indexes[indexCount++] = first;
+      edgeClassMap = sorted.putClassNames(edgeClassMap, first, processingIndexes, processingCount);
+    }
+
+    // Sort the resulting edges again as merged edges are added after the edges
+    // following them. Edges are nearly sorted, so a stable insertion sort is used.
+    for (int i = 1; i < indexCount; i++) {
+      int index = indexes[i];
+      int j = i - 1;
+      for (; j >= 0 && sorted.compare(indexes[j], index) > 0; j--) {
+        indexes[j + 1] = indexes[j];
+      }
+      indexes[j + 1] = index;
+    }
+
+    Map<String, String> mergedClassNameMap = Collections.emptyMap();
+    if (edgeClassMap != null) {
+      mergedClassNameMap = new LinkedHashMap<String, String>();
+      for (Map.Entry<String, Set<String>> entry : edgeClassMap.entrySet()) {
+        mergedClassNameMap.put(entry.getKey(), MergeUtils.mergeClassName(entry.getValue()));
+      }
+    }
+
+    int[] edgeIndexes = new int[indexCount];
+    for (int i = 0; i < indexCount; i++) {
+      edgeIndexes[i] = sorted.edgeIndexes[indexes[i]];
+    }
+
+    return new MergedEdges(sorted.callerClass, this.callGraph, edgeIndexes, mergedClassNameMap);
+  }
+
+  /** Compiled exclude and include lists, with the edges merged with them. */
+  private static class EdgeFilter {
+    private PrefixMatcher excludeMatcher;
+    private Set<String> includeSet;
+    private Map<SootMethod, MergedEdges> mergedEdgesMap;
+
+    private EdgeFilter(List<String> excludeList, List<String> includeList) {
+      this.excludeMatcher = new PrefixMatcher(excludeList);
+      this.includeSet = new HashSet<String>(includeList);
+      this.mergedEdgesMap = new ConcurrentHashMap<SootMethod, MergedEdges>();
+    }
+  }
+
+  /** Outgoing edges of a method sorted by line number and target method name. */
+  private static class SortedEdges {
+    private String callerClass;
+    private int size;
+    private int[] edgeIndexes;
+    private SootMethod[] targets;
+    private int[] lines;
+    private boolean[] mergeable;
+
+    private SortedEdges(CsrCallGraph callGraph, MethodRegistry methodRegistry, SootMethod method) {
+      int id = methodRegistry.getId(method);
+      int start = callGraph.getEdgeStart(id);
+
+      this.callerClass = method.getDeclaringClass().getName();
+      this.size = callGraph.getEdgeEnd(id) - start;
+      SootMethod[] unsortedTargets = new SootMethod[this.size];
+      Integer[] order = new Integer[this.size];
+      for (int i = 0; i < this.size; i++) {
+        unsortedTargets[i] = methodRegistry.getMethod(callGraph.getTarget(start + i));
+        order[i] = i;
+      }
+
+      // Stable sort by line number and then by target method name
+      Arrays.sort(
+          order,
+          (i1, i2) -> {
+            int line = callGraph.getLine(start + i1) - callGraph.getLine(start + i2);
+            if (line == 0) {
+              return unsortedTargets[i1].getName().compareTo(unsortedTargets[i2].getName());
+            }
+            return line;
+          });
+
+      this.edgeIndexes = new int[this.size];
+      this.targets = new SootMethod[this.size];
+      this.lines = new int[this.size];
+      this.mergeable = new boolean[this.size];
+      for (int i = 0; i < this.size; i++) {
+        int edge = start + order[i];
+        SootMethod tgt = unsortedTargets[order[i]];
+        this.edgeIndexes[i] = edge;
+        this.targets[i] = tgt;
+        this.lines[i] = callGraph.getLine(edge);
+        this.mergeable[i] =
+            callGraph.getOutDegree(callGraph.getTarget(edge)) == 0
+                && !tgt.getName().equals("<init>")
+                && !tgt.getName().equals("<cinit>");
+      }
+    }
+
+    private int compare(int i1, int i2) {
+      int line = this.lines[i1] - this.lines[i2];
+      if (line == 0) {
+        return this.targets[i1].getName().compareTo(this.targets[i2].getName());
+      }
+      return line;
+    }
+
+    private String getKey(int index) {
+      return this.callerClass + ":" + this.targets[index].getName() + ":" + this.lines[index];
+    }
+
+    /**
+     * Stores the class names of a group of merged edges with the key of the edge at keyIndex if the
+     * edges point to more than one class. The map is created when the first class names are stored.
+     */
+    private Map<String, Set<String>> putClassNames(
+        Map<String, Set<String>> edgeClassMap, int keyIndex, int[] indexes, int count) {
+      if (count < 2) {
+        return edgeClassMap;
+      }
+
+      Set<String> classNameSet = new HashSet<String>();
+      for (int i = 0; i < count; i++) {
+        classNameSet.add(this.targets[indexes[i]].getDeclaringClass().getName());
+      }
+      if (classNameSet.size() > 1) {
+        if (edgeClassMap == null) {
+          edgeClassMap = new LinkedHashMap<String, Set<String>>();
+        }
+        edgeClassMap.put(this.getKey(keyIndex), classNameSet);
+      }
+      return edgeClassMap;
+    }
+  }
+}
@@ -0,0 +1,108 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.utils;
+
+import java.util.Map;
+import soot.Kind;
+import soot.SootMethod;
+
+/**
+ * Outgoing edges of a method after merging polymorphic calls, sorted by line number. The edges are
+ * kept as edge indexes of the CsrCallGraph, and the merged class names of the method are computed
+ * once, so the edges can be read by all consumers without processing them again.
+ */
+public class MergedEdges {
+  private String callerClass;
+  private CsrCallGraph callGraph;
+  private int[] edgeIndexes;
+  private Map<String, String> mergedClassNameMap;
+
+  public MergedEdges(
+      String callerClass,
+      CsrCallGraph callGraph,
+      int[] edgeIndexes,
+      Map<String, String> mergedClassNameMap) {
+    this.callerClass = callerClass;
+    this.callGraph = callGraph;
+    this.edgeIndexes = edgeIndexes;
+    this.mergedClassNameMap = mergedClassNameMap;
+  }
+
+  public int size() {
+    return edgeIndexes.length;
+  }
+
+  public SootMethod getTarget(int index) {
+    return callGraph.getMethodRegistry().getMethod(this.getTargetId(index));
+  }
+
+  /**
+   * The method returns the id of the edge target in the MethodRegistry of the MergedEdgeView.
+   *
+   * @param index the index of the edge
+   * @return the method id of the edge target
+   */
+  public int getTargetId(int index) {
+    return callGraph.getTarget(edgeIndexes[index]);
+  }
+
+  public int getLine(int index) {
+    return callGraph.getLine(edgeIndexes[index]);
+  }
+
+  public Kind getKind(int index) {
+    return callGraph.getKind(edgeIndexes[index]);
+  }
+
+  /**
+   * The method returns the "class:method:line" string identifying the call of the edge, which is
+   * used as the key of the merged class names.
+   *
+   * @param index the index of the edge
+   * @return the key of the edge
+   */
+  public String getKey(int index) {
+    return callerClass + ":" + this.getTarget(index).getName() + ":" + this.getLine(index);
+  }
+
+  /**
+   * The method returns the class name to print for the target of the edge, which is the merged
+   * class name if the call has been merged with calls to other classes.
+   *
+   * @param index the index of the edge
+   * @return the class name of the edge target
+   */
+  public String getClassName(int index) {
+    String className = callGraph.getMethodRegistry().getClassName(this.getTargetId(index));
+    if (!mergedClassNameMap.isEmpty()) {
+      String mergedClassName = mergedClassNameMap.get(this.getKey(index));
+      if (mergedClassName != null && MergeUtils.containsClassName(mergedClassName, className)) {
+        return mergedClassName;
+      }
+    }
+    return className;
+  }
+
+  /**
+   * The method returns the merged class names produced by the merging of this method, keyed by the
+   * "class:method:line" string of the call. Entries are kept in the order they were produced.
+   *
+   * @return the map of merged class names
+   */
+  public Map<String, String> getMergedClassNameMap() {
+    return mergedClassNameMap;
+  }
+}
@@ -0,0 +1,120 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.utils;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import soot.SootMethod;
+
+/**
+ * Registry giving each SootMethod of the analysis a dense integer id. The strings printed for a
+ * method in the outputs are computed once when the method is registered. Ids are assigned in the
+ * order the methods are first seen, and the registry is safe to be used from multiple threads.
+ */
+public class MethodRegistry {
+  private Map<SootMethod, Integer> idMap;
+  private volatile Entry[] entries;
+  private int size;
+
+  public MethodRegistry() {
+    this.idMap = new ConcurrentHashMap<SootMethod, Integer>();
+    this.entries = new Entry[1024];
+    this.size = 0;
+  }
+
+  /**
+   * The method returns the id of the provided method, the method is registered if it has not been
+   * seen before.
+   *
+   * @param method the SootMethod object to retrieve the id for
+   * @return the dense id of the method
+   */
+  public int getId(SootMethod method) {
+    Integer id = this.idMap.get(method);
+    if (id == null) {
+      id = this.register(method);
+    }
+    return id;
+  }
+
+  private synchronized Integer register(SootMethod method) {
+    Integer id = this.idMap.get(method);
+    if (id != null) {
+      return id;
+    }
+
+    Entry[] entries = this.entries;
+    if (this.size == entries.length) {
+      entries = Arrays.copyOf(entries, entries.length * 2);
+    }
+    entries[this.size] = new Entry(method);
+
+    // Publish the entry before its id
+    this.entries = entries;
+    id = this.size++;
+    this.idMap.put(method, id);
+    return id;
+  }
+
+  public synchronized int size() {
+    return this.size;
+  }
+
+  public SootMethod getMethod(int id) {
+    return this.entries[id].method;
+  }
+
+  /**
+   * The method returns the method name with its parameter types, the part of the subsignature after
+   * the return type, for example "foo(int,java.lang.String)".
+   *
+   * @param id the id of the method
+   * @return the method name with its parameter types
+   */
+  public String getMethodName(int id) {
+    return this.entries[id].methodName;
+  }
+
+  public String getClassName(int id) {
+    return this.entries[id].className;
+  }
+
+  /**
+   * The method returns the function name of the method in the outputs, in the format of
+   * "[className].methodName(parameterTypes)".
+   *
+   * @param id the id of the method
+   * @return the function name of the method
+   */
+  public String getFunctionName(int id) {
+    return this.entries[id].functionName;
+  }
+
+  private static class Entry {
+    private final SootMethod method;
+    private final String methodName;
+    private final String className;
+    private final String functionName;
+
+    private Entry(SootMethod method) {
+      this.method = method;
+      this.methodName = method.getSubSignature().split(" ")[1];
+      this.className = method.getDeclaringClass().getName();
+      this.functionName = "[" + this.className + "]." + this.methodName;
+    }
+  }
+}
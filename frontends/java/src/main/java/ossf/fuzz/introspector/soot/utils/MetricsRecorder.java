@@ -0,0 +1,186 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Recorder of the wall time, CPU time, allocated bytes and heap pool peaks of each analysis phase,
+ * together with counters describing the size of the analysed program and the settings of the run.
+ * Phases and counters are recorded either for the whole run or for the fuzzer currently being
+ * analysed, and are written to a JSON file at the end of the run.
+ *
+ * <p>CPU time is measured for the whole process. Allocated bytes are summed over all live threads,
+ * so allocations of threads terminating within a phase are not included.
+ *
+ * <p>The JVM reports no peak for the heap as a whole, only for each of its memory pools, so the
+ * heapPoolPeakSumBytes of a phase is the sum of the peaks of the heap pools. The pools reach their
+ * peaks at different times, e.g. the young generation right before a collection moves its objects
+ * to the old generation, so the sum is an upper bound of the real heap peak and could exceed it by
+ * up to the size of the young generation. The pool peaks are reset at the start of each phase, so
+ * phases should not overlap.
+ */
+public class MetricsRecorder {
+  private Map<String, Object> settingMap;
+  private Map<String, Object> phaseMap;
+  private Map<String, Object> counterMap;
+  private Map<String, Object> fuzzerMap;
+  private Map<String, Snapshot> startMap;
+  private String fuzzer;
+
+  public MetricsRecorder() {
+    this.settingMap = new LinkedHashMap<String, Object>();
+    this.phaseMap = new LinkedHashMap<String, Object>();
+    this.counterMap = new LinkedHashMap<String, Object>();
+    this.fuzzerMap = new LinkedHashMap<String, Object>();
+    this.startMap = new HashMap<String, Snapshot>();
+    this.fuzzer = null;
+  }
+
+  /**
+   * The method sets the fuzzer which the following phases and counters belong to.
+   *
+   * @param fuzzer the entry class name of the fuzzer, or null for the whole run
+   */
+  public void setFuzzer(String fuzzer) {
+    this.fuzzer = fuzzer;
+  }
+
+  public void startPhase(String name) {
+    this.startMap.put(this.getKey(name), new Snapshot());
+  }
+
+  public void endPhase(String name) {
+    Snapshot start = this.startMap.remove(this.getKey(name));
+    if (start == null) {
+      return;
+    }
+    Snapshot end = new Snapshot();
+
+    Long allocatedBytes = 0L;
+    for (Map.Entry<Long, Long> entry : end.allocatedBytesMap.entrySet()) {
+      allocatedBytes += entry.getValue() - start.allocatedBytesMap.getOrDefault(entry.getKey(), 0L);
+    }
+
+    Map<String, Object> phase = new LinkedHashMap<String, Object>();
+    phase.put("wallTimeMs", (end.wallTime - start.wallTime) / 1000000);
+    phase.put("cpuTimeMs", (start.cpuTime < 0) ? -1 : (end.cpuTime - start.cpuTime) / 1000000);
+    phase.put("allocatedBytes", allocatedBytes);
+    phase.put("heapPoolPeakSumBytes", end.heapPoolPeakSum);
+    this.getScope("phases").put(name, phase);
+  }
+
+  /**
+   * The method records a setting of the whole run, such as an option affecting the results.
+   *
+   * @param name the name of the setting
+   * @param value the value of the setting
+   */
+  public void setSetting(String name, Object value) {
+    this.settingMap.put(name, value);
+  }
+
+  public void addCounter(String name, long value) {
+    Map<String, Object> counters = this.getScope("counters");
+    counters.put(name, (Long) counters.getOrDefault(name, 0L) + value);
+  }
+
+  public void write(File file) throws IOException {
+    Map<String, Object> output = new LinkedHashMap<String, Object>();
+    output.put("settings", this.settingMap);
+    output.put("phases", this.phaseMap);
+    output.put("counters", this.counterMap);
+    output.put("fuzzers", this.fuzzerMap);
+
+    ObjectMapper mapper = new ObjectMapper();
+    mapper.enable(SerializationFeature.INDENT_OUTPUT);
+    mapper.writeValue(file, output);
+  }
+
+  private String getKey(String name) {
+    return (this.fuzzer == null) ? name : this.fuzzer + ":" + name;
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<String, Object> getScope(String type) {
+    if (this.fuzzer == null) {
+      return type.equals("phases") ? this.phaseMap : this.counterMap;
+    }
+
+    Map<String, Object> scope = (Map<String, Object>) this.fuzzerMap.get(this.fuzzer);
+    if (scope == null) {
+      scope = new LinkedHashMap<String, Object>();
+      scope.put("phases", new LinkedHashMap<String, Object>());
+      scope.put("counters", new LinkedHashMap<String, Object>());
+      this.fuzzerMap.put(this.fuzzer, scope);
+    }
+    return (Map<String, Object>) scope.get(type);
+  }
+
+  /** Resource usage of the process at one point in time. */
+  private static class Snapshot {
+    private long wallTime;
+    private long cpuTime;
+    private long heapPoolPeakSum;
+    private Map<Long, Long> allocatedBytesMap;
+
+    private Snapshot() {
+      this.wallTime = System.nanoTime();
+
+      OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
+      if (osBean instanceof com.sun.management.OperatingSystemMXBean) {
+        this.cpuTime = ((com.sun.management.OperatingSystemMXBean) osBean).getProcessCpuTime();
+      } else {
+        this.cpuTime = -1;
+      }
+
+      this.allocatedBytesMap = new HashMap<Long, Long>();
+      ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+      if (threadBean instanceof com.sun.management.ThreadMXBean) {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threadBean;
+        if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+          long[] ids = bean.getAllThreadIds();
+          long[] bytes = bean.getThreadAllocatedBytes(ids);
+          for (int i = 0; i < ids.length; i++) {
+            if (bytes[i] >= 0) {
+              this.allocatedBytesMap.put(ids[i], bytes[i]);
+            }
+          }
+        }
+      }
+
+      // Sum the pool peaks since the last snapshot and start a new period
+      this.heapPoolPeakSum = 0;
+      for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+        if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+          this.heapPoolPeakSum += pool.getPeakUsage().getUsed();
+          pool.resetPeakUsage();
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,128 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.utils;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Prefix trie compiled from lists of class name prefixes. Each list is registered with a flag, and
+ * matching a name returns the flags of all lists having a prefix of the name, so a class name can
+ * be classified against several lists in a single pass over its characters. As in the rest of the
+ * configuration, the "*" characters of the prefixes are ignored.
+ */
+public class PrefixMatcher {
+  private Node root;
+
+  public PrefixMatcher() {
+    this.root = new Node();
+  }
+
+  public PrefixMatcher(List<String> prefixList) {
+    this();
+    this.addPrefixes(prefixList, 1);
+  }
+
+  /**
+   * The method adds all prefixes of the provided list to the trie with the provided flag.
+   *
+   * @param prefixList the list of class name prefixes to add
+   * @param flag the flag returned when a name matches one of the prefixes
+   */
+  public void addPrefixes(List<String> prefixList, int flag) {
+    for (String prefix : prefixList) {
+      Node node = this.root;
+      String str = prefix.replace("*", "");
+      for (int i = 0; i < str.length(); i++) {
+        node = node.getOrAddChild(str.charAt(i));
+      }
+      node.flags |= flag;
+    }
+  }
+
+  /**
+   * The method matches the provided name against all prefixes of the trie.
+   *
+   * @param name the class name to match
+   * @return the combined flags of all prefix lists containing a prefix of the name
+   */
+  public int match(String name) {
+    return this.match(name, 0, name.length());
+  }
+
+  /**
+   * The method matches the part of the provided name from start (inclusive) to end (exclusive)
+   * against all prefixes of the trie, without creating a substring.
+   *
+   * @param name the string containing the class name to match
+   * @param start the start index of the class name
+   * @param end the end index of the class name
+   * @return the combined flags of all prefix lists containing a prefix of the name
+   */
+  public int match(String name, int start, int end) {
+    Node node = this.root;
+    int flags = node.flags;
+    for (int i = start; i < end && node != null; i++) {
+      node = node.getChild(name.charAt(i));
+      if (node != null) {
+        flags |= node.flags;
+      }
+    }
+    return flags;
+  }
+
+  /**
+   * The method checks if the provided name starts with any of the prefixes of the trie.
+   *
+   * @param name the class name to match
+   * @return true if the name starts with any of the prefixes
+   */
+  public boolean matches(String name) {
+    return this.match(name) != 0;
+  }
+
+  private static class Node {
+    private int flags;
+    private char[] keys = new char[0];
+    private Node[] children = new Node[0];
+
+    private Node getChild(char c) {
+      int index = Arrays.binarySearch(this.keys, c);
+      return (index < 0) ? null : this.children[index];
+    }
+
+    private Node getOrAddChild(char c) {
+      int index = Arrays.binarySearch(this.keys, c);
+      if (index >= 0) {
+        return this.children[index];
+      }
+
+      // Keep the keys sorted for the binary search
+      index = -index - 1;
+      char[] keys = new char[this.keys.length + 1];
+      Node[] children = new Node[this.children.length + 1];
+      System.arraycopy(this.keys, 0, keys, 0, index);
+      System.arraycopy(this.children, 0, children, 0, index);
+      System.arraycopy(this.keys, index, keys, index + 1, this.keys.length - index);
+      System.arraycopy(this.children, index, children, index + 1, this.children.length - index);
+      keys[index] = c;
+      children[index] = new Node();
+      this.keys = keys;
+      this.children = children;
+      return children[index];
+    }
+  }
+}
@@ -0,0 +1,324 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.utils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Index of the Java source files of the target project, mapping the fully qualified name of the
+ * top-level class of each source file, built from its package declaration and file name, to the
+ * path of the file. The package declarations are parsed in parallel. The index can be stored in an
+ * index file together with the modification time and size of each source file, so later runs only
+ * parse the new and changed source files.
+ */
+public class SourceIndex {
+  private static final String INDEX_VERSION = "1";
+
+  private Map<String, String> classSourceMap;
+
+  private SourceIndex(Map<String, String> classSourceMap) {
+    this.classSourceMap = classSourceMap;
+  }
+
+  /**
+   * Creates an empty index, for runs without a source directory.
+   *
+   * @return the empty SourceIndex object
+   */
+  public static SourceIndex empty() {
+    return new SourceIndex(new HashMap<String, String>());
+  }
+
+  /**
+   * The method indexes the Java source files of the provided source directory. The entries of the
+   * index file are reused for the unchanged source files, and the index file is rewritten if any
+   * source file changed. The index is empty if the source directory can not be read.
+   *
+   * @param sourceDirectory the source directory of the target project
+   * @param indexFile the file storing the index between runs, or null to always parse all files
+   * @param threadCount the number of threads parsing the source files
+   * @return the SourceIndex object of the source directory
+   */
+  public static SourceIndex build(String sourceDirectory, File indexFile, int threadCount) {
+    List<SourceFile> sourceList;
+    try (Stream<Path> walk = Files.walk(Paths.get(sourceDirectory))) {
+      sourceList =
+          walk.filter(f -> f.toString().endsWith(".java"))
+              .filter(f -> !f.getFileName().toString().equals("package-info.java"))
+              .filter(f -> !f.getFileName().toString().equals("module-info.java"))
+              .map(SourceIndex::createSourceFile)
+              .filter(f -> f != null)
+              .collect(Collectors.toList());
+    } catch (IOException | UncheckedIOException e) {
+      // Fail to retrieve project class list, ignore the list.
+      return SourceIndex.empty();
+    }
+
+    // Reuse the class names of the source files unchanged since the index file was written
+    Map<String, SourceFile> indexedMap = SourceIndex.readIndexFile(indexFile, sourceDirectory);
+    List<SourceFile> parseList = new ArrayList<SourceFile>();
+    for (SourceFile source : sourceList) {
+      SourceFile indexed = indexedMap.get(source.path);
+      if (indexed != null
+          && indexed.modifiedTime == source.modifiedTime
+          && indexed.size == source.size) {
+        source.className = indexed.className;
+      } else {
+        parseList.add(source);
+      }
+    }
+
+    if (!parseList.isEmpty()) {
+      ForkJoinPool pool = new ForkJoinPool(Math.max(threadCount, 1));
+      try {
+        pool.submit(() -> parseList.parallelStream().forEach(SourceIndex::parseClassName)).get();
+      } catch (InterruptedException | ExecutionException e) {
+        throw new RuntimeException("Failed to index the source directory.", e);
+      } finally {
+        pool.shutdown();
+      }
+    }
+    if (indexFile != null && (!parseList.isEmpty() || indexedMap.size() != sourceList.size())) {
+      try {
+        SourceIndex.writeIndexFile(indexFile, sourceDirectory, sourceList);
+      } catch (IOException e) {
+        System.err.println("Failed to write the source index: " + e);
+      }
+    }
+
+    Map<String, String> classSourceMap = new HashMap<String, String>();
+    for (SourceFile source : sourceList) {
+      classSourceMap.putIfAbsent(source.className, source.path);
+    }
+    return new SourceIndex(classSourceMap);
+  }
+
+  public boolean isEmpty() {
+    return this.classSourceMap.isEmpty();
+  }
+
+  public int size() {
+    return this.classSourceMap.size();
+  }
+
+  /**
+   * The method checks if the provided class is declared in one of the source files. Nested classes
+   * are looked up by the name of their top-level class.
+   *
+   * @param className the fully qualified name of the class
+   * @return true if the top-level class of the class has a source file
+   */
+  public boolean containsClass(String className) {
+    return this.classSourceMap.containsKey(SourceIndex.getTopLevelClassName(className));
+  }
+
+  /**
+   * The method retrieves the source file of the provided class. Nested classes are looked up by the
+   * name of their top-level class.
+   *
+   * @param className the fully qualified name of the class
+   * @return the path of the source file, or null if the class has no source file
+   */
+  public String getSourceFile(String className) {
+    return this.classSourceMap.get(SourceIndex.getTopLevelClassName(className));
+  }
+
+  private static String getTopLevelClassName(String className) {
+    int index = className.indexOf('$');
+    return (index == -1) ? className : className.substring(0, index);
+  }
+
+  private static SourceFile createSourceFile(Path path) {
+    try {
+      BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+      if (!attributes.isRegularFile()) {
+        return null;
+      }
+      return new SourceFile(
+          path.toString(), attributes.lastModifiedTime().toMillis(), attributes.size());
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  /**
+   * The method sets the fully qualified class name of the provided source file from its package
+   * declaration and file name. Source files without package declaration, or which can not be read,
+   * are in the default package.
+   *
+   * @param source the SourceFile object to parse
+   */
+  private static void parseClassName(SourceFile source) {
+    String fileName = Paths.get(source.path).getFileName().toString();
+    String simpleName = fileName.substring(0, fileName.length() - ".java".length());
+    String packageName = null;
+    try {
+      packageName = SourceIndex.readPackageName(Paths.get(source.path));
+    } catch (IOException | UncheckedIOException e) {
+      packageName = null;
+    }
+    source.className = (packageName == null) ? simpleName : packageName + "." + simpleName;
+  }
+
+  /**
+   * The method reads the package declaration of the provided source file. Only the comments and
+   * annotations before the package declaration are read, the rest of the file is skipped. The file
+   * is read as ISO-8859-1, which never fails and keeps the ASCII package names of any encoding.
+   *
+   * @param path the path of the source file
+   * @return the package name, or null if the file has no package declaration
+   */
+  static String readPackageName(Path path) throws IOException {
+    StringBuilder declaration = null;
+    boolean inComment = false;
+    try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.ISO_8859_1)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        // Remove the comments of the line
+        StringBuilder code = new StringBuilder();
+        int i = 0;
+        while (i < line.length()) {
+          if (inComment) {
+            int end = line.indexOf("*/", i);
+            if (end == -1) {
+              break;
+            }
+            inComment = false;
+            i = end + 2;
+          } else if (line.startsWith("/*", i)) {
+            inComment = true;
+            i += 2;
+          } else if (line.startsWith("//", i)) {
+            break;
+          } else {
+            code.append(line.charAt(i));
+            i++;
+          }
+        }
+
+        String text = code.toString().trim();
+        if (text.isEmpty()) {
+          continue;
+        }
+        if (declaration == null) {
+          if (text.startsWith("@")) {
+            continue;
+          }
+          if (!text.startsWith("package")
+              || (text.length() > 7 && Character.isJavaIdentifierPart(text.charAt(7)))) {
+            return null;
+          }
+          declaration = new StringBuilder();
+          text = text.substring(7);
+        }
+        int end = text.indexOf(';');
+        declaration.append(end == -1 ? text : text.substring(0, end));
+        if (end != -1) {
+          return declaration.toString().replaceAll("\\s", "");
+        }
+      }
+    }
+    return null;
+  }
+
+  private static Map<String, SourceFile> readIndexFile(File indexFile, String sourceDirectory) {
+    Map<String, SourceFile> indexedMap = new HashMap<String, SourceFile>();
+    if (indexFile == null || !indexFile.isFile()) {
+      return indexedMap;
+    }
+    try (BufferedReader reader =
+        Files.newBufferedReader(indexFile.toPath(), StandardCharsets.UTF_8)) {
+      if (!(INDEX_VERSION + "\t" + sourceDirectory).equals(reader.readLine())) {
+        return indexedMap;
+      }
+      String line;
+      while ((line = reader.readLine()) != null) {
+        String[] fields = line.split("\t", 4);
+        if (fields.length != 4) {
+          return new HashMap<String, SourceFile>();
+        }
+        SourceFile source =
+            new SourceFile(fields[3], Long.parseLong(fields[0]), Long.parseLong(fields[1]));
+        source.className = fields[2];
+        indexedMap.put(source.path, source);
+      }
+    } catch (IOException | NumberFormatException e) {
+      System.err.println("Failed to read the source index, indexing all source files: " + e);
+      return new HashMap<String, SourceFile>();
+    }
+    return indexedMap;
+  }
+
+  /**
+   * The method writes the index file through a temporary file, so an interrupted run never leaves a
+   * partially written index file behind. Each line holds the modification time, size, class name
+   * and path of one source file, separated by tabs.
+   */
+  private static void writeIndexFile(
+      File indexFile, String sourceDirectory, List<SourceFile> sourceList) throws IOException {
+    if (indexFile.getParentFile() != null) {
+      Files.createDirectories(indexFile.getParentFile().toPath());
+    }
+    File tempFile = new File(indexFile.getPath() + ".tmp");
+    try (BufferedWriter writer =
+        Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.UTF_8)) {
+      writer.write(INDEX_VERSION + "\t" + sourceDirectory);
+      writer.newLine();
+      for (SourceFile source : sourceList) {
+        writer.write(
+            source.modifiedTime + "\t" + source.size + "\t" + source.className + "\t" + source.path);
+        writer.newLine();
+      }
+    }
+    Files.move(
+        tempFile.toPath(),
+        indexFile.toPath(),
+        StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /** A source file with the file attributes used to detect its changes. */
+  private static class SourceFile {
+    private String path;
+    private long modifiedTime;
+    private long size;
+    private String className;
+
+    private SourceFile(String path, long modifiedTime, long size) {
+      this.path = path;
+      this.modifiedTime = modifiedTime;
+      this.size = size;
+    }
+  }
+}
@@ -16,6 +16,7 @@
 package ossf.fuzz.introspector.soot.yaml;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.Objects;
 
 public class Callsite {
   private String source;
@@ -36,16 +37,19 @@ public class Callsite {
   }
 
   public void setMethodName(String methodName) {
-    this.methodName = methodName;
+    this.methodName = (methodName == null) ? null : methodName.intern();
   }
 
   @Override
   public boolean equals(Object obj) {
     if (obj instanceof Callsite) {
-      String selfMethodName = this.getMethodName();
-      String objMethodName = ((Callsite) obj).getMethodName();
-      return selfMethodName.equals(objMethodName);
+      return Objects.equals(this.getMethodName(), ((Callsite) obj).getMethodName());
     }
     return false;
   }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(this.getMethodName());
+  }
 }
@@ -17,14 +17,19 @@ package ossf.fuzz.introspector.soot.yaml;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class FunctionConfig {
   private String listName;
   private List<FunctionElement> functionElements;
+  // Index of function name to the first element with that name in functionElements.
+  private Map<String, FunctionElement> functionElementMap;
 
   public FunctionConfig() {
     this.functionElements = new ArrayList<FunctionElement>();
+    this.functionElementMap = new HashMap<String, FunctionElement>();
     this.listName = "All functions";
   }
 
@@ -44,11 +49,14 @@ public class FunctionConfig {
 
   public void setFunctionElements(List<FunctionElement> functionElements) {
     this.functionElements = functionElements;
+    this.functionElementMap = new HashMap<String, FunctionElement>();
+    for (FunctionElement element : functionElements) {
+      this.functionElementMap.putIfAbsent(element.getFunctionName(), element);
+    }
   }
 
   public void addFunctionElement(FunctionElement newElement) {
-    FunctionElement oldElement = this.searchElement(newElement.getFunctionName());
-    if (oldElement == null) {
+    if (this.functionElementMap.putIfAbsent(newElement.getFunctionName(), newElement) == null) {
       this.functionElements.add(newElement);
     }
   }
@@ -60,11 +68,6 @@ public class FunctionConfig {
   }
 
   public FunctionElement searchElement(String functionName) {
-    for (FunctionElement element : this.getFunctionElements()) {
-      if (element.getFunctionName().equals(functionName)) {
-        return element;
-      }
-    }
-    return null;
+    return this.functionElementMap.get(functionName);
   }
 }
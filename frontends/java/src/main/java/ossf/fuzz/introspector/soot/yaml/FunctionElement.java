@@ -17,48 +17,56 @@ package ossf.fuzz.introspector.soot.yaml;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import soot.SootClass;
 import soot.SootField;
 import soot.SootMethod;
 import soot.Type;
 
+/**
+ * Function information of the .data.yaml output. Instances are kept for every processed method
+ * until the output is written, so the counters are stored as primitives, the lists share an empty
+ * list until the first element is added and the repeated strings are interned.
+ */
 public class FunctionElement {
+  // Marks the line number and argument count as unset, they are serialised as null then
+  private static final int UNSET = Integer.MIN_VALUE;
+
   private String functionName;
   private String functionSourceFile;
   private String linkageType;
-  private Integer functionLinenumber;
-  private Integer functionDepth;
+  private int functionLinenumber;
+  private int functionDepth;
   private String returnType;
-  private Integer argCount;
+  private int argCount;
   private List<String> argTypes;
   private List<String> constantsTouched;
   private List<String> argNames;
-  private Integer BBCount;
-  private Integer iCount;
-  private Integer edgeCount;
-  private Integer CyclomaticComplexity;
+  private int BBCount;
+  private int iCount;
+  private int edgeCount;
+  private int CyclomaticComplexity;
   private List<String> functionsReached;
-  private Integer functionUses;
+  private int functionUses;
   private List<BranchProfile> branchProfiles;
   private List<Callsite> callsites;
+  private Set<Callsite> callsiteSet;
   private JavaMethodInfo javaMethodInfo;
 
   public FunctionElement() {
-    this.argTypes = new ArrayList<String>();
-    this.constantsTouched = new ArrayList<String>();
-    this.argNames = new ArrayList<String>();
-    this.functionsReached = new ArrayList<String>();
-    this.branchProfiles = new ArrayList<BranchProfile>();
-    this.callsites = new ArrayList<Callsite>();
+    this.argTypes = Collections.emptyList();
+    this.constantsTouched = Collections.emptyList();
+    this.argNames = Collections.emptyList();
+    this.functionsReached = Collections.emptyList();
+    this.branchProfiles = Collections.emptyList();
+    this.callsites = Collections.emptyList();
 
-    this.functionDepth = 0;
-    this.functionUses = 0;
-    this.edgeCount = 0;
-    this.BBCount = 0;
-    this.iCount = 0;
-    this.CyclomaticComplexity = 0;
+    this.functionLinenumber = UNSET;
+    this.argCount = UNSET;
   }
 
   public String getFunctionName() {
@@ -74,7 +82,7 @@ public class FunctionElement {
   }
 
   public void setFunctionSourceFile(String functionSourceFile) {
-    this.functionSourceFile = functionSourceFile;
+    this.functionSourceFile = intern(functionSourceFile);
   }
 
   public String getLinkageType() {
@@ -82,22 +90,22 @@ public class FunctionElement {
   }
 
   public void setLinkageType(String linkageType) {
-    this.linkageType = linkageType;
+    this.linkageType = intern(linkageType);
   }
 
   public Integer getFunctionLinenumber() {
-    return functionLinenumber;
+    return (functionLinenumber == UNSET) ? null : functionLinenumber;
   }
 
   public void setFunctionLinenumber(Integer functionLinenumber) {
-    this.functionLinenumber = functionLinenumber;
+    this.functionLinenumber = (functionLinenumber == null) ? UNSET : functionLinenumber;
   }
 
-  public Integer getFunctionDepth() {
+  public int getFunctionDepth() {
     return functionDepth;
   }
 
-  public void setFunctionDepth(Integer functionDepth) {
+  public void setFunctionDepth(int functionDepth) {
     this.functionDepth = functionDepth;
   }
 
@@ -106,15 +114,15 @@ public class FunctionElement {
   }
 
   public void setReturnType(String type) {
-    this.returnType = type;
+    this.returnType = intern(type);
   }
 
   public Integer getArgCount() {
-    return argCount;
+    return (argCount == UNSET) ? null : argCount;
   }
 
   public void setArgCount(Integer argCount) {
-    this.argCount = argCount;
+    this.argCount = (argCount == null) ? UNSET : argCount;
   }
 
   public List<String> getArgTypes() {
@@ -122,7 +130,7 @@ public class FunctionElement {
   }
 
   public void addArgType(String argType) {
-    this.argTypes.add(argType);
+    this.argTypes = add(this.argTypes, intern(argType));
   }
 
   public void setArgTypes(List<String> list) {
@@ -134,7 +142,7 @@ public class FunctionElement {
   }
 
   public void addConstantsTouched(String constantsTouched) {
-    this.constantsTouched.add(constantsTouched);
+    this.constantsTouched = add(this.constantsTouched, constantsTouched);
   }
 
   public void setConstantsTouched(List<String> constantsTouched) {
@@ -146,7 +154,7 @@ public class FunctionElement {
   }
 
   public void addArgName(String argNames) {
-    this.argNames.add(argNames);
+    this.argNames = add(this.argNames, argNames);
   }
 
   public void setArgNames(List<String> argNames) {
@@ -154,38 +162,38 @@ public class FunctionElement {
   }
 
   @JsonProperty("BBCount")
-  public Integer getBBCount() {
+  public int getBBCount() {
     return BBCount;
   }
 
-  public void setBBCount(Integer bBCount) {
+  public void setBBCount(int bBCount) {
     BBCount = bBCount;
   }
 
   @JsonProperty("ICount")
-  public Integer getiCount() {
+  public int getiCount() {
     return iCount;
   }
 
-  public void setiCount(Integer iCount) {
+  public void setiCount(int iCount) {
     this.iCount = iCount;
   }
 
   @JsonProperty("EdgeCount")
-  public Integer getEdgeCount() {
+  public int getEdgeCount() {
     return edgeCount;
   }
 
-  public void setEdgeCount(Integer edgeCount) {
+  public void setEdgeCount(int edgeCount) {
     this.edgeCount = edgeCount;
   }
 
   @JsonProperty("CyclomaticComplexity")
-  public Integer getCyclomaticComplexity() {
+  public int getCyclomaticComplexity() {
     return CyclomaticComplexity;
   }
 
-  public void setCyclomaticComplexity(Integer cyclomaticComplexity) {
+  public void setCyclomaticComplexity(int cyclomaticComplexity) {
     CyclomaticComplexity = cyclomaticComplexity;
   }
 
@@ -194,18 +202,18 @@ public class FunctionElement {
   }
 
   public void addFunctionsReached(String functionsReached) {
-    this.functionsReached.add(functionsReached);
+    this.functionsReached = add(this.functionsReached, intern(functionsReached));
   }
 
   public void setFunctionsReached(List<String> functionsReached) {
     this.functionsReached = functionsReached;
   }
 
-  public Integer getFunctionUses() {
+  public int getFunctionUses() {
     return functionUses;
   }
 
-  public void setFunctionUses(Integer functionUses) {
+  public void setFunctionUses(int functionUses) {
     this.functionUses = functionUses;
   }
 
@@ -215,7 +223,7 @@ public class FunctionElement {
   }
 
   public void addBranchProfile(BranchProfile branchProfile) {
-    this.branchProfiles.add(branchProfile);
+    this.branchProfiles = add(this.branchProfiles, branchProfile);
   }
 
   public void setBranchProfiles(List<BranchProfile> branchProfiles) {
@@ -228,20 +236,18 @@ public class FunctionElement {
   }
 
   public void addCallsite(Callsite callsite) {
-    Boolean duplicate = false;
-    for (Callsite item : this.callsites) {
-      if (item.equals(callsite)) {
-        duplicate = true;
-      }
+    // Call sites are deduplicated by their target method, the first one is kept
+    if (this.callsiteSet == null) {
+      this.callsiteSet = new HashSet<Callsite>(this.callsites);
     }
-
-    if (!duplicate) {
-      this.callsites.add(callsite);
+    if (this.callsiteSet.add(callsite)) {
+      this.callsites = add(this.callsites, callsite);
     }
   }
 
   public void setCallsites(List<Callsite> callsites) {
     this.callsites = callsites;
+    this.callsiteSet = null;
   }
 
   @JsonProperty("JavaMethodInfo")
@@ -306,9 +312,22 @@ public class FunctionElement {
     }
   }
 
-  public void setCountInformation(Integer bbCount, Integer iCount, Integer complexity) {
+  public void setCountInformation(int bbCount, int iCount, int complexity) {
     this.setBBCount(bbCount);
     this.setiCount(iCount);
     this.setCyclomaticComplexity(complexity);
   }
+
+  private static <T> List<T> add(List<T> list, T item) {
+    // Replace the shared empty list on the first insert
+    if (list == Collections.<T>emptyList()) {
+      list = new ArrayList<T>();
+    }
+    list.add(item);
+    return list;
+  }
+
+  private static String intern(String str) {
+    return (str == null) ? null : str.intern();
+  }
 }
@@ -0,0 +1,282 @@
+// Copyright 2022 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.yaml;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming writer for the compact binary .data.bin output, holding the same data as the .data.yaml
+ * output. All fixed-width integers are big-endian, and all strings are stored once in a string
+ * table and referred to by their index, where index 0 stands for null.
+ *
+ * <p>The file starts with the magic "FIBD" and the int32 format version. It is followed by a stream
+ * of varints, first the string indexes of the fuzzer filename, the fuzzing method and the function
+ * list name, and the number of degradation steps plus one (0 if they are not recorded) followed by
+ * their string indexes. Then for each FunctionElement, the lists argTypes, constantsTouched,
+ * argNames and functionsReached as a count followed by the string indexes, the BranchProfiles as a
+ * count followed by the branch string index and the sides of each, where each side is its string
+ * index and the list of its functions, and the Callsites as a count followed by the source and
+ * destination string indexes of each.
+ *
+ * <p>After the varints come the fixed-width records of all FunctionElements, each made of 13 int32
+ * fields: the string indexes of functionName, functionSourceFile, linkageType, returnType and the
+ * JSON of JavaMethodInfo, then functionLinenumber, functionDepth, argCount, functionUses, ICount,
+ * EdgeCount, BBCount and CyclomaticComplexity, where Integer.MIN_VALUE stands for null. Then the
+ * string table follows as the int32 number of strings, the int32 UTF-8 length of each string
+ * starting from index 1, and the UTF-8 bytes of all strings. The file ends with a trailer of the
+ * int64 offsets of the records and of the string table, the int32 number of elements and the magic
+ * again.
+ *
+ * <p>Keeping each kind of data in its own section lets readers decode each section in bulk. Only
+ * the records and the string table are kept in memory until the writer is closed.
+ */
+public class FuzzerBinaryWriter implements Closeable {
+  public static final int VERSION = 1;
+
+  private static final byte[] MAGIC = {'F', 'I', 'B', 'D'};
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final int RECORD_SIZE = 13 * 4;
+  private static final int NULL_INT = Integer.MIN_VALUE;
+
+  private OutputStream out;
+  private byte[] buffer;
+  private int count;
+  private long position;
+  private ByteBuffer records;
+  private Map<String, Integer> stringMap;
+  private List<String> stringList;
+  private int elementCount;
+  private ObjectMapper om;
+
+  public FuzzerBinaryWriter(File file, String filename, String entryMethod, String listName)
+      throws IOException {
+    this(file, filename, entryMethod, listName, null);
+  }
+
+  /**
+   * Creates the writer and writes the header.
+   *
+   * @param file the .data.bin file to write
+   * @param filename the entry class name of the fuzzer
+   * @param entryMethod the entry method name of the fuzzer
+   * @param listName the name of the function list
+   * @param degradations the degradation steps applied to the analysis, or null if not recorded
+   */
+  public FuzzerBinaryWriter(
+      File file, String filename, String entryMethod, String listName, List<String> degradations)
+      throws IOException {
+    this.out = new FileOutputStream(file);
+    this.buffer = new byte[BUFFER_SIZE];
+    this.count = 0;
+    this.position = 0;
+    this.records = ByteBuffer.allocate(RECORD_SIZE * 1024);
+    this.stringMap = new HashMap<String, Integer>();
+    this.stringList = new ArrayList<String>();
+    this.stringList.add(null);
+    this.elementCount = 0;
+    this.om = new ObjectMapper();
+
+    this.writeBytes(MAGIC, 0, MAGIC.length);
+    this.writeInt(VERSION);
+    this.writeString(filename);
+    this.writeString(entryMethod);
+    this.writeString(listName);
+    if (degradations == null) {
+      this.writeVarint(0);
+    } else {
+      this.writeVarint(degradations.size() + 1);
+      for (String degradation : degradations) {
+        this.writeString(degradation);
+      }
+    }
+  }
+
+  public void writeFunctionElement(FunctionElement element) throws IOException {
+    String javaMethodInfo = null;
+    if (element.getJavaMethodInfo() != null) {
+      javaMethodInfo = this.om.writeValueAsString(element.getJavaMethodInfo());
+    }
+
+    if (this.records.remaining() < RECORD_SIZE) {
+      ByteBuffer records = ByteBuffer.allocate(this.records.capacity() * 2);
+      this.records.flip();
+      records.put(this.records);
+      this.records = records;
+    }
+    this.records.putInt(this.getStringIndex(element.getFunctionName()));
+    this.records.putInt(this.getStringIndex(element.getFunctionSourceFile()));
+    this.records.putInt(this.getStringIndex(element.getLinkageType()));
+    this.records.putInt(this.getStringIndex(element.getReturnType()));
+    this.records.putInt(this.getStringIndex(javaMethodInfo));
+    this.records.putInt(FuzzerBinaryWriter.toInt(element.getFunctionLinenumber()));
+    this.records.putInt(element.getFunctionDepth());
+    this.records.putInt(FuzzerBinaryWriter.toInt(element.getArgCount()));
+    this.records.putInt(element.getFunctionUses());
+    this.records.putInt(element.getiCount());
+    this.records.putInt(element.getEdgeCount());
+    this.records.putInt(element.getBBCount());
+    this.records.putInt(element.getCyclomaticComplexity());
+
+    this.writeStringList(element.getArgTypes());
+    this.writeStringList(element.getConstantsTouched());
+    this.writeStringList(element.getArgNames());
+    this.writeStringList(element.getFunctionsReached());
+
+    this.writeVarint(element.getBranchProfiles().size());
+    for (BranchProfile branchProfile : element.getBranchProfiles()) {
+      this.writeString(branchProfile.getBranchString());
+      this.writeVarint(branchProfile.getBranchSides().size());
+      for (BranchSide branchSide : branchProfile.getBranchSides()) {
+        this.writeString(branchSide.getBranchSideStr());
+        this.writeStringList(branchSide.getBranchSideFuncs());
+      }
+    }
+
+    this.writeVarint(element.getCallsites().size());
+    for (Callsite callsite : element.getCallsites()) {
+      this.writeString(callsite.getSource());
+      this.writeString(callsite.getMethodName());
+    }
+
+    this.elementCount++;
+  }
+
+  public void writeFunctionElements(Iterable<FunctionElement> elements) throws IOException {
+    for (FunctionElement element : elements) {
+      this.writeFunctionElement(element);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      long recordOffset = this.position;
+      this.writeBytes(this.records.array(), 0, this.records.position());
+      this.records = null;
+
+      long stringTableOffset = this.position;
+      List<byte[]> bytesList = new ArrayList<byte[]>(this.stringList.size());
+      for (int i = 1; i < this.stringList.size(); i++) {
+        bytesList.add(this.stringList.get(i).getBytes(StandardCharsets.UTF_8));
+      }
+      this.writeInt(bytesList.size());
+      for (byte[] bytes : bytesList) {
+        this.writeInt(bytes.length);
+      }
+      for (byte[] bytes : bytesList) {
+        this.writeBytes(bytes, 0, bytes.length);
+      }
+
+      this.writeLong(recordOffset);
+      this.writeLong(stringTableOffset);
+      this.writeInt(this.elementCount);
+      this.writeBytes(MAGIC, 0, MAGIC.length);
+      this.flushBuffer();
+    } finally {
+      this.out.close();
+    }
+  }
+
+  private int getStringIndex(String str) {
+    if (str == null) {
+      return 0;
+    }
+    Integer index = this.stringMap.get(str);
+    if (index == null) {
+      index = this.stringList.size();
+      this.stringList.add(str);
+      this.stringMap.put(str, index);
+    }
+    return index;
+  }
+
+  private void writeString(String str) throws IOException {
+    this.writeVarint(this.getStringIndex(str));
+  }
+
+  private void writeStringList(List<String> list) throws IOException {
+    this.writeVarint(list.size());
+    for (String str : list) {
+      this.writeString(str);
+    }
+  }
+
+  private void writeInt(int value) throws IOException {
+    this.ensureCapacity(4);
+    this.buffer[this.count++] = (byte) (value >>> 24);
+    this.buffer[this.count++] = (byte) (value >>> 16);
+    this.buffer[this.count++] = (byte) (value >>> 8);
+    this.buffer[this.count++] = (byte) value;
+    this.position += 4;
+  }
+
+  private void writeLong(long value) throws IOException {
+    this.writeInt((int) (value >>> 32));
+    this.writeInt((int) value);
+  }
+
+  private void writeVarint(int value) throws IOException {
+    // Unsigned LEB128, seven bits per byte with the high bit set on all but the last byte
+    this.ensureCapacity(5);
+    int start = this.count;
+    while ((value & ~0x7f) != 0) {
+      this.buffer[this.count++] = (byte) ((value & 0x7f) | 0x80);
+      value >>>= 7;
+    }
+    this.buffer[this.count++] = (byte) value;
+    this.position += this.count - start;
+  }
+
+  private void writeBytes(byte[] bytes, int offset, int length) throws IOException {
+    if (length > this.buffer.length - this.count) {
+      this.flushBuffer();
+      if (length > this.buffer.length) {
+        this.out.write(bytes, offset, length);
+        this.position += length;
+        return;
+      }
+    }
+    System.arraycopy(bytes, offset, this.buffer, this.count, length);
+    this.count += length;
+    this.position += length;
+  }
+
+  private void ensureCapacity(int size) throws IOException {
+    if (this.buffer.length - this.count < size) {
+      this.flushBuffer();
+    }
+  }
+
+  private void flushBuffer() throws IOException {
+    this.out.write(this.buffer, 0, this.count);
+    this.count = 0;
+  }
+
+  private static int toInt(Integer value) {
+    return (value == null) ? NULL_INT : value;
+  }
+}
@@ -0,0 +1,99 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.yaml;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Streaming writer for the .data.yaml output. It writes the same document as serialising a
+ * FuzzerConfig object, but each FunctionElement is written to a buffered stream directly instead of
+ * building the whole document as one string in memory.
+ */
+public class FuzzerConfigWriter implements Closeable {
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private ObjectMapper om;
+  private JsonGenerator generator;
+
+  public FuzzerConfigWriter(File file, String filename, String entryMethod, String listName)
+      throws IOException {
+    this(file, filename, entryMethod, listName, null);
+  }
+
+  /**
+   * Creates the writer and writes the document header.
+   *
+   * @param file the .data.yaml file to write
+   * @param filename the entry class name of the fuzzer
+   * @param entryMethod the entry method name of the fuzzer
+   * @param listName the name of the function list
+   * @param degradations the degradation steps applied to the analysis, written as an extra
+   *     "Degradations" list if not null
+   */
+  public FuzzerConfigWriter(
+      File file, String filename, String entryMethod, String listName, List<String> degradations)
+      throws IOException {
+    this.om = new ObjectMapper(new YAMLFactory());
+    this.om.disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    this.generator =
+        this.om.getFactory().createGenerator(new BufferedWriter(new FileWriter(file), BUFFER_SIZE));
+
+    // Same field names and order as FuzzerConfig and FunctionConfig
+    this.generator.writeStartObject();
+    this.generator.writeStringField("Fuzzer filename", filename);
+    this.generator.writeStringField("Fuzzing method", entryMethod);
+    if (degradations != null) {
+      this.generator.writeFieldName("Degradations");
+      this.generator.writeStartArray();
+      for (String degradation : degradations) {
+        this.generator.writeString(degradation);
+      }
+      this.generator.writeEndArray();
+    }
+    this.generator.writeFieldName("All functions");
+    this.generator.writeStartObject();
+    this.generator.writeStringField("Function list name", listName);
+    this.generator.writeFieldName("Elements");
+    this.generator.writeStartArray();
+  }
+
+  public void writeFunctionElement(FunctionElement element) throws IOException {
+    this.om.writeValue(this.generator, element);
+  }
+
+  public void writeFunctionElements(Iterable<FunctionElement> elements) throws IOException {
+    for (FunctionElement element : elements) {
+      this.writeFunctionElement(element);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.generator.writeEndArray();
+    this.generator.writeEndObject();
+    this.generator.writeEndObject();
+    this.generator.close();
+  }
+}
@@ -0,0 +1,150 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ossf.fuzz.introspector.soot.benchmark.CallGraphFixture;
+
+public class AnalysisDaemonTest {
+  @TempDir File tempDir;
+
+  private static JsonNode sendRequest(int port, String request) throws IOException {
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+      Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+      writer.write(request + "\n");
+      writer.flush();
+      BufferedReader reader =
+          new BufferedReader(
+              new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+      return new ObjectMapper().readTree(reader.readLine());
+    }
+  }
+
+  private static Thread startDaemon(ServerSocket serverSocket, int readTimeout) {
+    AnalysisDaemon daemon = new AnalysisDaemon(serverSocket);
+    daemon.setReadTimeout(readTimeout);
+    Thread thread =
+        new Thread(
+            () -> {
+              try {
+                daemon.serve();
+              } catch (IOException e) {
+                throw new RuntimeException(e);
+              }
+            });
+    thread.start();
+    return thread;
+  }
+
+  @Test
+  public void testRequests() {
+    assertTimeoutPreemptively(
+        Duration.ofSeconds(60),
+        () -> {
+          try (ServerSocket serverSocket =
+              new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            int port = serverSocket.getLocalPort();
+            Thread thread = startDaemon(serverSocket, 30000);
+
+            JsonNode response = sendRequest(port, "not json");
+            assertEquals(response.get("status").asText(), "failed");
+
+            // Too few arguments for CallGraphGenerator
+            response =
+                sendRequest(
+                    port, "{\"directory\": \"" + tempDir.getPath() + "\", \"args\": [\"a.jar\"]}");
+            assertEquals(response.get("status").asText(), "failed");
+
+            response = sendRequest(port, "{\"directory\": \"/nonexistent\", \"args\": []}");
+            assertEquals(response.get("status").asText(), "failed");
+            assertTrue(response.get("message").asText().startsWith("Invalid directory"));
+
+            response = sendRequest(port, "{\"command\": \"shutdown\"}");
+            assertEquals(response.get("status").asText(), "done");
+            thread.join();
+          }
+        });
+  }
+
+  @Test
+  public void testJob() throws IOException {
+    File classDirectory = CallGraphFixture.compileProject("tests/java/test6");
+    String[] args =
+        CallGraphGeneratorTest.createArgs(
+            classDirectory, String.join(":", CallGraphGeneratorTest.FUZZERS));
+    File daemonDirectory = new File(tempDir, "daemon");
+    File directDirectory = new File(tempDir, "direct");
+    daemonDirectory.mkdirs();
+    directDirectory.mkdirs();
+
+    try {
+      assertTimeoutPreemptively(
+          Duration.ofSeconds(300),
+          () -> {
+            try (ServerSocket serverSocket =
+                new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+              int port = serverSocket.getLocalPort();
+              Thread thread = startDaemon(serverSocket, 1000);
+
+              // A client never sending its request must not block the daemon
+              try (Socket idleSocket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+                ObjectMapper mapper = new ObjectMapper();
+                ObjectNode request = mapper.createObjectNode();
+                request.put("directory", daemonDirectory.getPath());
+                ArrayNode argArray = request.putArray("args");
+                for (String arg : args) {
+                  argArray.add(arg);
+                }
+                JsonNode response = sendRequest(port, mapper.writeValueAsString(request));
+                assertEquals(response.get("status").asText(), "done");
+              }
+
+              JsonNode response = sendRequest(port, "{\"command\": \"shutdown\"}");
+              assertEquals(response.get("status").asText(), "done");
+              thread.join();
+            }
+          });
+
+      // The daemon output is the same as the output of a direct run
+      assertTrue(CallGraphGenerator.run(args, directDirectory, null));
+      for (String fuzzer : CallGraphGeneratorTest.FUZZERS) {
+        CallGraphGeneratorTest.assertSameOutput(directDirectory, daemonDirectory, fuzzer);
+      }
+    } finally {
+      CallGraphFixture.deleteDirectory(classDirectory);
+    }
+  }
+}
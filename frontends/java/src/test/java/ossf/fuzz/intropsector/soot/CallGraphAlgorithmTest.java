@@ -0,0 +1,69 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import org.junit.jupiter.api.Test;
+import soot.PhaseOptions;
+import soot.options.Options;
+
+public class CallGraphAlgorithmTest {
+  @Test
+  public void testFromName() {
+    assertEquals(CallGraphAlgorithm.fromName("cha"), CallGraphAlgorithm.CHA);
+    assertEquals(CallGraphAlgorithm.fromName("Spark"), CallGraphAlgorithm.SPARK);
+    assertNull(CallGraphAlgorithm.fromName("pta"));
+  }
+
+  @Test
+  public void testSetSootOptions() {
+    soot.G.reset();
+    CallGraphAlgorithm.VTA.setSootOptions();
+    assertEquals(PhaseOptions.v().getPhaseOptions("cg.cha").get("enabled"), "false");
+    assertEquals(PhaseOptions.v().getPhaseOptions("cg.spark").get("enabled"), "true");
+    assertEquals(PhaseOptions.v().getPhaseOptions("cg.spark").get("vta"), "true");
+    assertEquals(PhaseOptions.v().getPhaseOptions("cg.spark").get("on-fly-cg"), "false");
+    assertEquals(Options.v().output_format(), Options.output_format_none);
+    assertTrue(new File(Options.v().output_dir()).isDirectory());
+
+    CallGraphAlgorithm.CHA.setSootOptions();
+    assertEquals(PhaseOptions.v().getPhaseOptions("cg.cha").get("enabled"), "true");
+    assertEquals(PhaseOptions.v().getPhaseOptions("cg.spark").get("enabled"), "false");
+    soot.G.reset();
+  }
+
+  @Test
+  public void testSwitchAlgorithm() {
+    // The budget fallback replaces VTA by RTA after the options are set
+    soot.G.reset();
+    CallGraphAlgorithm.VTA.setSootOptions();
+    CallGraphAlgorithm.RTA.setSootOptions();
+    assertEquals(PhaseOptions.v().getPhaseOptions("cg.spark").get("enabled"), "true");
+    assertEquals(PhaseOptions.v().getPhaseOptions("cg.spark").get("rta"), "true");
+    assertEquals(PhaseOptions.v().getPhaseOptions("cg.spark").get("vta"), "false");
+    assertEquals(PhaseOptions.v().getPhaseOptions("cg.spark").get("on-fly-cg"), "false");
+
+    CallGraphAlgorithm.SPARK.setSootOptions();
+    assertEquals(PhaseOptions.v().getPhaseOptions("cg.spark").get("rta"), "false");
+    assertEquals(PhaseOptions.v().getPhaseOptions("cg.spark").get("vta"), "false");
+    assertEquals(PhaseOptions.v().getPhaseOptions("cg.spark").get("on-fly-cg"), "true");
+    soot.G.reset();
+  }
+}
@@ -0,0 +1,130 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ossf.fuzz.introspector.soot.benchmark.CallGraphFixture;
+
+public class CallGraphGeneratorTest {
+  private static final String EXCLUDE_PREFIX =
+      "jdk.*:java.*:javax.*:sun.*:sunw.*:com.sun.*:com.ibm.*:com.apple.*:apple.awt.*:"
+          + "com.code_intelligence.jazzer.*";
+  static final String[] FUZZERS = {"Fuzz.TestFuzzer", "Fuzz.TestFuzzer2"};
+
+  private static File classDirectory;
+
+  @TempDir File tempDir;
+
+  @BeforeAll
+  public static void compileProject() throws IOException {
+    // Two fuzzers sharing the classes of the Function package
+    classDirectory = CallGraphFixture.compileProject("tests/java/test6");
+  }
+
+  @AfterAll
+  public static void deleteProject() throws IOException {
+    CallGraphFixture.deleteDirectory(classDirectory);
+  }
+
+  /**
+   * The method creates the arguments of CallGraphGenerator for the sample project compiled to the
+   * provided directory. Only the Function package is targeted, so the analysing scope of a fuzzer
+   * depends on the included classes.
+   */
+  static String[] createArgs(File directory, String entryClasses, String... options) {
+    String[] args = {
+      directory.getPath(),
+      entryClasses,
+      "fuzzerTestOneInput",
+      "Function",
+      "<clinit>:finalize:main",
+      "NULL",
+      "False",
+      "===" + EXCLUDE_PREFIX + "===[java.lang.Runtime].exec"
+    };
+    String[] allArgs = new String[args.length + options.length];
+    System.arraycopy(args, 0, allArgs, 0, args.length);
+    System.arraycopy(options, 0, allArgs, args.length, options.length);
+    return allArgs;
+  }
+
+  private static File runAnalysis(File outputDirectory, String entryClasses, String... options) {
+    outputDirectory.mkdirs();
+    assertTrue(
+        CallGraphGenerator.run(
+            createArgs(classDirectory, entryClasses, options), outputDirectory, null));
+    return outputDirectory;
+  }
+
+  static void assertSameOutput(File expectedDirectory, File actualDirectory, String fuzzer)
+      throws IOException {
+    for (String suffix : new String[] {".data", ".data.yaml"}) {
+      String name = "fuzzerLogFile-" + fuzzer + suffix;
+      assertArrayEquals(
+          Files.readAllBytes(new File(expectedDirectory, name).toPath()),
+          Files.readAllBytes(new File(actualDirectory, name).toPath()),
+          name);
+    }
+  }
+
+  @Test
+  public void testMultipleFuzzers() throws IOException {
+    File combined = runAnalysis(new File(tempDir, "combined"), String.join(":", FUZZERS));
+    for (String fuzzer : FUZZERS) {
+      File separate = runAnalysis(new File(tempDir, fuzzer), fuzzer);
+      assertSameOutput(separate, combined, fuzzer);
+    }
+  }
+
+  @Test
+  public void testThreadCount() throws IOException {
+    // The method processing in parallel must not change the output
+    File single =
+        runAnalysis(new File(tempDir, "single"), String.join(":", FUZZERS), "--threads=1");
+    File multiple =
+        runAnalysis(new File(tempDir, "multiple"), String.join(":", FUZZERS), "--threads=4");
+    for (String fuzzer : FUZZERS) {
+      assertSameOutput(single, multiple, fuzzer);
+    }
+  }
+
+  @Test
+  public void testPrescanDirectory() throws IOException {
+    // The sample project is a class directory, its classes must stay in the prescanned scope
+    File all = runAnalysis(new File(tempDir, "all"), String.join(":", FUZZERS));
+    File prescanned =
+        runAnalysis(new File(tempDir, "prescanned"), String.join(":", FUZZERS), "--prescan=true");
+    for (String fuzzer : FUZZERS) {
+      assertSameOutput(all, prescanned, fuzzer);
+    }
+
+    // The fuzzers and the Function class they call are all scanned
+    JsonNode metrics = new ObjectMapper().readTree(new File(prescanned, "callgraph-metrics.json"));
+    assertEquals(3, metrics.get("counters").get("prescannedClasses").asLong());
+  }
+}
@@ -0,0 +1,143 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.IterationParams;
+import ossf.fuzz.introspector.soot.CallGraphAlgorithm;
+import soot.PackManager;
+import soot.Scene;
+import soot.jimple.toolkits.callgraph.CallGraph;
+
+/**
+ * Compares the call graph construction algorithms on the sample fuzzers in tests/java and the
+ * auto-fuzz benchmark projects. Each iteration builds the call graph once on a freshly loaded
+ * scene, and reports the number of edges and the peak heap usage as secondary results next to the
+ * construction time. The test12 sample is left out as it needs the jazzer junit integration to
+ * compile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class CallGraphAlgorithmBenchmark {
+  @Param({
+    "tests/java/test1",
+    "tests/java/test2",
+    "tests/java/test3",
+    "tests/java/test4",
+    "tests/java/test5",
+    "tests/java/test6",
+    "tests/java/test7",
+    "tests/java/test8",
+    "tests/java/test9",
+    "tests/java/test10",
+    "tests/java/test11",
+    "tools/auto-fuzz/benchmark/jvm/benchmark1",
+    "tools/auto-fuzz/benchmark/jvm/benchmark2",
+    "tools/auto-fuzz/benchmark/jvm/benchmark3",
+    "tools/auto-fuzz/benchmark/jvm/benchmark4",
+    "tools/auto-fuzz/benchmark/jvm/benchmark5",
+    "tools/auto-fuzz/benchmark/jvm/benchmark6",
+    "tools/auto-fuzz/benchmark/jvm/benchmark7",
+    "tools/auto-fuzz/benchmark/jvm/benchmark8"
+  })
+  public String project;
+
+  @Param({"CHA", "RTA", "VTA", "SPARK"})
+  public String algorithm;
+
+  private File classDirectory;
+
+  /**
+   * Secondary results of the built call graphs. JMH sums event counters over the iterations, so
+   * each iteration only adds its share of the average.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class CallGraphCounters {
+    public double edges;
+    public double peakHeapMegabytes;
+    private int iterationCount;
+
+    @Setup(Level.Iteration)
+    public void reset(IterationParams params) {
+      this.edges = 0;
+      this.peakHeapMegabytes = 0;
+      this.iterationCount = params.getCount();
+    }
+
+    private void add(long edges, long peakHeapBytes) {
+      this.edges += (double) edges / this.iterationCount;
+      this.peakHeapMegabytes += (double) (peakHeapBytes >> 20) / this.iterationCount;
+    }
+  }
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    this.classDirectory = CallGraphFixture.compileProject(this.project);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    CallGraphFixture.deleteDirectory(this.classDirectory);
+  }
+
+  @Setup(Level.Iteration)
+  public void loadProject() {
+    CallGraphFixture.loadProject(this.classDirectory, CallGraphAlgorithm.fromName(this.algorithm));
+    System.gc();
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      pool.resetPeakUsage();
+    }
+  }
+
+  @Benchmark
+  public CallGraph buildCallGraph(CallGraphCounters counters) {
+    PackManager.v().getPack("cg").apply();
+    CallGraph callGraph = Scene.v().getCallGraph();
+
+    long peakHeap = 0;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        peakHeap += pool.getPeakUsage().getUsed();
+      }
+    }
+    counters.add(callGraph.size(), peakHeap);
+    return callGraph;
+  }
+}
@@ -0,0 +1,151 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ossf.fuzz.introspector.soot.utils.CalculationUtils;
+import ossf.fuzz.introspector.soot.utils.CalltreeUtils;
+import ossf.fuzz.introspector.soot.utils.CalltreeWriter;
+import ossf.fuzz.introspector.soot.utils.CsrCallGraph;
+import ossf.fuzz.introspector.soot.utils.EdgeUtils;
+import ossf.fuzz.introspector.soot.utils.FunctionLineIndex;
+import ossf.fuzz.introspector.soot.utils.MergedEdgeView;
+import ossf.fuzz.introspector.soot.utils.MethodRegistry;
+import ossf.fuzz.introspector.soot.yaml.FunctionConfig;
+import ossf.fuzz.introspector.soot.yaml.FunctionElement;
+import soot.SootMethod;
+
+/**
+ * Benchmarks of the call graph processing stages of SootSceneTransformer. Subclasses provide the
+ * call graph to run the stages on.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public abstract class CallGraphBenchmark {
+  protected CallGraphFixture fixture;
+
+  protected abstract CallGraphFixture createFixture() throws IOException;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    fixture = createFixture();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    fixture.close();
+  }
+
+  @Benchmark
+  public CsrCallGraph freezeCallGraph() {
+    return CsrCallGraph.fromCallGraph(fixture.getCallGraph(), new MethodRegistry());
+  }
+
+  @Benchmark
+  public void mergePolymorphism(Blackhole blackhole) {
+    MergedEdgeView mergedEdgeView = new MergedEdgeView(fixture.getCsrCallGraph());
+    for (SootMethod m : fixture.getMethodList()) {
+      blackhole.consume(
+          mergedEdgeView.getMergedEdges(m, fixture.getExcludeList(), fixture.getIncludeList()));
+    }
+  }
+
+  @Benchmark
+  public void updateOutgoingEdges(Blackhole blackhole) {
+    updateOutgoingEdges(new MergedEdgeView(fixture.getCsrCallGraph()), blackhole);
+  }
+
+  @Benchmark
+  public void extractCallTree() throws IOException {
+    extractCallTree(new MergedEdgeView(fixture.getCsrCallGraph()));
+  }
+
+  /** Runs both consumers of the merged edges on the same view, as SootSceneTransformer does. */
+  @Benchmark
+  public void updateOutgoingEdgesAndExtractCallTree(Blackhole blackhole) throws IOException {
+    MergedEdgeView mergedEdgeView = new MergedEdgeView(fixture.getCsrCallGraph());
+    updateOutgoingEdges(mergedEdgeView, blackhole);
+    extractCallTree(mergedEdgeView);
+  }
+
+  @Benchmark
+  public FunctionConfig calculateAllCallDepth() {
+    CalculationUtils.calculateAllCallDepth(fixture.getFunctionConfig());
+    return fixture.getFunctionConfig();
+  }
+
+  private void updateOutgoingEdges(MergedEdgeView mergedEdgeView, Blackhole blackhole) {
+    for (SootMethod m : fixture.getMethodList()) {
+      FunctionElement element = new FunctionElement();
+      EdgeUtils.updateOutgoingEdges(
+          mergedEdgeView,
+          m,
+          element,
+          fixture.getIncludeList(),
+          fixture.getExcludeList(),
+          fixture.getExcludeMethodList(),
+          new FunctionLineIndex());
+      blackhole.consume(element);
+    }
+  }
+
+  private void extractCallTree(MergedEdgeView mergedEdgeView) throws IOException {
+    CalltreeUtils.setBaseData(
+        fixture.getIncludeList(),
+        fixture.getExcludeList(),
+        fixture.getExcludeMethodList(),
+        new HashMap<String, Set<String>>());
+    try (CalltreeWriter writer = new CalltreeWriter(new NullWriter())) {
+      CalltreeUtils.extractCallTree(writer, mergedEdgeView, fixture.getEntryMethod(), 0, -1);
+    }
+  }
+
+  /** Writer discarding all output, so only the call tree extraction itself is measured. */
+  private static class NullWriter extends Writer {
+    @Override
+    public void write(char[] buffer, int offset, int length) {}
+
+    @Override
+    public void write(String str) {}
+
+    @Override
+    public void flush() {}
+
+    @Override
+    public void close() {}
+  }
+}
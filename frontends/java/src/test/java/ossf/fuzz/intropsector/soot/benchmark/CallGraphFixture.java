@@ -0,0 +1,328 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.benchmark;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import ossf.fuzz.introspector.soot.CallGraphAlgorithm;
+import ossf.fuzz.introspector.soot.CallGraphGenerator;
+import ossf.fuzz.introspector.soot.utils.CsrCallGraph;
+import ossf.fuzz.introspector.soot.utils.MethodRegistry;
+import ossf.fuzz.introspector.soot.yaml.Callsite;
+import ossf.fuzz.introspector.soot.yaml.FunctionConfig;
+import ossf.fuzz.introspector.soot.yaml.FunctionElement;
+import soot.Kind;
+import soot.Modifier;
+import soot.PackManager;
+import soot.Scene;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.Type;
+import soot.VoidType;
+import soot.jimple.Jimple;
+import soot.jimple.Stmt;
+import soot.jimple.toolkits.callgraph.CallGraph;
+import soot.jimple.toolkits.callgraph.Edge;
+import soot.tagkit.LineNumberTag;
+
+/**
+ * Call graph and derived data used by the benchmarks. The call graph is either built by Soot from
+ * the sources of a sample project, or generated synthetically with a given number of edges.
+ */
+public class CallGraphFixture implements Closeable {
+  // Benchmarks are run from frontends/java, sample projects are given relative to the repo root
+  private static final String ROOT_DIRECTORY = "../..";
+
+  private static final List<String> EXCLUDE_LIST =
+      Arrays.asList(
+          "jdk.*",
+          "java.*",
+          "javax.*",
+          "sun.*",
+          "sunw.*",
+          "com.sun.*",
+          "com.ibm.*",
+          "com.apple.*",
+          "apple.awt.*",
+          "com.code_intelligence.jazzer.*");
+  private static final List<String> EXCLUDE_METHOD_LIST =
+      Arrays.asList("<clinit>", "finalize", "main");
+
+  private CallGraph callGraph;
+  private CsrCallGraph csrCallGraph;
+  private SootMethod entryMethod;
+  private List<SootMethod> methodList;
+  private FunctionConfig functionConfig;
+  private File classDirectory;
+
+  private CallGraphFixture(CallGraph callGraph, SootMethod entryMethod, File classDirectory) {
+    this.callGraph = callGraph;
+    this.entryMethod = entryMethod;
+    this.classDirectory = classDirectory;
+
+    // All methods with outgoing edges, in the order of the call graph
+    Set<SootMethod> methodSet = new LinkedHashSet<SootMethod>();
+    Iterator<Edge> it = callGraph.iterator();
+    while (it.hasNext()) {
+      methodSet.add(it.next().src());
+    }
+    this.methodList = new ArrayList<SootMethod>(methodSet);
+    this.functionConfig = CallGraphFixture.createFunctionConfig(callGraph, this.methodList);
+    this.csrCallGraph = CsrCallGraph.fromCallGraph(callGraph, new MethodRegistry());
+  }
+
+  /**
+   * The method compiles the sources of a sample project and builds its call graph with Soot. The
+   * fuzzerTestOneInput methods are used as entry points. Projects without fuzzers use all public
+   * methods of their classes instead.
+   *
+   * @param project the directory of the sample project, relative to the repository root
+   * @return the CallGraphFixture object of the project
+   */
+  public static CallGraphFixture fromProject(String project) throws IOException {
+    File classDirectory = CallGraphFixture.compileProject(project);
+    List<SootMethod> entryPoints =
+        CallGraphFixture.loadProject(classDirectory, CallGraphAlgorithm.CHA);
+    PackManager.v().getPack("cg").apply();
+
+    return new CallGraphFixture(Scene.v().getCallGraph(), entryPoints.get(0), classDirectory);
+  }
+
+  /**
+   * The method compiles the sources of a sample project to a new temporary directory.
+   *
+   * @param project the directory of the sample project, relative to the repository root
+   * @return the directory storing the compiled classes
+   */
+  public static File compileProject(String project) throws IOException {
+    File projectDirectory = new File(ROOT_DIRECTORY, project);
+    File classDirectory = Files.createTempDirectory("benchmark").toFile();
+
+    List<File> sourceList;
+    try (Stream<Path> stream = Files.walk(projectDirectory.toPath())) {
+      sourceList =
+          stream
+              .filter(path -> path.toString().endsWith(".java"))
+              .map(Path::toFile)
+              .collect(Collectors.toList());
+    }
+
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null)) {
+      List<String> options =
+          Arrays.asList(
+              "-d",
+              classDirectory.getPath(),
+              "-classpath",
+              System.getProperty("java.class.path"),
+              "-proc:none",
+              "-nowarn");
+      if (!compiler
+          .getTask(
+              null,
+              fileManager,
+              null,
+              options,
+              null,
+              fileManager.getJavaFileObjectsFromFiles(sourceList))
+          .call()) {
+        throw new IOException("Failed to compile " + projectDirectory);
+      }
+    }
+    return classDirectory;
+  }
+
+  /**
+   * The method loads the compiled classes of a sample project into a new Soot scene and sets the
+   * entry points, so that the cg pack is ready to be applied.
+   *
+   * @param classDirectory the directory storing the compiled classes
+   * @param algorithm the call graph construction algorithm to use
+   * @return the list of entry points
+   */
+  public static List<SootMethod> loadProject(File classDirectory, CallGraphAlgorithm algorithm) {
+    soot.G.reset();
+    CallGraphGenerator.setSootOptions(
+        Collections.singletonList(classDirectory.getPath()),
+        new LinkedList<String>(),
+        EXCLUDE_LIST);
+    algorithm.setSootOptions();
+    Scene.v().loadNecessaryClasses();
+
+    List<SootMethod> entryPoints = new ArrayList<SootMethod>();
+    List<SootMethod> publicMethods = new ArrayList<SootMethod>();
+    for (SootClass c : Scene.v().getApplicationClasses()) {
+      for (SootMethod m : c.getMethods()) {
+        if (m.getName().equals("fuzzerTestOneInput")) {
+          entryPoints.add(m);
+        } else if (m.isPublic() && m.isConcrete()) {
+          publicMethods.add(m);
+        }
+      }
+    }
+    if (entryPoints.isEmpty()) {
+      entryPoints = publicMethods;
+    }
+    Scene.v().setEntryPoints(entryPoints);
+    return entryPoints;
+  }
+
+  /**
+   * The method generates a random call graph with the given number of edges. Half of the methods
+   * are leaves, and a quarter of the call sites are polymorphic calls to methods with the same name
+   * in different classes, so the merging of polymorphic calls is exercised as well.
+   *
+   * @param edgeCount the number of edges of the call graph
+   * @return the CallGraphFixture object of the synthetic call graph
+   */
+  public static CallGraphFixture fromSyntheticGraph(int edgeCount) {
+    soot.G.reset();
+    Random random = new Random(0);
+
+    int methodCount = Math.max(edgeCount / 4, 4);
+    int classCount = (int) Math.sqrt(methodCount);
+    SootClass[] classes = new SootClass[classCount];
+    for (int i = 0; i < classCount; i++) {
+      classes[i] = new SootClass("synthetic.pkg" + (i % 10) + ".Class" + i, Modifier.PUBLIC);
+      Scene.v().addClass(classes[i]);
+      classes[i].setApplicationClass();
+    }
+
+    // Methods with the same name are placed in consecutive classes
+    SootMethod[] methods = new SootMethod[methodCount];
+    for (int i = 0; i < methodCount; i++) {
+      methods[i] =
+          new SootMethod(
+              "method" + (i / classCount),
+              Collections.<Type>emptyList(),
+              VoidType.v(),
+              Modifier.PUBLIC);
+      classes[i % classCount].addMethod(methods[i]);
+    }
+
+    CallGraph callGraph = new CallGraph();
+    int edges = 0;
+    while (edges < edgeCount) {
+      SootMethod src = methods[2 * random.nextInt(methodCount / 2)];
+      Stmt stmt = Jimple.v().newNopStmt();
+      stmt.addTag(new LineNumberTag(1 + random.nextInt(1000)));
+
+      if (random.nextInt(4) == 0) {
+        int base = random.nextInt(methodCount - 3);
+        base -= base % classCount;
+        for (int i = 0; i < 3 && edges < edgeCount; i++, edges++) {
+          callGraph.addEdge(new Edge(src, stmt, methods[base + i], Kind.VIRTUAL));
+        }
+      } else {
+        callGraph.addEdge(new Edge(src, stmt, methods[random.nextInt(methodCount)], Kind.STATIC));
+        edges++;
+      }
+    }
+
+    return new CallGraphFixture(callGraph, methods[0], null);
+  }
+
+  public CallGraph getCallGraph() {
+    return callGraph;
+  }
+
+  public CsrCallGraph getCsrCallGraph() {
+    return csrCallGraph;
+  }
+
+  public SootMethod getEntryMethod() {
+    return entryMethod;
+  }
+
+  public List<SootMethod> getMethodList() {
+    return methodList;
+  }
+
+  public FunctionConfig getFunctionConfig() {
+    return functionConfig;
+  }
+
+  public List<String> getIncludeList() {
+    return new LinkedList<String>();
+  }
+
+  public List<String> getExcludeList() {
+    return EXCLUDE_LIST;
+  }
+
+  public List<String> getExcludeMethodList() {
+    return EXCLUDE_METHOD_LIST;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (this.classDirectory != null) {
+      CallGraphFixture.deleteDirectory(this.classDirectory);
+    }
+  }
+
+  /**
+   * The method deletes a directory of compiled classes with all its content.
+   *
+   * @param directory the directory to delete
+   */
+  public static void deleteDirectory(File directory) throws IOException {
+    try (Stream<Path> stream = Files.walk(directory.toPath())) {
+      for (Path path : stream.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  private static FunctionConfig createFunctionConfig(
+      CallGraph callGraph, List<SootMethod> methodList) {
+    FunctionConfig functionConfig = new FunctionConfig();
+    for (SootMethod m : methodList) {
+      FunctionElement element = new FunctionElement();
+      element.setFunctionName(CallGraphFixture.getFunctionName(m));
+      Iterator<Edge> it = callGraph.edgesOutOf(m);
+      while (it.hasNext()) {
+        Callsite callsite = new Callsite();
+        callsite.setMethodName(CallGraphFixture.getFunctionName(it.next().tgt()));
+        element.addCallsite(callsite);
+      }
+      functionConfig.addFunctionElement(element);
+    }
+    return functionConfig;
+  }
+
+  private static String getFunctionName(SootMethod m) {
+    return "[" + m.getDeclaringClass().getName() + "]." + m.getSubSignature().split(" ")[1];
+  }
+}
@@ -0,0 +1,266 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.benchmark;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.StringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ossf.fuzz.introspector.soot.utils.CalltreeWriter;
+import ossf.fuzz.introspector.soot.utils.MergeUtils;
+import ossf.fuzz.introspector.soot.utils.MethodRegistry;
+import ossf.fuzz.introspector.soot.utils.PrefixMatcher;
+import soot.IntType;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.Type;
+import soot.VoidType;
+
+/**
+ * Compares the per line work of CalltreeUtils.extractCallTree with CalltreeWriter against the
+ * previous per line FileWriter path. Both benchmarks resolve the printed class name of each line
+ * from the merged class names of its call, check the class name against the exclude prefixes and
+ * write the line, the same way as the respective version of extractCallTree. The traversal of the
+ * call graph is left out, as it changed independently of the writing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CalltreeWriterBenchmark {
+  private static final List<String> EXCLUDE_LIST =
+      Arrays.asList(
+          "jdk.*",
+          "java.*",
+          "javax.*",
+          "sun.*",
+          "sunw.*",
+          "com.sun.*",
+          "com.ibm.*",
+          "com.apple.*",
+          "apple.awt.*",
+          "com.code_intelligence.jazzer.*");
+  private static final List<String> EXCLUDE_METHOD_LIST =
+      Arrays.asList("<clinit>", "finalize", "main");
+
+  @Param({"100000", "1000000"})
+  public int lineCount;
+
+  private SootMethod[] methods;
+  private MethodRegistry methodRegistry;
+  private int[] methodIds;
+  private int[] methodIndexes;
+  private String[] callerClasses;
+  private int[] depths;
+  private int[] lines;
+  private Map<String, Set<String>> legacyEdgeClassMap;
+  private Map<String, String> edgeClassMap;
+  private PrefixMatcher excludeMatcher;
+  private Map<String, Set<String>> sinkMethodMap;
+  private File file;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    Random random = new Random(0);
+
+    SootClass[] classes = new SootClass[200];
+    for (int i = 0; i < classes.length; i++) {
+      classes[i] = new SootClass("org.example.pkg" + (i % 50) + ".Class" + i);
+    }
+    methods = new SootMethod[1000];
+    methodRegistry = new MethodRegistry();
+    methodIds = new int[methods.length];
+    for (int i = 0; i < methods.length; i++) {
+      methods[i] =
+          new SootMethod("method" + i, Collections.<Type>nCopies(i % 4, IntType.v()), VoidType.v());
+      classes[i % classes.length].addMethod(methods[i]);
+      methodIds[i] = methodRegistry.getId(methods[i]);
+    }
+
+    // Every 20th call is a merged polymorphic call to a second class
+    methodIndexes = new int[lineCount];
+    callerClasses = new String[lineCount];
+    depths = new int[lineCount];
+    lines = new int[lineCount];
+    legacyEdgeClassMap = new HashMap<String, Set<String>>();
+    edgeClassMap = new HashMap<String, String>();
+    for (int i = 0; i < lineCount; i++) {
+      methodIndexes[i] = random.nextInt(methods.length);
+      callerClasses[i] = classes[random.nextInt(classes.length)].getName();
+      depths[i] = random.nextInt(40);
+      lines[i] = random.nextInt(5000) - 1;
+      if (i % 20 == 0) {
+        SootMethod method = methods[methodIndexes[i]];
+        Set<String> classNameSet = new HashSet<String>();
+        classNameSet.add(method.getDeclaringClass().getName());
+        classNameSet.add("org.example.pkg0.Other");
+        String key = callerClasses[i] + ":" + method.getName() + ":" + lines[i];
+        legacyEdgeClassMap.put(key, classNameSet);
+        edgeClassMap.put(key, MergeUtils.mergeClassName(classNameSet));
+      }
+    }
+    excludeMatcher = new PrefixMatcher(EXCLUDE_LIST);
+    sinkMethodMap = new HashMap<String, Set<String>>();
+
+    file = File.createTempFile("calltree", ".data");
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    file.delete();
+  }
+
+  @Benchmark
+  public void legacyFileWriter() throws IOException {
+    try (FileWriter fw = new FileWriter(file)) {
+      fw.write("Call tree\n");
+      for (int i = 0; i < lineCount; i++) {
+        SootMethod method = methods[methodIndexes[i]];
+        int line = lines[i];
+        // The previous code allocated this builder for every line without using it
+        StringBuilder callTree = new StringBuilder();
+
+        if (EXCLUDE_METHOD_LIST.contains(method.getName())) {
+          continue;
+        }
+
+        // Interpret the class name to be printed
+        Set<String> classNameSet =
+            new HashSet<String>(
+                legacyEdgeClassMap.getOrDefault(
+                    callerClasses[i] + ":" + method.getName() + ":" + line,
+                    Collections.emptySet()));
+        String className = MergeUtils.mergeClassName(classNameSet);
+        boolean merged = false;
+        for (String name : className.split(":")) {
+          if (name.equals(method.getDeclaringClass().getName())) {
+            merged = true;
+            break;
+          }
+        }
+        if (!merged) {
+          className = method.getDeclaringClass().getName();
+        }
+
+        String methodName = method.getSubSignature().split(" ")[1];
+        String calltreeLine =
+            StringUtils.leftPad("", depths[i] * 2)
+                + methodName
+                + " "
+                + className
+                + " linenumber="
+                + line
+                + "\n";
+
+        // Handle excluded or sink methods
+        boolean excluded = false;
+        boolean sink = false;
+        checkExclusionLoop:
+        for (String cl : className.split(":")) {
+          for (String prefix : EXCLUDE_LIST) {
+            if (cl.startsWith(prefix.replace("*", ""))) {
+              if (sinkMethodMap
+                  .getOrDefault(cl, Collections.emptySet())
+                  .contains(method.getName())) {
+                sink = true;
+              }
+              excluded = true;
+              break checkExclusionLoop;
+            }
+          }
+        }
+
+        if (!excluded || sink) {
+          fw.write(calltreeLine);
+        }
+      }
+    }
+  }
+
+  @Benchmark
+  public void calltreeWriter() throws IOException {
+    try (CalltreeWriter writer = new CalltreeWriter(file)) {
+      writer.writeHeader();
+      for (int i = 0; i < lineCount; i++) {
+        SootMethod method = methods[methodIndexes[i]];
+        int id = methodIds[methodIndexes[i]];
+        int line = lines[i];
+
+        if (EXCLUDE_METHOD_LIST.contains(method.getName())) {
+          continue;
+        }
+
+        // Interpret the class name to be printed
+        String declaringClassName = methodRegistry.getClassName(id);
+        String className = declaringClassName;
+        String mergedClassName =
+            edgeClassMap.get(callerClasses[i] + ":" + method.getName() + ":" + line);
+        if (mergedClassName != null
+            && MergeUtils.containsClassName(mergedClassName, declaringClassName)) {
+          className = mergedClassName;
+        }
+
+        // Handle excluded or sink methods
+        boolean excluded = false;
+        boolean sink = false;
+        int start = 0;
+        while (start <= className.length()) {
+          int end = className.indexOf(':', start);
+          if (end == -1) {
+            end = className.length();
+          }
+          if (excludeMatcher.match(className, start, end) != 0) {
+            String cl = className.substring(start, end);
+            if (sinkMethodMap.getOrDefault(cl, Collections.emptySet()).contains(method.getName())) {
+              sink = true;
+            }
+            excluded = true;
+            break;
+          }
+          start = end + 1;
+        }
+
+        if (!excluded || sink) {
+          writer.writeLine(depths[i], methodRegistry.getMethodName(id), className, line);
+        }
+      }
+    }
+  }
+}
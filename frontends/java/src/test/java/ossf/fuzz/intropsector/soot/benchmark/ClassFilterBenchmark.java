@@ -0,0 +1,154 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ossf.fuzz.introspector.soot.utils.PrefixMatcher;
+
+/**
+ * Compares classifying class names against the include, exclude and target package lists with
+ * PrefixMatcher against the previous per prefix startsWith loops of
+ * SootSceneTransformer.generateClassMethodMap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClassFilterBenchmark {
+  private static final List<String> EXCLUDE_LIST =
+      Arrays.asList(
+          "jdk.*",
+          "java.*",
+          "javax.*",
+          "sun.*",
+          "sunw.*",
+          "com.sun.*",
+          "com.ibm.*",
+          "com.apple.*",
+          "apple.awt.*",
+          "com.code_intelligence.jazzer.*");
+  private static final List<String> INCLUDE_LIST =
+      Arrays.asList("org.example.fuzz.", "org.example.FuzzerA", "org.example.FuzzerB");
+  private static final List<String> TARGET_PACKAGE_LIST =
+      Arrays.asList("org.example.", "com.example.core.", "io.example.");
+  private static final String[] PACKAGES = {
+    "java.util.",
+    "java.util.concurrent.",
+    "javax.xml.parsers.",
+    "jdk.internal.misc.",
+    "sun.nio.ch.",
+    "com.sun.org.apache.xerces.internal.impl.",
+    "org.example.",
+    "org.example.fuzz.",
+    "org.apache.commons.lang3.",
+    "com.example.core.",
+    "com.google.common.collect.",
+    "io.example.net."
+  };
+
+  @Param({"50000", "200000"})
+  public int classCount;
+
+  private String[] classNames;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    Random random = new Random(0);
+    classNames = new String[classCount];
+    for (int i = 0; i < classCount; i++) {
+      classNames[i] = PACKAGES[random.nextInt(PACKAGES.length)] + "Class" + i;
+      if (i % 5 == 0) {
+        classNames[i] += "$Inner" + (i % 7);
+      }
+    }
+  }
+
+  @Benchmark
+  public int legacyStartsWith() {
+    int count = 0;
+    for (String cname : classNames) {
+      boolean isInclude = false;
+      boolean isIgnore = false;
+      for (String prefix : INCLUDE_LIST) {
+        if (cname.startsWith(prefix.replace("*", ""))) {
+          isInclude = true;
+          break;
+        }
+      }
+      if (!isInclude) {
+        for (String prefix : EXCLUDE_LIST) {
+          if (cname.startsWith(prefix.replace("*", ""))) {
+            isIgnore = true;
+            break;
+          }
+        }
+      }
+      if (!isIgnore && !isInclude) {
+        boolean targetPackage = false;
+        for (String prefix : TARGET_PACKAGE_LIST) {
+          if (cname.startsWith(prefix.replace("*", ""))) {
+            targetPackage = true;
+            break;
+          }
+        }
+        isIgnore = !targetPackage;
+      }
+      if (!isIgnore) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @Benchmark
+  public int prefixMatcher() {
+    PrefixMatcher matcher = new PrefixMatcher();
+    matcher.addPrefixes(INCLUDE_LIST, 1);
+    matcher.addPrefixes(EXCLUDE_LIST, 2);
+    matcher.addPrefixes(TARGET_PACKAGE_LIST, 4);
+
+    int count = 0;
+    for (String cname : classNames) {
+      int match = matcher.match(cname);
+      boolean isInclude = (match & 1) != 0;
+      boolean isIgnore = !isInclude && (match & 2) != 0;
+      if (!isIgnore && !isInclude) {
+        isIgnore = (match & 4) == 0;
+      }
+      if (!isIgnore) {
+        count++;
+      }
+    }
+    return count;
+  }
+}
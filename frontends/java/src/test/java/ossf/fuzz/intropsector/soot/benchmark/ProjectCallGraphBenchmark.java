@@ -0,0 +1,57 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.benchmark;
+
+import java.io.IOException;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Runs the call graph benchmarks on the call graphs of the sample fuzzers in tests/java and the
+ * auto-fuzz benchmark projects. The test12 sample is left out as it needs the jazzer junit
+ * integration to compile.
+ */
+@State(Scope.Benchmark)
+public class ProjectCallGraphBenchmark extends CallGraphBenchmark {
+  @Param({
+    "tests/java/test1",
+    "tests/java/test2",
+    "tests/java/test3",
+    "tests/java/test4",
+    "tests/java/test5",
+    "tests/java/test6",
+    "tests/java/test7",
+    "tests/java/test8",
+    "tests/java/test9",
+    "tests/java/test10",
+    "tests/java/test11",
+    "tools/auto-fuzz/benchmark/jvm/benchmark1",
+    "tools/auto-fuzz/benchmark/jvm/benchmark2",
+    "tools/auto-fuzz/benchmark/jvm/benchmark3",
+    "tools/auto-fuzz/benchmark/jvm/benchmark4",
+    "tools/auto-fuzz/benchmark/jvm/benchmark5",
+    "tools/auto-fuzz/benchmark/jvm/benchmark6",
+    "tools/auto-fuzz/benchmark/jvm/benchmark7",
+    "tools/auto-fuzz/benchmark/jvm/benchmark8"
+  })
+  public String project;
+
+  @Override
+  protected CallGraphFixture createFixture() throws IOException {
+    return CallGraphFixture.fromProject(project);
+  }
+}
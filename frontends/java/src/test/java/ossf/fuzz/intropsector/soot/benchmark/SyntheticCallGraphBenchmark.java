@@ -0,0 +1,32 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.benchmark;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/** Runs the call graph benchmarks on generated call graphs of increasing size. */
+@State(Scope.Benchmark)
+public class SyntheticCallGraphBenchmark extends CallGraphBenchmark {
+  @Param({"10000", "100000", "1000000"})
+  public int edgeCount;
+
+  @Override
+  protected CallGraphFixture createFixture() {
+    return CallGraphFixture.fromSyntheticGraph(edgeCount);
+  }
+}
@@ -0,0 +1,178 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ossf.fuzz.introspector.soot.yaml.Callsite;
+
+public class AnalysisCacheTest {
+  private static final String SIGNATURE = "<a.B: void run()>";
+
+  @TempDir File tempDir;
+
+  private File createJar(String name, String content) throws IOException {
+    return createJar(name, "a/B.class", content);
+  }
+
+  private File createJar(String name, String... classes) throws IOException {
+    File jar = new File(tempDir, name);
+    try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar))) {
+      for (int i = 0; i < classes.length; i += 2) {
+        out.putNextEntry(new ZipEntry(classes[i]));
+        out.write(classes[i + 1].getBytes());
+        out.closeEntry();
+      }
+    }
+    return jar;
+  }
+
+  private static MethodFacts createFacts() {
+    Callsite callsite = new Callsite();
+    callsite.setSource("a.B:10,1");
+    callsite.setMethodName("[a.C].call");
+
+    BranchFacts branch = new BranchFacts();
+    branch.setBranchString("a.B:9");
+    branch.addSide(new BranchFacts.Side("a.B:12", 10, 11));
+
+    MethodFacts facts = new MethodFacts();
+    facts.setHasBody(true);
+    facts.setFunctionLinenumber(8);
+    facts.setBbCount(3);
+    facts.setiCount(7);
+    facts.setComplexity(2);
+    facts.setCallsites(Arrays.asList(callsite));
+    facts.addBranch(branch);
+    facts.addReachedSinkMethod("<java.lang.Runtime: java.lang.Process exec(java.lang.String)>");
+    facts.setDependencies(Arrays.asList("a.C"));
+    return facts;
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    File cacheDir = new File(tempDir, "cache");
+    File jar = createJar("test.jar", "v1");
+
+    AnalysisCache cache = new AnalysisCache(cacheDir, Arrays.asList(jar.getPath()), "options");
+    assertNull(cache.getMethodFacts("a.B", SIGNATURE));
+    cache.putMethodFacts("a.B", SIGNATURE, createFacts());
+    cache.putMethodFacts("x.Unknown", SIGNATURE, createFacts());
+    cache.save();
+
+    cache = new AnalysisCache(cacheDir, Arrays.asList(jar.getPath()), "options");
+    MethodFacts facts = cache.getMethodFacts("a.B", SIGNATURE);
+    assertEquals(facts.getHasBody(), true);
+    assertEquals(facts.getFunctionLinenumber(), 8);
+    assertEquals(facts.getBbCount(), 3);
+    assertEquals(facts.getiCount(), 7);
+    assertEquals(facts.getComplexity(), 2);
+    assertEquals(facts.getCallsites().get(0).getSource(), "a.B:10,1");
+    assertEquals(facts.getCallsites().get(0).getMethodName(), "[a.C].call");
+    assertEquals(facts.getBranches().get(0).getBranchString(), "a.B:9");
+    assertEquals(facts.getBranches().get(0).getSides().get(0).getBranchSideStr(), "a.B:12");
+    assertEquals(facts.getBranches().get(0).getSides().get(0).getStart(), 10);
+    assertEquals(facts.getBranches().get(0).getSides().get(0).getEnd(), 11);
+    assertEquals(facts.getReachedSinkMethods().size(), 1);
+    assertEquals(facts.getDependencies(), Arrays.asList("a.C"));
+    assertNull(cache.getMethodFacts("x.Unknown", SIGNATURE));
+  }
+
+  @Test
+  public void testInvalidation() throws IOException {
+    File cacheDir = new File(tempDir, "cache");
+    File jar = createJar("test.jar", "v1");
+
+    AnalysisCache cache = new AnalysisCache(cacheDir, Arrays.asList(jar.getPath()), "options");
+    cache.putMethodFacts("a.B", SIGNATURE, createFacts());
+    cache.save();
+
+    // Different analysis options
+    cache = new AnalysisCache(cacheDir, Arrays.asList(jar.getPath()), "other");
+    assertNull(cache.getMethodFacts("a.B", SIGNATURE));
+
+    // Different jar content
+    jar = createJar("test.jar", "v2");
+    cache = new AnalysisCache(cacheDir, Arrays.asList(jar.getPath()), "options");
+    assertNull(cache.getMethodFacts("a.B", SIGNATURE));
+  }
+
+  @Test
+  public void testDependencies() throws IOException {
+    File cacheDir = new File(tempDir, "cache");
+    File jar = createJar("test.jar", "a/B.class", "b1", "a/D.class", "d1");
+    File libJar = createJar("lib.jar", "a/C.class", "c1", "a/E.class", "e1");
+    String dSignature = "<a.D: void run()>";
+    MethodFacts dFacts = createFacts();
+    dFacts.setDependencies(Arrays.asList("a.E"));
+
+    AnalysisCache cache =
+        new AnalysisCache(cacheDir, Arrays.asList(jar.getPath(), libJar.getPath()), "options");
+    cache.putMethodFacts("a.B", SIGNATURE, createFacts());
+    cache.putMethodFacts("a.D", dSignature, dFacts);
+    cache.save();
+
+    // Only the classes depending on the changed class of the other jar are analysed again
+    libJar = createJar("lib.jar", "a/C.class", "c2", "a/E.class", "e1");
+    cache = new AnalysisCache(cacheDir, Arrays.asList(jar.getPath(), libJar.getPath()), "options");
+    assertNull(cache.getMethodFacts("a.B", SIGNATURE));
+    assertEquals(cache.getMethodFacts("a.D", dSignature).getBbCount(), 3);
+    cache.putMethodFacts("a.B", SIGNATURE, createFacts());
+    cache.save();
+
+    // Removing a class also invalidates its dependents
+    libJar = createJar("lib.jar", "a/C.class", "c2");
+    cache = new AnalysisCache(cacheDir, Arrays.asList(jar.getPath(), libJar.getPath()), "options");
+    assertEquals(cache.getMethodFacts("a.B", SIGNATURE).getBbCount(), 3);
+    assertNull(cache.getMethodFacts("a.D", dSignature));
+  }
+
+  @Test
+  public void testEntryPool() throws IOException {
+    File jar = createJar("test.jar", "v1");
+    File otherJar = createJar("other.jar", "v3");
+    Map<String, CacheEntry> entryPool = new HashMap<String, CacheEntry>();
+
+    // Without a cache directory the entries are only kept in the pool
+    AnalysisCache cache =
+        new AnalysisCache(null, Arrays.asList(jar.getPath()), "options", entryPool);
+    cache.putMethodFacts("a.B", SIGNATURE, createFacts());
+    cache.save();
+    assertEquals(entryPool.size(), 1);
+
+    cache = new AnalysisCache(null, Arrays.asList(jar.getPath()), "options", entryPool);
+    assertEquals(cache.getMethodFacts("a.B", SIGNATURE).getBbCount(), 3);
+    cache = new AnalysisCache(null, Arrays.asList(jar.getPath()), "other", entryPool);
+    assertNull(cache.getMethodFacts("a.B", SIGNATURE));
+
+    // Only the entries of the jar files of the last cache are kept
+    cache = new AnalysisCache(null, Arrays.asList(otherJar.getPath()), "options", entryPool);
+    assertEquals(entryPool.size(), 1);
+    cache = new AnalysisCache(null, Arrays.asList(jar.getPath()), "options", entryPool);
+    assertNull(cache.getMethodFacts("a.B", SIGNATURE));
+  }
+}
@@ -0,0 +1,66 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+
+public class AnalysisBudgetTest {
+  @Test
+  public void testNoDegradationWithinBudget() {
+    AnalysisBudget budget = new AnalysisBudget(3600, 0);
+
+    assertFalse(budget.shouldDegrade("noBranchProfiles", 1.0));
+    assertEquals(Collections.emptyList(), budget.getDegradations());
+  }
+
+  @Test
+  public void testDegradationsAreRecorded() {
+    AnalysisBudget budget = new AnalysisBudget(3600, 0);
+
+    assertTrue(budget.shouldDegrade("callGraphAlgorithm:RTA", 0));
+    assertTrue(budget.shouldDegrade("noBranchProfiles", 0));
+    assertTrue(budget.shouldDegrade("callGraphAlgorithm:RTA", 0));
+    assertEquals(
+        Arrays.asList("callGraphAlgorithm:RTA", "noBranchProfiles"), budget.getDegradations());
+
+    // Applied steps stay applied regardless of the threshold
+    assertTrue(budget.shouldDegrade("noBranchProfiles", 1.0));
+  }
+
+  @Test
+  public void testExceededTimeLimit() throws InterruptedException {
+    AnalysisBudget budget = new AnalysisBudget(0, 0);
+    assertTrue(budget.getUsage() < 1.0);
+
+    budget = new AnalysisBudget(1, 0);
+    Thread.sleep(1100);
+    assertTrue(budget.getUsage() > 1.0);
+    assertTrue(budget.shouldDegrade("callTreeDepthLimit:32", AnalysisBudget.CALL_TREE_THRESHOLD));
+  }
+
+  @Test
+  public void testUsedHeapIncludesUncollectedPools() {
+    // Large arrays are allocated directly in the old generation, which may never be collected
+    byte[] data = new byte[64 << 20];
+    assertTrue(AnalysisBudget.getUsedHeap() >= data.length);
+  }
+}
@@ -0,0 +1,69 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class BlockLineIndexTest {
+  @Test
+  public void testGetBlockLines() {
+    // Blocks of loops and branches overlap and are not sorted by line
+    int[] startLines = {-1, 10, 12, 30, 11, 14, 40, 25, 50};
+    int[] endLines = {-1, 20, 13, 35, 16, 14, 38, 45, 50};
+    BlockLineIndex index = new BlockLineIndex(startLines, endLines);
+
+    assertArrayEquals(new int[] {-1, -1}, index.getBlockLines(-1));
+    assertNull(index.getBlockLines(0));
+    assertArrayEquals(new int[] {10, 20}, index.getBlockLines(12));
+    assertArrayEquals(new int[] {10, 20}, index.getBlockLines(20));
+    assertNull(index.getBlockLines(21));
+    assertArrayEquals(new int[] {25, 45}, index.getBlockLines(26));
+    assertArrayEquals(new int[] {30, 35}, index.getBlockLines(33));
+    assertArrayEquals(new int[] {25, 45}, index.getBlockLines(40));
+    assertNull(index.getBlockLines(46));
+    assertArrayEquals(new int[] {50, 50}, index.getBlockLines(50));
+  }
+
+  @Test
+  public void testSameAsLinearScan() {
+    Random random = new Random(0);
+    for (int round = 0; round < 100; round++) {
+      int blockCount = random.nextInt(50);
+      int[] startLines = new int[blockCount];
+      int[] endLines = new int[blockCount];
+      for (int i = 0; i < blockCount; i++) {
+        startLines[i] = random.nextInt(200) - 1;
+        endLines[i] = startLines[i] + random.nextInt(40) - 5;
+      }
+      BlockLineIndex index = new BlockLineIndex(startLines, endLines);
+
+      for (int line = -2; line < 250; line++) {
+        int[] expected = null;
+        for (int i = 0; i < blockCount; i++) {
+          if (line >= startLines[i] && line <= endLines[i]) {
+            expected = new int[] {startLines[i], endLines[i]};
+            break;
+          }
+        }
+        assertArrayEquals(expected, index.getBlockLines(line));
+      }
+    }
+  }
+}
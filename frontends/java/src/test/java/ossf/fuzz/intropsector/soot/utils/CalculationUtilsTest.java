@@ -0,0 +1,106 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import ossf.fuzz.introspector.soot.yaml.Callsite;
+import ossf.fuzz.introspector.soot.yaml.FunctionConfig;
+import ossf.fuzz.introspector.soot.yaml.FunctionElement;
+
+public class CalculationUtilsTest {
+  private static FunctionElement addElement(FunctionConfig config, String name, String... callees) {
+    FunctionElement element = new FunctionElement();
+    element.setFunctionName(name);
+    for (String callee : callees) {
+      Callsite callsite = new Callsite();
+      callsite.setMethodName(callee);
+      element.addCallsite(callsite);
+    }
+    config.addFunctionElement(element);
+    return element;
+  }
+
+  private static Integer depthOf(FunctionConfig config, String name) {
+    return config.searchElement(name).getFunctionDepth();
+  }
+
+  @Test
+  public void testChain() {
+    FunctionConfig config = new FunctionConfig();
+    addElement(config, "a", "b", "c");
+    addElement(config, "b", "c");
+    addElement(config, "c");
+    addElement(config, "d", "unknown");
+
+    CalculationUtils.calculateAllCallDepth(config);
+
+    assertEquals(config.getFunctionElements().size(), 4);
+    assertEquals(depthOf(config, "a"), 2);
+    assertEquals(depthOf(config, "b"), 1);
+    assertEquals(depthOf(config, "c"), 0);
+    assertEquals(depthOf(config, "d"), 0);
+  }
+
+  @Test
+  public void testRecursion() {
+    FunctionConfig config = new FunctionConfig();
+    addElement(config, "a", "b");
+    addElement(config, "b", "c", "b");
+    addElement(config, "c", "b", "d");
+    addElement(config, "d", "e");
+    addElement(config, "e");
+
+    CalculationUtils.calculateAllCallDepth(config);
+
+    assertEquals(config.getFunctionElements().size(), 5);
+    assertEquals(depthOf(config, "a"), 3);
+    assertEquals(depthOf(config, "b"), 2);
+    assertEquals(depthOf(config, "c"), 2);
+    assertEquals(depthOf(config, "d"), 1);
+    assertEquals(depthOf(config, "e"), 0);
+  }
+
+  @Test
+  public void testConstructorNotUsedAsRoot() {
+    FunctionConfig config = new FunctionConfig();
+    addElement(config, "[A].<init>()", "b");
+    addElement(config, "b");
+
+    CalculationUtils.calculateAllCallDepth(config);
+
+    assertEquals(depthOf(config, "[A].<init>()"), 0);
+  }
+
+  @Test
+  public void testDeepChain() {
+    int size = 200000;
+    FunctionConfig config = new FunctionConfig();
+    for (int i = 0; i < size; i++) {
+      addElement(config, "m" + i, "m" + (i + 1));
+    }
+
+    assertTimeoutPreemptively(
+        Duration.ofSeconds(10), () -> CalculationUtils.calculateAllCallDepth(config));
+
+    assertEquals(config.getFunctionElements().size(), size);
+    assertEquals(depthOf(config, "m0"), size - 1);
+    assertEquals(depthOf(config, "m" + (size - 1)), 0);
+  }
+}
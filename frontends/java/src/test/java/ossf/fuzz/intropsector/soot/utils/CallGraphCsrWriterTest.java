@@ -0,0 +1,151 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import soot.Kind;
+import soot.Modifier;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.Type;
+import soot.VoidType;
+import soot.jimple.Jimple;
+import soot.jimple.Stmt;
+import soot.jimple.toolkits.callgraph.CallGraph;
+import soot.jimple.toolkits.callgraph.Edge;
+import soot.tagkit.LineNumberTag;
+
+public class CallGraphCsrWriterTest {
+  @TempDir File tempDir;
+
+  @Test
+  public void testWrite() throws IOException {
+    soot.G.reset();
+    SootMethod fuzz = createMethod("org.example.Fuzz", "fuzzerTestOneInput");
+    SootMethod a = createMethod("org.example.A", "a");
+    SootMethod b = createMethod("org.example.B", "b");
+    SootMethod excluded = createMethod("java.lang.Excluded", "c");
+    SootMethod unreachable = createMethod("org.example.D", "d");
+    SootMethod finalize = createMethod("org.example.E", "finalize");
+
+    CallGraph callGraph = new CallGraph();
+    callGraph.addEdge(new Edge(fuzz, createStmt(7), b, Kind.VIRTUAL));
+    callGraph.addEdge(new Edge(fuzz, createStmt(5), a, Kind.STATIC));
+    callGraph.addEdge(new Edge(fuzz, createStmt(6), excluded, Kind.STATIC));
+    callGraph.addEdge(new Edge(a, createStmt(10), b, Kind.STATIC));
+    callGraph.addEdge(new Edge(b, createStmt(20), a, Kind.SPECIAL));
+    callGraph.addEdge(new Edge(unreachable, createStmt(30), a, Kind.STATIC));
+
+    // Calls to excluded methods and recursive calls are left out as in the other outputs
+    callGraph.addEdge(new Edge(fuzz, createStmt(8), finalize, Kind.VIRTUAL));
+    callGraph.addEdge(new Edge(a, createStmt(11), a, Kind.STATIC));
+
+    // Registry ids differ from the node numbers of the export
+    MethodRegistry registry = new MethodRegistry();
+    registry.getId(unreachable);
+    registry.getId(b);
+    List<String> excludeList = Arrays.asList("java.");
+    MergedEdgeView view = new MergedEdgeView(CsrCallGraph.fromCallGraph(callGraph, registry));
+    File file = new File(tempDir, "fuzzerLogFile-Fuzz.callgraph.csr");
+    new CallGraphCsrWriter(
+            view, excludeList, Collections.<String>emptyList(), Arrays.asList("finalize"))
+        .write(file, fuzz);
+
+    ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+    byte[] magic = new byte[4];
+    buffer.get(magic);
+    assertEquals("FICG", new String(magic, StandardCharsets.US_ASCII));
+    assertEquals(CallGraphCsrWriter.VERSION, buffer.getInt());
+    int nodeCount = buffer.getInt();
+    int edgeCount = buffer.getInt();
+    int kindCount = buffer.getInt();
+    assertEquals(3, nodeCount);
+    assertEquals(4, edgeCount);
+    assertEquals(3, kindCount);
+    buffer.getInt();
+    long[] starts = new long[6];
+    for (int i = 0; i < starts.length; i++) {
+      starts[i] = buffer.getLong();
+      assertEquals(0, starts[i] % 8);
+    }
+    assertEquals(CallGraphCsrWriter.HEADER_SIZE, starts[0]);
+
+    assertArrayEquals(new int[] {0, 2, 3, 4}, readInts(buffer, starts[0], nodeCount + 1));
+    assertArrayEquals(new int[] {1, 2, 2, 1}, readInts(buffer, starts[1], edgeCount));
+    assertArrayEquals(new int[] {5, 7, 10, 20}, readInts(buffer, starts[2], edgeCount));
+    byte[] kinds = new byte[edgeCount];
+    buffer.position((int) starts[3]);
+    buffer.get(kinds);
+    assertArrayEquals(new byte[] {0, 1, 0, 2}, kinds);
+
+    int[] stringOffsets = readInts(buffer, starts[4], nodeCount + kindCount + 1);
+    String[] strings = new String[nodeCount + kindCount];
+    for (int i = 0; i < strings.length; i++) {
+      strings[i] =
+          new String(
+              buffer.array(),
+              (int) starts[5] + stringOffsets[i],
+              stringOffsets[i + 1] - stringOffsets[i],
+              StandardCharsets.UTF_8);
+    }
+    assertArrayEquals(
+        new String[] {
+          "[org.example.Fuzz].fuzzerTestOneInput()",
+          "[org.example.A].a()",
+          "[org.example.B].b()",
+          "STATIC",
+          "VIRTUAL",
+          "SPECIAL"
+        },
+        strings);
+    assertEquals(buffer.capacity(), starts[5] + stringOffsets[strings.length]);
+  }
+
+  private static SootMethod createMethod(String className, String methodName) {
+    SootClass sootClass = new SootClass(className, Modifier.PUBLIC);
+    SootMethod method =
+        new SootMethod(methodName, Collections.<Type>emptyList(), VoidType.v(), Modifier.PUBLIC);
+    sootClass.addMethod(method);
+    return method;
+  }
+
+  private static Stmt createStmt(int line) {
+    Stmt stmt = Jimple.v().newNopStmt();
+    stmt.addTag(new LineNumberTag(line));
+    return stmt;
+  }
+
+  private static int[] readInts(ByteBuffer buffer, long start, int count) {
+    int[] values = new int[count];
+    buffer.position((int) start);
+    buffer.asIntBuffer().get(values);
+    return values;
+  }
+}
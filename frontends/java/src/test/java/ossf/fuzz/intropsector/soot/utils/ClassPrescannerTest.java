@@ -0,0 +1,163 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ClassPrescannerTest {
+  @TempDir File tempDir;
+
+  public static class Root {
+    private Field field;
+
+    public Object call(Argument argument) {
+      return new Callee();
+    }
+  }
+
+  public static class Field {}
+
+  public static class Argument {}
+
+  public static class Callee extends Parent {}
+
+  public static class Parent {}
+
+  public static class Unrelated {}
+
+  private static String getName(Class<?> cl) {
+    return cl.getName();
+  }
+
+  private static InputStream openClass(Class<?> cl) {
+    return cl.getResourceAsStream("/" + cl.getName().replace('.', '/') + ".class");
+  }
+
+  private File createJar(String name, Class<?>... classes) throws IOException {
+    File jar = new File(tempDir, name);
+    try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar))) {
+      for (Class<?> cl : classes) {
+        out.putNextEntry(new ZipEntry(cl.getName().replace('.', '/') + ".class"));
+        try (InputStream in = openClass(cl)) {
+          byte[] buffer = new byte[4096];
+          int length;
+          while ((length = in.read(buffer)) != -1) {
+            out.write(buffer, 0, length);
+          }
+        }
+        out.closeEntry();
+      }
+      out.putNextEntry(new ZipEntry("META-INF/MANIFEST.MF"));
+      out.closeEntry();
+    }
+    return jar;
+  }
+
+  private File createDirectory(String name, Class<?>... classes) throws IOException {
+    File directory = new File(tempDir, name);
+    for (Class<?> cl : classes) {
+      File file = new File(directory, cl.getName().replace('.', '/') + ".class");
+      file.getParentFile().mkdirs();
+      try (InputStream in = openClass(cl)) {
+        Files.copy(in, file.toPath());
+      }
+    }
+    return directory;
+  }
+
+  @Test
+  public void testReadReferencedClasses() throws IOException {
+    Set<String> references;
+    try (InputStream in = openClass(Root.class)) {
+      references = ClassPrescanner.readReferencedClasses(in);
+    }
+
+    assertTrue(references.contains(getName(Root.class)));
+    assertTrue(references.contains(getName(Field.class)));
+    assertTrue(references.contains(getName(Argument.class)));
+    assertTrue(references.contains(getName(Callee.class)));
+    assertTrue(references.contains("java.lang.Object"));
+    assertFalse(references.contains(getName(Unrelated.class)));
+
+    assertThrows(
+        IOException.class,
+        () -> ClassPrescanner.readReferencedClasses(new ByteArrayInputStream(new byte[8])));
+  }
+
+  @Test
+  public void testReferencedClasses() throws IOException {
+    File first = createJar("first.jar", Root.class, Field.class, Argument.class);
+    File second = createJar("second.jar", Callee.class, Parent.class, Unrelated.class);
+    ClassPrescanner prescanner =
+        new ClassPrescanner(Arrays.asList(first.getPath(), second.getPath(), "missing.jar"));
+
+    assertEquals(6, prescanner.getClassCount());
+    assertTrue(prescanner.containsClass(getName(Unrelated.class)));
+
+    Set<String> classes =
+        prescanner.getReferencedClasses(Collections.singletonList(getName(Root.class)));
+    assertEquals(5, classes.size());
+    assertTrue(classes.contains(getName(Parent.class)));
+    assertFalse(classes.contains(getName(Unrelated.class)));
+    assertFalse(classes.contains("java.lang.Object"));
+  }
+
+  @Test
+  public void testClassDirectory() throws IOException {
+    File directory = createDirectory("classes", Root.class, Field.class, Argument.class);
+    File jar = createJar("test.jar", Callee.class, Parent.class, Unrelated.class);
+    ClassPrescanner prescanner =
+        new ClassPrescanner(Arrays.asList(directory.getPath(), jar.getPath()));
+
+    assertEquals(6, prescanner.getClassCount());
+    assertTrue(prescanner.containsClass(getName(Root.class)));
+
+    Set<String> classes =
+        prescanner.getReferencedClasses(Collections.singletonList(getName(Root.class)));
+    assertEquals(5, classes.size());
+    assertTrue(classes.contains(getName(Field.class)));
+    assertTrue(classes.contains(getName(Parent.class)));
+    assertFalse(classes.contains(getName(Unrelated.class)));
+  }
+
+  @Test
+  public void testClassesWithPrefix() throws IOException {
+    File jar = createJar("test.jar", Root.class, Unrelated.class);
+    ClassPrescanner prescanner = new ClassPrescanner(Arrays.asList(jar.getPath()));
+
+    assertEquals(0, prescanner.getClassesWithPrefix(Arrays.asList("", "*")).size());
+    Set<String> classes = prescanner.getClassesWithPrefix(Arrays.asList(getName(Unrelated.class)));
+    assertEquals(1, classes.size());
+    assertTrue(classes.contains(getName(Unrelated.class)));
+  }
+}
@@ -0,0 +1,149 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.BitSet;
+import java.util.Collections;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import soot.Kind;
+import soot.Modifier;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.Type;
+import soot.VoidType;
+import soot.jimple.Jimple;
+import soot.jimple.Stmt;
+import soot.jimple.toolkits.callgraph.CallGraph;
+import soot.jimple.toolkits.callgraph.Edge;
+import soot.tagkit.LineNumberTag;
+
+public class CsrCallGraphTest {
+  private SootMethod fuzz;
+  private SootMethod a;
+  private SootMethod b;
+  private SootMethod c;
+  private SootMethod other;
+  private CallGraph callGraph;
+
+  @BeforeEach
+  public void setUp() {
+    soot.G.reset();
+    SootClass sootClass = new SootClass("org.example.Fuzz", Modifier.PUBLIC);
+    fuzz = createMethod(sootClass, "fuzz");
+    a = createMethod(sootClass, "a");
+    b = createMethod(sootClass, "b");
+    c = createMethod(sootClass, "c");
+    other = createMethod(sootClass, "other");
+
+    callGraph = new CallGraph();
+    callGraph.addEdge(new Edge(fuzz, createStmt(3), a, Kind.STATIC));
+    callGraph.addEdge(new Edge(fuzz, createStmt(4), b, Kind.VIRTUAL));
+    callGraph.addEdge(new Edge(a, createStmt(10), b, Kind.STATIC));
+    callGraph.addEdge(new Edge(b, Jimple.v().newNopStmt(), a, Kind.SPECIAL));
+    callGraph.addEdge(new Edge(other, createStmt(20), c, Kind.STATIC));
+  }
+
+  @Test
+  public void testFromCallGraph() {
+    MethodRegistry registry = new MethodRegistry();
+    CsrCallGraph graph = CsrCallGraph.fromCallGraph(callGraph, registry);
+    int fuzzId = registry.getId(fuzz);
+    int aId = registry.getId(a);
+    int bId = registry.getId(b);
+    int cId = registry.getId(c);
+
+    assertEquals(5, graph.size());
+    assertEquals(5, graph.getNodeCount());
+    assertEquals(2, graph.getOutDegree(fuzzId));
+    assertEquals(0, graph.getInDegree(fuzzId));
+    assertEquals(2, graph.getInDegree(aId));
+    assertEquals(2, graph.getInDegree(bId));
+    assertEquals(0, graph.getOutDegree(cId));
+
+    int start = graph.getEdgeStart(fuzzId);
+    assertEquals(start + 2, graph.getEdgeEnd(fuzzId));
+    assertEquals(aId, graph.getTarget(start));
+    assertEquals(3, graph.getLine(start));
+    assertSame(Kind.STATIC, graph.getKind(start));
+    assertEquals(bId, graph.getTarget(start + 1));
+    assertEquals(4, graph.getLine(start + 1));
+    assertSame(Kind.VIRTUAL, graph.getKind(start + 1));
+
+    int edge = graph.getEdgeStart(bId);
+    assertEquals(-1, graph.getLine(edge));
+    assertSame(Kind.SPECIAL, graph.getKind(edge));
+
+    // Methods registered after the conversion have no edges
+    SootMethod late = createMethod(fuzz.getDeclaringClass(), "late");
+    int lateId = registry.getId(late);
+    assertEquals(0, graph.getOutDegree(lateId));
+    assertEquals(0, graph.getInDegree(lateId));
+  }
+
+  @Test
+  public void testReachableGraph() {
+    MethodRegistry registry = new MethodRegistry();
+    CsrCallGraph reachable = CsrCallGraph.fromCallGraph(callGraph, registry).getReachableGraph(a);
+
+    assertEquals(2, reachable.size());
+    assertEquals(0, reachable.getOutDegree(registry.getId(fuzz)));
+    assertEquals(1, reachable.getOutDegree(registry.getId(a)));
+    assertEquals(1, reachable.getOutDegree(registry.getId(b)));
+    assertEquals(0, reachable.getOutDegree(registry.getId(other)));
+    assertEquals(1, reachable.getInDegree(registry.getId(a)));
+    assertEquals(0, reachable.getInDegree(registry.getId(c)));
+    assertEquals(10, reachable.getLine(reachable.getEdgeStart(registry.getId(a))));
+  }
+
+  @Test
+  public void testReachableMethods() {
+    MethodRegistry registry = new MethodRegistry();
+    CsrCallGraph graph = CsrCallGraph.fromCallGraph(callGraph, registry);
+    BitSet reachable = graph.getReachableMethods(fuzz);
+
+    assertEquals(3, reachable.cardinality());
+    assertTrue(reachable.get(registry.getId(fuzz)));
+    assertTrue(reachable.get(registry.getId(a)));
+    assertTrue(reachable.get(registry.getId(b)));
+    assertFalse(reachable.get(registry.getId(other)));
+    assertFalse(reachable.get(registry.getId(c)));
+
+    // An entry method without edges only reaches itself
+    SootMethod late = createMethod(fuzz.getDeclaringClass(), "late");
+    reachable = graph.getReachableMethods(late);
+    assertEquals(1, reachable.cardinality());
+    assertTrue(reachable.get(registry.getId(late)));
+  }
+
+  private static SootMethod createMethod(SootClass sootClass, String name) {
+    SootMethod method =
+        new SootMethod(name, Collections.<Type>emptyList(), VoidType.v(), Modifier.PUBLIC);
+    sootClass.addMethod(method);
+    return method;
+  }
+
+  private static Stmt createStmt(int line) {
+    Stmt stmt = Jimple.v().newNopStmt();
+    stmt.addTag(new LineNumberTag(line));
+    return stmt;
+  }
+}
@@ -0,0 +1,45 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+
+public class FunctionLineIndexTest {
+  @Test
+  public void testGetFunctions() {
+    FunctionLineIndex index = new FunctionLineIndex();
+    index.addFunction("parse(java.lang.String)", 30);
+    index.addFunction("check()", 12);
+    index.addFunction("parse(java.lang.String)", 12);
+    index.addFunction("close()", -1);
+    index.addFunction("read()", 20);
+
+    assertEquals(Arrays.asList("check()", "parse(java.lang.String)"), index.getFunctions(10, 15));
+    assertEquals(
+        Arrays.asList("check()", "parse(java.lang.String)", "read()"), index.getFunctions(12, 30));
+    assertEquals(Arrays.asList("close()"), index.getFunctions(-1, 0));
+    assertEquals(Collections.emptyList(), index.getFunctions(21, 29));
+
+    // Calls of the same method on different lines are all kept
+    assertEquals(Arrays.asList("parse(java.lang.String)"), index.getFunctions(25, 40));
+    index.addFunction("write()", 25);
+    assertEquals(Arrays.asList("write()", "parse(java.lang.String)"), index.getFunctions(25, 40));
+  }
+}
@@ -0,0 +1,76 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Collections;
+import java.util.LinkedList;
+import org.junit.jupiter.api.Test;
+import soot.Kind;
+import soot.Modifier;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.Type;
+import soot.VoidType;
+import soot.jimple.Jimple;
+import soot.jimple.Stmt;
+import soot.jimple.toolkits.callgraph.CallGraph;
+import soot.jimple.toolkits.callgraph.Edge;
+import soot.tagkit.LineNumberTag;
+
+public class MergedEdgeViewTest {
+  @Test
+  public void testMergePolymorphism() {
+    soot.G.reset();
+    SootMethod fuzz = createMethod("org.example.Fuzz", "fuzz");
+    SootMethod a = createMethod("org.example.A", "run");
+    SootMethod b = createMethod("org.example.B", "run");
+
+    // Lines above 127 are outside the cache of boxed integers
+    CallGraph callGraph = new CallGraph();
+    for (int line : new int[] {5, 300}) {
+      Stmt stmt = createStmt(line);
+      callGraph.addEdge(new Edge(fuzz, stmt, a, Kind.VIRTUAL));
+      callGraph.addEdge(new Edge(fuzz, stmt, b, Kind.VIRTUAL));
+    }
+
+    MergedEdgeView view =
+        new MergedEdgeView(CsrCallGraph.fromCallGraph(callGraph, new MethodRegistry()));
+    MergedEdges edges =
+        view.getMergedEdges(fuzz, new LinkedList<String>(), new LinkedList<String>());
+    assertEquals(2, edges.size());
+    assertEquals(5, edges.getLine(0));
+    assertEquals(300, edges.getLine(1));
+    assertEquals("org.example.A:org.example.B", edges.getClassName(0));
+    assertEquals("org.example.A:org.example.B", edges.getClassName(1));
+    soot.G.reset();
+  }
+
+  private static SootMethod createMethod(String className, String name) {
+    SootClass sootClass = new SootClass(className, Modifier.PUBLIC);
+    SootMethod method =
+        new SootMethod(name, Collections.<Type>emptyList(), VoidType.v(), Modifier.PUBLIC);
+    sootClass.addMethod(method);
+    return method;
+  }
+
+  private static Stmt createStmt(int line) {
+    Stmt stmt = Jimple.v().newNopStmt();
+    stmt.addTag(new LineNumberTag(line));
+    return stmt;
+  }
+}
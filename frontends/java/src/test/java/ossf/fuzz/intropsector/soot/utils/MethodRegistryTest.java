@@ -0,0 +1,54 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+import soot.IntType;
+import soot.RefType;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.Type;
+import soot.VoidType;
+
+public class MethodRegistryTest {
+  @Test
+  public void testRegister() {
+    SootClass sootClass = new SootClass("org.example.Fuzz");
+    SootMethod first =
+        new SootMethod(
+            "first", Arrays.<Type>asList(IntType.v(), RefType.v("java.lang.String")), VoidType.v());
+    SootMethod second = new SootMethod("second", Collections.<Type>emptyList(), IntType.v());
+    sootClass.addMethod(first);
+    sootClass.addMethod(second);
+
+    MethodRegistry registry = new MethodRegistry();
+    assertEquals(0, registry.getId(first));
+    assertEquals(1, registry.getId(second));
+    assertEquals(0, registry.getId(first));
+    assertEquals(2, registry.size());
+
+    assertSame(first, registry.getMethod(0));
+    assertEquals("first(int,java.lang.String)", registry.getMethodName(0));
+    assertEquals("org.example.Fuzz", registry.getClassName(0));
+    assertEquals("[org.example.Fuzz].first(int,java.lang.String)", registry.getFunctionName(0));
+    assertEquals("[org.example.Fuzz].second()", registry.getFunctionName(1));
+  }
+}
@@ -0,0 +1,71 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MetricsRecorderTest {
+  @TempDir File tempDir;
+
+  @Test
+  public void testWrite() throws IOException {
+    MetricsRecorder metrics = new MetricsRecorder();
+    metrics.setSetting("callGraphAlgorithm", "CHA");
+    metrics.startPhase("load");
+    metrics.endPhase("load");
+    metrics.addCounter("classes", 3);
+
+    metrics.setFuzzer("Fuzzer");
+    metrics.startPhase("process");
+    byte[][] data = new byte[64][];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = new byte[1024];
+    }
+    metrics.endPhase("process");
+    assertEquals(data[data.length - 1].length, 1024);
+    metrics.addCounter("callsites", 2);
+    metrics.addCounter("callsites", 5);
+
+    // Phases which are never started are ignored
+    metrics.endPhase("missing");
+    metrics.setFuzzer(null);
+
+    File file = new File(tempDir, "metrics.json");
+    metrics.write(file);
+    JsonNode root = new ObjectMapper().readTree(file);
+
+    assertEquals(root.get("settings").get("callGraphAlgorithm").asText(), "CHA");
+    JsonNode load = root.get("phases").get("load");
+    assertTrue(load.get("wallTimeMs").asLong() >= 0);
+    assertTrue(load.has("cpuTimeMs"));
+    assertTrue(load.get("heapPoolPeakSumBytes").asLong() > 0);
+    assertEquals(root.get("counters").get("classes").asLong(), 3);
+
+    JsonNode fuzzer = root.get("fuzzers").get("Fuzzer");
+    assertTrue(fuzzer.get("phases").get("process").get("allocatedBytes").asLong() >= 64 * 1024);
+    assertFalse(fuzzer.get("phases").has("missing"));
+    assertEquals(fuzzer.get("counters").get("callsites").asLong(), 7);
+  }
+}
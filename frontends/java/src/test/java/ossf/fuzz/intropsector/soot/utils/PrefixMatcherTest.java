@@ -0,0 +1,76 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class PrefixMatcherTest {
+  @Test
+  public void testMatches() {
+    List<String> prefixList = Arrays.asList("java.*", "javax.*", "com.sun.*", "org.example.Fuzz");
+    PrefixMatcher matcher = new PrefixMatcher(prefixList);
+
+    String[] names = {
+      "java.lang.String",
+      "javax.xml.xpath.XPath",
+      "jav",
+      "javaFoo.Bar",
+      "com.sun.net.Server",
+      "com.sunny.App",
+      "org.example.Fuzz",
+      "org.example.FuzzTest$1",
+      "org.example.Fu",
+      ""
+    };
+    for (String name : names) {
+      boolean expected = false;
+      for (String prefix : prefixList) {
+        if (name.startsWith(prefix.replace("*", ""))) {
+          expected = true;
+        }
+      }
+      assertEquals(expected, matcher.matches(name), name);
+    }
+
+    assertFalse(new PrefixMatcher(Collections.emptyList()).matches("java.lang.String"));
+    assertTrue(new PrefixMatcher(Arrays.asList("*")).matches("org.example.Fuzz"));
+  }
+
+  @Test
+  public void testFlags() {
+    PrefixMatcher matcher = new PrefixMatcher();
+    matcher.addPrefixes(Arrays.asList("org.example."), 1);
+    matcher.addPrefixes(Arrays.asList("org.*", "java.*"), 2);
+    matcher.addPrefixes(Arrays.asList("org.example.sub."), 4);
+
+    assertEquals(3, matcher.match("org.example.Fuzz"));
+    assertEquals(7, matcher.match("org.example.sub.Fuzz"));
+    assertEquals(2, matcher.match("java.lang.String"));
+    assertEquals(0, matcher.match("com.example.Fuzz"));
+
+    // Only the part between start and end is matched
+    String mergedClassName = "org.example.A:java.util.List";
+    assertEquals(2, matcher.match(mergedClassName, 14, mergedClassName.length()));
+    assertEquals(0, matcher.match(mergedClassName, 9, 13));
+  }
+}
@@ -0,0 +1,99 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SourceIndexTest {
+  @TempDir File tempDir;
+
+  private Path createSource(String path, String content) throws IOException {
+    Path file = tempDir.toPath().resolve("src").resolve(path);
+    Files.createDirectories(file.getParent());
+    Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    return file;
+  }
+
+  @Test
+  public void testReadPackageName() throws IOException {
+    assertEquals(
+        "a.b",
+        SourceIndex.readPackageName(
+            createSource("A.java", "/* License\n * header */\n// comment\npackage a\n  .b;\n")));
+    assertEquals(
+        "c.d",
+        SourceIndex.readPackageName(createSource("B.java", "@Generated\npackage c.d; class B {}")));
+    assertNull(SourceIndex.readPackageName(createSource("C.java", "import x.Y;\nclass C {}\n")));
+    assertNull(SourceIndex.readPackageName(createSource("D.java", "packages x;\n")));
+  }
+
+  @Test
+  public void testFullyQualifiedNames() throws IOException {
+    createSource("a/Parser.java", "package org.a;\npublic class Parser {}\n");
+    createSource("b/Parser.java", "package org.b;\npublic class Parser {}\n");
+    createSource("Main.java", "public class Main {}\n");
+    createSource("a/package-info.java", "package org.a;\n");
+    SourceIndex index = SourceIndex.build(new File(tempDir, "src").getPath(), null, 2);
+
+    assertEquals(3, index.size());
+    assertTrue(index.containsClass("org.a.Parser"));
+    assertTrue(index.containsClass("org.b.Parser$Inner"));
+    assertTrue(index.containsClass("Main"));
+    assertFalse(index.containsClass("org.c.Parser"));
+    assertFalse(index.containsClass("Parser"));
+    assertTrue(index.getSourceFile("org.b.Parser").endsWith("Parser.java"));
+  }
+
+  @Test
+  public void testIndexFile() throws IOException {
+    Path source = createSource("a/Parser.java", "package org.a;\npublic class Parser {}\n");
+    String sourceDirectory = new File(tempDir, "src").getPath();
+    File indexFile = new File(tempDir, "sources.index");
+    SourceIndex.build(sourceDirectory, indexFile, 1);
+    assertTrue(indexFile.isFile());
+
+    // Unchanged source files are taken from the index file without being parsed
+    List<String> lines = Files.readAllLines(indexFile.toPath(), StandardCharsets.UTF_8);
+    lines.set(1, lines.get(1).replace("org.a.Parser", "org.cached.Parser"));
+    Files.write(indexFile.toPath(), lines, StandardCharsets.UTF_8);
+    assertTrue(SourceIndex.build(sourceDirectory, indexFile, 1).containsClass("org.cached.Parser"));
+
+    // Changed source files are parsed again
+    Files.write(source, "package org.b;\nclass Parser {}\n".getBytes(StandardCharsets.UTF_8));
+    Files.setLastModifiedTime(source, FileTime.fromMillis(0));
+    SourceIndex index = SourceIndex.build(sourceDirectory, indexFile, 1);
+    assertTrue(index.containsClass("org.b.Parser"));
+    assertFalse(index.containsClass("org.cached.Parser"));
+
+    // Missing index files are created, missing source directories give an empty index
+    index = SourceIndex.build(sourceDirectory, new File(tempDir, "missing.index"), 1);
+    assertTrue(index.containsClass("org.b.Parser"));
+    assertTrue(SourceIndex.build(new File(tempDir, "missing").getPath(), null, 1).isEmpty());
+  }
+}
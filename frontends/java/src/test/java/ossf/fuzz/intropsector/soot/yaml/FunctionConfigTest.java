@@ -0,0 +1,87 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.yaml;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class FunctionConfigTest {
+  private static FunctionElement newElement(String name) {
+    FunctionElement element = new FunctionElement();
+    element.setFunctionName(name);
+    return element;
+  }
+
+  @Test
+  public void testAddKeepsFirstAndOrder() {
+    FunctionConfig config = new FunctionConfig();
+    FunctionElement first = newElement("[A].a()");
+    config.addFunctionElement(first);
+    config.addFunctionElement(newElement("[B].b()"));
+    config.addFunctionElement(newElement("[A].a()"));
+
+    assertEquals(config.getFunctionElements().size(), 2);
+    assertSame(config.getFunctionElements().get(0), first);
+    assertEquals(config.getFunctionElements().get(1).getFunctionName(), "[B].b()");
+    assertSame(config.searchElement("[A].a()"), first);
+    assertNull(config.searchElement("[C].c()"));
+  }
+
+  @Test
+  public void testSetFunctionElementsRebuildsIndex() {
+    FunctionConfig config = new FunctionConfig();
+    config.addFunctionElement(newElement("[A].a()"));
+
+    List<FunctionElement> list = new ArrayList<FunctionElement>();
+    FunctionElement first = newElement("[B].b()");
+    list.add(first);
+    list.add(newElement("[B].b()"));
+    config.setFunctionElements(list);
+
+    assertNull(config.searchElement("[A].a()"));
+    assertSame(config.searchElement("[B].b()"), first);
+    assertEquals(config.getFunctionElements().size(), 2);
+  }
+
+  @Test
+  public void testLargeConfig() {
+    // Regression benchmark, a linear scan per insert and lookup takes minutes at this size
+    int size = 200000;
+    assertTimeoutPreemptively(
+        Duration.ofSeconds(10),
+        () -> {
+          FunctionConfig config = new FunctionConfig();
+          for (int i = 0; i < size; i++) {
+            config.addFunctionElement(newElement("[Class" + (i % 1000) + "].method" + i + "()"));
+          }
+          for (int i = 0; i < size; i++) {
+            config.addFunctionElement(newElement("[Class" + (i % 1000) + "].method" + i + "()"));
+          }
+          assertEquals(config.getFunctionElements().size(), size);
+          for (int i = 0; i < size; i++) {
+            String name = "[Class" + (i % 1000) + "].method" + i + "()";
+            assertSame(config.searchElement(name), config.getFunctionElements().get(i));
+          }
+        });
+  }
+}
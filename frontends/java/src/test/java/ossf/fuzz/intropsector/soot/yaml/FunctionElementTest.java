@@ -0,0 +1,105 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.yaml;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class FunctionElementTest {
+  private static Callsite newCallsite(String source, String methodName) {
+    Callsite callsite = new Callsite();
+    callsite.setSource(source);
+    callsite.setMethodName(methodName);
+    return callsite;
+  }
+
+  @Test
+  public void testAddCallsiteKeepsFirstAndOrder() {
+    FunctionElement element = new FunctionElement();
+    Callsite first = newCallsite("A:10,1", "[B].b");
+    element.addCallsite(first);
+    element.addCallsite(newCallsite("A:11,1", "[C].c"));
+    element.addCallsite(newCallsite("A:12,1", "[B].b"));
+
+    assertEquals(element.getCallsites().size(), 2);
+    assertSame(element.getCallsites().get(0), first);
+    assertEquals(element.getCallsites().get(1).getMethodName(), "[C].c");
+
+    // Call sites set directly are still considered for deduplication
+    List<Callsite> list = new ArrayList<Callsite>();
+    list.add(newCallsite("A:20,1", "[D].d"));
+    element.setCallsites(list);
+    element.addCallsite(newCallsite("A:21,1", "[D].d"));
+    element.addCallsite(newCallsite("A:22,1", "[B].b"));
+    assertEquals(element.getCallsites().size(), 2);
+    assertEquals(element.getCallsites().get(1).getSource(), "A:22,1");
+  }
+
+  @Test
+  public void testCallsiteHashCode() {
+    Callsite callsite = newCallsite("A:10,1", "[B].b");
+    Callsite other = newCallsite("A:11,1", "[B].b");
+    assertEquals(callsite, other);
+    assertEquals(callsite.hashCode(), other.hashCode());
+    assertNotEquals(callsite, newCallsite("A:10,1", "[C].c"));
+    assertEquals(new Callsite(), new Callsite());
+  }
+
+  @Test
+  public void testEmptyListsAreNotShared() {
+    FunctionElement element = new FunctionElement();
+    FunctionElement other = new FunctionElement();
+    element.addArgType("int");
+    element.addFunctionsReached("[B].b()");
+
+    assertEquals(element.getArgTypes().size(), 1);
+    assertEquals(element.getFunctionsReached().size(), 1);
+    assertTrue(other.getArgTypes().isEmpty());
+    assertTrue(other.getFunctionsReached().isEmpty());
+  }
+
+  @Test
+  public void testSerialisation() throws Exception {
+    FunctionElement element = new FunctionElement();
+    element.setFunctionName("[A].a(int)");
+    element.addArgType("int");
+    element.setFunctionUses(2);
+
+    String yaml = new ObjectMapper(new YAMLFactory()).writeValueAsString(element);
+    assertTrue(yaml.contains("functionLinenumber: null\n"));
+    assertTrue(yaml.contains("argCount: null\n"));
+    assertTrue(yaml.contains("functionDepth: 0\n"));
+    assertTrue(yaml.contains("functionUses: 2\n"));
+    assertTrue(yaml.contains("argTypes:\n- \"int\"\n"));
+    assertTrue(yaml.contains("constantsTouched: []\n"));
+    assertTrue(yaml.contains("BBCount: 0\n"));
+    assertTrue(yaml.contains("Callsites: []\n"));
+
+    element.setFunctionLinenumber(-1);
+    element.setArgCount(1);
+    yaml = new ObjectMapper(new YAMLFactory()).writeValueAsString(element);
+    assertTrue(yaml.contains("functionLinenumber: -1\n"));
+    assertTrue(yaml.contains("argCount: 1\n"));
+  }
+}
@@ -0,0 +1,134 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.yaml;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FuzzerBinaryWriterTest {
+  @TempDir File tempDir;
+
+  private static int readVarint(ByteBuffer buffer) {
+    int value = 0;
+    for (int shift = 0; ; shift += 7) {
+      byte b = buffer.get();
+      value |= (b & 0x7f) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+  }
+
+  @Test
+  public void testLayout() throws IOException {
+    FunctionElement element = new FunctionElement();
+    element.setFunctionName("[A].a()");
+    element.setFunctionSourceFile("A");
+    element.setFunctionLinenumber(7);
+    element.setFunctionDepth(2);
+    element.setReturnType("void");
+    element.setCountInformation(3, 9, 2);
+    for (int i = 0; i < 200; i++) {
+      element.addFunctionsReached("[B].b" + i + "()");
+    }
+    Callsite callsite = new Callsite();
+    callsite.setSource("A:8,1");
+    callsite.setMethodName("[B].b0");
+    element.addCallsite(callsite);
+
+    File file = new File(tempDir, "test.data.bin");
+    try (FuzzerBinaryWriter writer =
+        new FuzzerBinaryWriter(
+            file, "A", "fuzzerTestOneInput", "All functions", Arrays.asList("noBranchProfiles"))) {
+      writer.writeFunctionElement(element);
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+
+    // Header and trailer
+    byte[] magic = new byte[4];
+    buffer.get(magic);
+    assertArrayEquals(magic, "FIBD".getBytes(StandardCharsets.US_ASCII));
+    assertEquals(buffer.getInt(), FuzzerBinaryWriter.VERSION);
+    buffer.position(buffer.limit() - 24);
+    long recordOffset = buffer.getLong();
+    long stringTableOffset = buffer.getLong();
+    assertEquals(buffer.getInt(), 1);
+
+    // String table
+    buffer.position((int) stringTableOffset);
+    int stringCount = buffer.getInt();
+    int[] lengths = new int[stringCount];
+    for (int i = 0; i < stringCount; i++) {
+      lengths[i] = buffer.getInt();
+    }
+    List<String> strings = new ArrayList<String>();
+    strings.add(null);
+    for (int length : lengths) {
+      byte[] bytes = new byte[length];
+      buffer.get(bytes);
+      strings.add(new String(bytes, StandardCharsets.UTF_8));
+    }
+    assertEquals(stringCount, 208);
+
+    // Record with the counters, the null string and the null argCount
+    buffer.position((int) recordOffset);
+    assertEquals(strings.get(buffer.getInt()), "[A].a()");
+    assertEquals(strings.get(buffer.getInt()), "A");
+    assertEquals(buffer.getInt(), 0);
+    assertEquals(strings.get(buffer.getInt()), "void");
+    assertEquals(buffer.getInt(), 0);
+    assertEquals(buffer.getInt(), 7);
+    assertEquals(buffer.getInt(), 2);
+    assertEquals(buffer.getInt(), Integer.MIN_VALUE);
+    assertEquals(buffer.getInt(), 0);
+    assertEquals(buffer.getInt(), 9);
+    assertEquals(buffer.getInt(), 0);
+    assertEquals(buffer.getInt(), 3);
+    assertEquals(buffer.getInt(), 2);
+    assertEquals(buffer.position(), stringTableOffset);
+
+    // Varints of the header and the lists, with indexes needing two bytes
+    buffer.position(8);
+    assertEquals(strings.get(readVarint(buffer)), "A");
+    assertEquals(strings.get(readVarint(buffer)), "fuzzerTestOneInput");
+    assertEquals(strings.get(readVarint(buffer)), "All functions");
+    assertEquals(readVarint(buffer), 2);
+    assertEquals(strings.get(readVarint(buffer)), "noBranchProfiles");
+    assertEquals(readVarint(buffer), 0);
+    assertEquals(readVarint(buffer), 0);
+    assertEquals(readVarint(buffer), 0);
+    assertEquals(readVarint(buffer), 200);
+    for (int i = 0; i < 200; i++) {
+      assertEquals(strings.get(readVarint(buffer)), "[B].b" + i + "()");
+    }
+    assertEquals(readVarint(buffer), 0);
+    assertEquals(readVarint(buffer), 1);
+    assertEquals(strings.get(readVarint(buffer)), "A:8,1");
+    assertEquals(strings.get(readVarint(buffer)), "[B].b0");
+    assertEquals(buffer.position(), recordOffset);
+  }
+}
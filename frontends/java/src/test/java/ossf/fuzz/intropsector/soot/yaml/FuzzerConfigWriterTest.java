@@ -0,0 +1,84 @@
+// Copyright 2023 Fuzz Introspector Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+///////////////////////////////////////////////////////////////////////////
+
+package ossf.fuzz.introspector.soot.yaml;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FuzzerConfigWriterTest {
+  @TempDir File tempDir;
+
+  private static FunctionElement newElement(String name, int line) {
+    FunctionElement element = new FunctionElement();
+    element.setFunctionName(name);
+    element.setFunctionSourceFile("A");
+    element.setFunctionLinenumber(line);
+    element.setFunctionDepth(1);
+    element.setReturnType("void");
+    element.setArgCount(1);
+    element.addArgType("int");
+    element.addArgName("x");
+    element.addConstantsTouched("42");
+    element.setCountInformation(3, 9, 2);
+    element.setEdgeCount(1);
+    element.addFunctionsReached("[B].b()");
+    element.setFunctionUses(1);
+
+    BranchSide side = new BranchSide();
+    side.setBranchSideStr("A:" + (line + 2));
+    side.addBranchSideFuncs("[B].b()");
+    BranchProfile profile = new BranchProfile();
+    profile.setBranchString("A:" + (line + 1));
+    profile.addBranchSides(side);
+    element.addBranchProfile(profile);
+
+    Callsite callsite = new Callsite();
+    callsite.setSource("A:" + (line + 2) + ",1");
+    callsite.setMethodName("[B].b()");
+    element.addCallsite(callsite);
+    return element;
+  }
+
+  @Test
+  public void testSameAsFuzzerConfig() throws IOException {
+    FunctionConfig functionConfig = new FunctionConfig();
+    functionConfig.setListName("All functions");
+    functionConfig.addFunctionElement(newElement("[A].a(int)", 7));
+    functionConfig.addFunctionElement(newElement("[A].c(int)", 20));
+
+    // Output of serialising the whole FuzzerConfig object, as before streaming
+    FuzzerConfig config = new FuzzerConfig();
+    config.setFilename("A");
+    config.setEntryMethod("fuzzerTestOneInput");
+    config.setFunctionConfig(functionConfig);
+    String expected = new ObjectMapper(new YAMLFactory()).writeValueAsString(config);
+
+    File file = new File(tempDir, "fuzzerLogFile-A.data.yaml");
+    try (FuzzerConfigWriter writer =
+        new FuzzerConfigWriter(file, "A", "fuzzerTestOneInput", "All functions")) {
+      writer.writeFunctionElements(functionConfig.getFunctionElements());
+    }
+    assertEquals(expected, new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+  }
+}
@@ -74,6 +74,8 @@ class MetadataAnalysis(analysis.AnalysisInterface):
                 continue
             base_datafile = os.path.basename(profile.introspector_data_file)
             full_yaml_path = profile.introspector_data_file + ".yaml"
+            if not os.path.isfile(full_yaml_path):
+                full_yaml_path = profile.introspector_data_file + ".bin"
             base_yamlfile = os.path.basename(full_yaml_path)
             coverage_file_link_str = ""
             for idx in range(len(profile.coverage.coverage_files)):
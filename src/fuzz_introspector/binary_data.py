@@ -0,0 +1,225 @@
+# Copyright 2023 Fuzz Introspector Authors
+#
+# Licensed under the Apache License, Version 2.0 (the "License");
+# you may not use this file except in compliance with the License.
+# You may obtain a copy of the License at
+#
+#      http://www.apache.org/licenses/LICENSE-2.0
+#
+# Unless required by applicable law or agreed to in writing, software
+# distributed under the License is distributed on an "AS IS" BASIS,
+# WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+# See the License for the specific language governing permissions and
+# limitations under the License.
+"""
+Reads the compact binary .data.bin files written by the JVM frontend. The
+files hold the same data as the .data.yaml files and are read into the same
+dictionary, so they can be used in place of them. The format is described in
+FuzzerBinaryWriter.java of the JVM frontend.
+"""
+
+import array
+import gc
+import itertools
+import json
+import logging
+import os
+import struct
+import sys
+
+from typing import (
+    Any,
+    Dict,
+    List,
+    Optional,
+)
+
+logger = logging.getLogger(name=__name__)
+
+MAGIC = b"FIBD"
+VERSION = 1
+
+_HEADER = struct.Struct(">4si")
+_TRAILER = struct.Struct(">qqi4s")
+_RECORD = struct.Struct(">13i")
+_NULL_INT = -2**31
+
+
+def _read_int32_array(data: bytes, start: int, count: int) -> array.array:
+    """Reads an array of big-endian int32 values"""
+    values = array.array("i")
+    values.frombytes(data[start:start + 4 * count])
+    if sys.byteorder == "little":
+        values.byteswap()
+    return values
+
+
+def _read_varints(data: bytes) -> List[int]:
+    """Decodes a sequence of unsigned LEB128 integers"""
+    values: List[int] = []
+    append = values.append
+    value = 0
+    shift = 0
+    for byte in data:
+        if byte < 0x80:
+            append(value | (byte << shift))
+            value = 0
+            shift = 0
+        else:
+            value |= (byte & 0x7f) << shift
+            shift += 7
+    return values
+
+
+def _read_strings(data: bytes, start: int, end: int) -> List[Any]:
+    """Reads the string table, index 0 stands for null"""
+    count = struct.unpack_from(">i", data, start)[0]
+    lengths = _read_int32_array(data, start + 4, count)
+    blob_start = start + 4 + 4 * count
+    blob = data[blob_start:end]
+    offsets = list(itertools.accumulate(lengths, initial=0))
+    strings: List[Any] = [None]
+    if blob.isascii():
+        # Byte offsets are character offsets, so the blob is decoded at once
+        text = blob.decode("ascii")
+        strings.extend(text[offsets[i]:offsets[i + 1]] for i in range(count))
+    else:
+        strings.extend(blob[offsets[i]:offsets[i + 1]].decode("utf-8")
+                       for i in range(count))
+    return strings
+
+
+def _to_int(value: int) -> Optional[int]:
+    return None if value == _NULL_INT else value
+
+
+def read_binary_data(data: bytes) -> Dict[Any, Any]:
+    """
+    Reads the content of a .data.bin file into the dictionary the
+    corresponding .data.yaml file would be loaded into. Raises ValueError if
+    the content is not in the binary format.
+    """
+    # The garbage collector would otherwise repeatedly scan the millions of
+    # containers created here, none of which can be garbage yet
+    gc_enabled = gc.isenabled()
+    gc.disable()
+    try:
+        return _read_binary_data(data)
+    finally:
+        if gc_enabled:
+            gc.enable()
+
+
+def _read_binary_data(data: bytes) -> Dict[Any, Any]:
+    if len(data) < _HEADER.size + _TRAILER.size:
+        raise ValueError("Binary data is truncated")
+    magic, version = _HEADER.unpack_from(data, 0)
+    trailer_start = len(data) - _TRAILER.size
+    (record_start, string_start, element_count,
+     end_magic) = _TRAILER.unpack_from(data, trailer_start)
+    if magic != MAGIC or end_magic != MAGIC:
+        raise ValueError("Binary data has no valid magic")
+    if version != VERSION:
+        raise ValueError(f"Unsupported binary data version {version}")
+    if not (_HEADER.size <= record_start <= string_start <= trailer_start):
+        raise ValueError("Binary data has invalid section offsets")
+
+    strings = _read_strings(data, string_start, trailer_start)
+    varints = _read_varints(data[_HEADER.size:record_start])
+    next_varint = iter(varints).__next__
+
+    # Header
+    data_dict: Dict[Any, Any] = {
+        "Fuzzer filename": strings[next_varint()],
+        "Fuzzing method": strings[next_varint()],
+    }
+    list_name = strings[next_varint()]
+    degradation_count = next_varint()
+    if degradation_count > 0:
+        data_dict["Degradations"] = [
+            strings[next_varint()] for _ in range(degradation_count - 1)
+        ]
+
+    # Function elements, the lists are in the varints and the counters are
+    # in the fixed-width records
+    elements = []
+    records = _RECORD.iter_unpack(
+        data[record_start:record_start + _RECORD.size * element_count])
+    for (name, source_file, linkage_type, return_type, method_info,
+         linenumber, depth, arg_count, uses, icount, edge_count, bb_count,
+         complexity) in records:
+        arg_types = [strings[next_varint()] for _ in range(next_varint())]
+        constants_touched = [
+            strings[next_varint()] for _ in range(next_varint())
+        ]
+        arg_names = [strings[next_varint()] for _ in range(next_varint())]
+        functions_reached = [
+            strings[next_varint()] for _ in range(next_varint())
+        ]
+
+        branch_profiles = []
+        for _ in range(next_varint()):
+            branch_string = strings[next_varint()]
+            sides = []
+            for _ in range(next_varint()):
+                side_string = strings[next_varint()]
+                sides.append({
+                    "BranchSide":
+                    side_string,
+                    "BranchSideFuncs":
+                    [strings[next_varint()] for _ in range(next_varint())]
+                })
+            branch_profiles.append({
+                "Branch String": branch_string,
+                "Branch Sides": sides
+            })
+
+        callsites = [{
+            "Src": strings[next_varint()],
+            "Dst": strings[next_varint()]
+        } for _ in range(next_varint())]
+
+        elements.append({
+            "functionName": strings[name],
+            "functionSourceFile": strings[source_file],
+            "linkageType": strings[linkage_type],
+            "functionLinenumber": _to_int(linenumber),
+            "functionDepth": depth,
+            "returnType": strings[return_type],
+            "argCount": _to_int(arg_count),
+            "argTypes": arg_types,
+            "constantsTouched": constants_touched,
+            "argNames": arg_names,
+            "functionsReached": functions_reached,
+            "functionUses": uses,
+            "ICount": icount,
+            "EdgeCount": edge_count,
+            "BranchProfiles": branch_profiles,
+            "Callsites": callsites,
+            "JavaMethodInfo": (None if method_info == 0 else json.loads(
+                strings[method_info])),
+            "BBCount": bb_count,
+            "CyclomaticComplexity": complexity
+        })
+
+    data_dict["All functions"] = {
+        "Function list name": list_name,
+        "Elements": elements
+    }
+    return data_dict
+
+
+def data_file_read_binary(filename: str) -> Optional[Dict[Any, Any]]:
+    """
+    Reads a .data.bin file written by the JVM frontend. Returns None if the
+    file does not exist or is not a valid binary data file.
+    """
+    if not os.path.isfile(filename):
+        return None
+    with open(filename, "rb") as stream:
+        data = stream.read()
+    try:
+        return read_binary_data(data)
+    except (ValueError, IndexError, StopIteration, struct.error) as e:
+        logger.info(f"Could not load binary data file {filename}: {e}")
+        return None
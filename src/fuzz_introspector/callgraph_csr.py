@@ -0,0 +1,150 @@
+# Copyright 2023 Fuzz Introspector Authors
+#
+# Licensed under the Apache License, Version 2.0 (the "License");
+# you may not use this file except in compliance with the License.
+# You may obtain a copy of the License at
+#
+#      http://www.apache.org/licenses/LICENSE-2.0
+#
+# Unless required by applicable law or agreed to in writing, software
+# distributed under the License is distributed on an "AS IS" BASIS,
+# WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+# See the License for the specific language governing permissions and
+# limitations under the License.
+"""
+Reads the .callgraph.csr files exported by the JVM frontend. The file holds
+the merged call graph of a fuzzer as little-endian CSR arrays, which are used
+in place through a memory map, so a graph can be traversed without parsing
+it. The format is described in CallGraphCsrWriter.java of the JVM frontend.
+"""
+
+import array
+import mmap
+import struct
+import sys
+
+from typing import (
+    Iterator,
+    List,
+    Optional,
+    Sequence,
+    Tuple,
+)
+
+MAGIC = b"FICG"
+VERSION = 1
+
+_HEADER = struct.Struct("<4siiiii6q")
+
+
+class CallGraphCsr:
+    """
+    Memory-mapped merged call graph of a fuzzer. Node 0 is the entry method,
+    and the edges of node n are the edges from offsets[n] to offsets[n + 1].
+    """
+
+    def __init__(self, filename: str):
+        with open(filename, "rb") as stream:
+            self._mmap = mmap.mmap(stream.fileno(), 0, access=mmap.ACCESS_READ)
+        try:
+            self._load()
+        except (ValueError, struct.error):
+            self.close()
+            raise
+
+    def _load(self) -> None:
+        if len(self._mmap) < _HEADER.size:
+            raise ValueError("Call graph file is truncated")
+        (magic, version, self.node_count, self.edge_count, kind_count, _,
+         offsets_start, targets_start, lines_start, kinds_start,
+         string_offsets_start, blob_start) = _HEADER.unpack_from(self._mmap, 0)
+        if magic != MAGIC:
+            raise ValueError("Call graph file has no valid magic")
+        if version != VERSION:
+            raise ValueError(f"Unsupported call graph version {version}")
+        if not (_HEADER.size <= offsets_start <= targets_start <= lines_start
+                <= kinds_start <= string_offsets_start <= blob_start <= len(
+                    self._mmap)):
+            raise ValueError("Call graph file has invalid section offsets")
+
+        self._view = memoryview(self._mmap)
+        self.offsets = self._int_array(offsets_start, self.node_count + 1)
+        self.targets = self._int_array(targets_start, self.edge_count)
+        self.lines = self._int_array(lines_start, self.edge_count)
+        self.kinds = self._view[kinds_start:kinds_start + self.edge_count]
+        self._string_offsets = self._int_array(
+            string_offsets_start, self.node_count + kind_count + 1)
+        self._blob = self._view[blob_start:]
+        self.kind_names = [
+            self._string(self.node_count + i) for i in range(kind_count)
+        ]
+        self._node_map: Optional[dict] = None
+
+    def _int_array(self, start: int, count: int) -> Sequence[int]:
+        """Returns the int32 values in place, or a copy on big-endian hosts"""
+        data = self._view[start:start + 4 * count]
+        if len(data) != 4 * count:
+            raise ValueError("Call graph file is truncated")
+        if sys.byteorder == "little":
+            return data.cast("i")
+        values = array.array("i")
+        values.frombytes(data)
+        values.byteswap()
+        return values
+
+    def _string(self, index: int) -> str:
+        start = self._string_offsets[index]
+        end = self._string_offsets[index + 1]
+        return bytes(self._blob[start:end]).decode("utf-8")
+
+    def function_name(self, node: int) -> str:
+        """Returns the "[className].methodName(parameterTypes)" of a node"""
+        if not 0 <= node < self.node_count:
+            raise IndexError(f"Invalid node {node}")
+        return self._string(node)
+
+    def find_node(self, function_name: str) -> Optional[int]:
+        """Returns the node of a function name, or None if it is not found"""
+        if self._node_map is None:
+            self._node_map = {
+                self._string(node): node
+                for node in range(self.node_count)
+            }
+        return self._node_map.get(function_name)
+
+    def callees(self, node: int) -> Sequence[int]:
+        """Returns the target nodes of the edges of a node"""
+        return self.targets[self.offsets[node]:self.offsets[node + 1]]
+
+    def edges(self, node: int) -> Iterator[Tuple[int, int, str]]:
+        """Yields the target node, line number and kind of each edge"""
+        for edge in range(self.offsets[node], self.offsets[node + 1]):
+            yield (self.targets[edge], self.lines[edge],
+                   self.kind_names[self.kinds[edge]])
+
+    def reachable(self, node: int = 0) -> List[int]:
+        """Returns the nodes reachable from a node in breadth-first order"""
+        seen = bytearray(self.node_count)
+        seen[node] = 1
+        queue = [node]
+        for current in queue:
+            for target in self.callees(current):
+                if not seen[target]:
+                    seen[target] = 1
+                    queue.append(target)
+        return queue
+
+    def close(self) -> None:
+        """Releases the views and unmaps the file"""
+        for name in ("offsets", "targets", "lines", "kinds", "_string_offsets",
+                     "_blob", "_view"):
+            view = self.__dict__.pop(name, None)
+            if isinstance(view, memoryview):
+                view.release()
+        self._mmap.close()
+
+    def __enter__(self) -> "CallGraphCsr":
+        return self
+
+    def __exit__(self, *args) -> None:
+        self.close()
@@ -25,6 +25,7 @@ from typing import (
     Optional,
 )
 
+from fuzz_introspector import binary_data
 from fuzz_introspector import constants
 from fuzz_introspector import utils
 from fuzz_introspector.datatypes import (fuzzer_profile, bug)
@@ -38,12 +39,17 @@ def read_fuzzer_data_file_to_profile(
     """
     For a given .data file (CFG) read the corresponding .yaml file
     This is a bit odd way of doing it and should probably be improved.
+    The compact .bin file written by the JVM frontend is read instead of the
+    .yaml file if it exists, falling back to the .yaml file if the .bin file
+    can not be read.
     """
     logger.info(f" - loading {cfg_file}")
-    if not os.path.isfile(cfg_file) or not os.path.isfile(cfg_file + ".yaml"):
+    if not os.path.isfile(cfg_file):
         return None
 
-    data_dict_yaml = utils.data_file_read_yaml(cfg_file + ".yaml")
+    data_dict_yaml = binary_data.data_file_read_binary(cfg_file + ".bin")
+    if data_dict_yaml is None:
+        data_dict_yaml = utils.data_file_read_yaml(cfg_file + ".yaml")
     logger.info(f"Finished loading {cfg_file}")
 
     # Must be  dictionary
@@ -0,0 +1,138 @@
+# Copyright 2023 Fuzz Introspector Authors
+#
+# Licensed under the Apache License, Version 2.0 (the "License");
+# you may not use this file except in compliance with the License.
+# You may obtain a copy of the License at
+#
+#      http://www.apache.org/licenses/LICENSE-2.0
+#
+# Unless required by applicable law or agreed to in writing, software
+# distributed under the License is distributed on an "AS IS" BASIS,
+# WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+# See the License for the specific language governing permissions and
+# limitations under the License.
+"""Test binary_data.py"""
+
+import os
+import struct
+import sys
+import pytest
+
+sys.path.append(os.path.dirname(os.path.realpath(__file__)) + "/../")
+
+from fuzz_introspector import binary_data  # noqa: E402
+from fuzz_introspector import data_loader  # noqa: E402
+from fuzz_introspector import utils  # noqa: E402
+
+
+def varint(value):
+    out = bytearray()
+    while value >= 0x80:
+        out.append((value & 0x7f) | 0x80)
+        value >>= 7
+    out.append(value)
+    return bytes(out)
+
+
+def encode(strings, varints, records):
+    """Encodes the sections the same way as FuzzerBinaryWriter"""
+    data = b"FIBD" + struct.pack(">i", binary_data.VERSION)
+    data += b"".join(varint(v) for v in varints)
+    record_offset = len(data)
+    data += b"".join(struct.pack(">13i", *record) for record in records)
+    string_offset = len(data)
+    encoded = [s.encode("utf-8") for s in strings]
+    data += struct.pack(">i", len(encoded))
+    data += b"".join(struct.pack(">i", len(e)) for e in encoded)
+    data += b"".join(encoded)
+    data += struct.pack(">qqi4s", record_offset, string_offset, len(records),
+                        b"FIBD")
+    return data
+
+
+@pytest.mark.parametrize("extra_name", ["plain", "näme"])
+def test_read_binary_data(extra_name):
+    # Index 200 needs a two byte varint
+    strings = ["Fuzz", "fuzzerTestOneInput", "All functions", "[A].a()", "A",
+               "void", "int", "Fuzz:3", "Fuzz:4", "b()", "A:5,1", "[B].b",
+               '{"isPublic":true}', "noBranchProfiles"]
+    strings += [f"{extra_name}{i}" for i in range(len(strings), 199)]
+    strings.append("[B].b()")
+    varints = [1, 2, 3, 2, 14]
+    # argTypes, constantsTouched, argNames, functionsReached
+    varints += [1, 7, 0, 0, 1, 200]
+    # BranchProfiles with one branch of one side
+    varints += [1, 8, 1, 9, 1, 10]
+    # Callsites
+    varints += [1, 11, 12]
+    records = [(4, 5, 0, 6, 13, 10, 2, -2**31, 1, 9, 3, 4, 2)]
+
+    data_dict = binary_data.read_binary_data(encode(strings, varints, records))
+
+    assert data_dict["Fuzzer filename"] == "Fuzz"
+    assert data_dict["Fuzzing method"] == "fuzzerTestOneInput"
+    assert data_dict["Degradations"] == ["noBranchProfiles"]
+    assert data_dict["All functions"]["Function list name"] == "All functions"
+    assert data_dict["All functions"]["Elements"] == [{
+        "functionName": "[A].a()",
+        "functionSourceFile": "A",
+        "linkageType": None,
+        "functionLinenumber": 10,
+        "functionDepth": 2,
+        "returnType": "void",
+        "argCount": None,
+        "argTypes": ["int"],
+        "constantsTouched": [],
+        "argNames": [],
+        "functionsReached": ["[B].b()"],
+        "functionUses": 1,
+        "ICount": 9,
+        "EdgeCount": 3,
+        "BranchProfiles": [{
+            "Branch String": "Fuzz:3",
+            "Branch Sides": [{
+                "BranchSide": "Fuzz:4",
+                "BranchSideFuncs": ["b()"]
+            }]
+        }],
+        "Callsites": [{
+            "Src": "A:5,1",
+            "Dst": "[B].b"
+        }],
+        "JavaMethodInfo": {
+            "isPublic": True
+        },
+        "BBCount": 4,
+        "CyclomaticComplexity": 2
+    }]
+
+
+def test_no_degradations():
+    data = encode(["Fuzz"], [1, 1, 1, 0], [])
+    data_dict = binary_data.read_binary_data(data)
+    assert "Degradations" not in data_dict
+    assert data_dict["All functions"]["Elements"] == []
+
+
+def test_invalid_file(tmpdir):
+    path = os.path.join(tmpdir, "test.data.bin")
+    with open(path, "wb") as f:
+        f.write(b"Call tree\n" * 10)
+    assert binary_data.data_file_read_binary(path) is None
+    assert binary_data.data_file_read_binary(path + ".missing") is None
+
+
+def test_fallback_to_yaml(tmpdir, monkeypatch):
+    cfg_file = os.path.join(tmpdir, "fuzzerLogFile-Fuzz.data")
+    with open(cfg_file, "w") as f:
+        f.write("Call tree\n")
+    with open(cfg_file + ".bin", "wb") as f:
+        f.write(b"FIBD")
+
+    # An unreadable .bin file must not hide the .yaml file
+    yaml_files = []
+    monkeypatch.setattr(utils, "data_file_read_yaml",
+                        lambda filename: yaml_files.append(filename))
+    assert data_loader.read_fuzzer_data_file_to_profile(cfg_file,
+                                                        "jvm") is None
+    assert yaml_files == [cfg_file + ".yaml"]
@@ -0,0 +1,88 @@
+# Copyright 2023 Fuzz Introspector Authors
+#
+# Licensed under the Apache License, Version 2.0 (the "License");
+# you may not use this file except in compliance with the License.
+# You may obtain a copy of the License at
+#
+#      http://www.apache.org/licenses/LICENSE-2.0
+#
+# Unless required by applicable law or agreed to in writing, software
+# distributed under the License is distributed on an "AS IS" BASIS,
+# WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+# See the License for the specific language governing permissions and
+# limitations under the License.
+"""Test callgraph_csr.py"""
+
+import os
+import struct
+import sys
+import pytest
+
+sys.path.append(os.path.dirname(os.path.realpath(__file__)) + "/../")
+
+from fuzz_introspector import callgraph_csr  # noqa: E402
+
+
+def align(data):
+    return data + b"\0" * (-len(data) % 8)
+
+
+def encode(offsets, targets, lines, kinds, names, kind_names):
+    """Encodes the arrays the same way as CallGraphCsrWriter"""
+    sections = [
+        struct.pack(f"<{len(offsets)}i", *offsets),
+        struct.pack(f"<{len(targets)}i", *targets),
+        struct.pack(f"<{len(lines)}i", *lines),
+        bytes(kinds)
+    ]
+    encoded = [s.encode("utf-8") for s in names + kind_names]
+    string_offsets = [0]
+    for e in encoded:
+        string_offsets.append(string_offsets[-1] + len(e))
+    sections.append(struct.pack(f"<{len(string_offsets)}i", *string_offsets))
+    sections.append(b"".join(encoded))
+
+    starts = []
+    data = b""
+    for section in sections:
+        starts.append(72 + len(data))
+        data += align(section)
+    header = struct.pack("<4siiiii6q", b"FICG", callgraph_csr.VERSION,
+                         len(names), len(targets), len(kind_names), 0,
+                         *starts)
+    return header + data
+
+
+@pytest.fixture
+def graph_file(tmpdir):
+    path = os.path.join(tmpdir, "fuzzerLogFile-Fuzz.callgraph.csr")
+    data = encode([0, 2, 3, 3], [1, 2, 2], [5, 6, -1], [0, 1, 0],
+                  ["[Fuzz].fuzzerTestOneInput(byte[])", "[A].a()", "[Bé].b()"],
+                  ["STATIC", "VIRTUAL"])
+    with open(path, "wb") as f:
+        f.write(data)
+    return path
+
+
+def test_read_graph(graph_file):
+    with callgraph_csr.CallGraphCsr(graph_file) as graph:
+        assert graph.node_count == 3
+        assert graph.edge_count == 3
+        assert graph.kind_names == ["STATIC", "VIRTUAL"]
+        assert graph.function_name(2) == "[Bé].b()"
+        assert graph.find_node("[A].a()") == 1
+        assert graph.find_node("[C].c()") is None
+        assert list(graph.callees(0)) == [1, 2]
+        assert list(graph.callees(2)) == []
+        assert list(graph.edges(0)) == [(1, 5, "STATIC"), (2, 6, "VIRTUAL")]
+        assert list(graph.edges(1)) == [(2, -1, "STATIC")]
+        assert graph.reachable(1) == [1, 2]
+        assert graph.reachable() == [0, 1, 2]
+
+
+def test_invalid_file(tmpdir):
+    path = os.path.join(tmpdir, "test.callgraph.csr")
+    with open(path, "wb") as f:
+        f.write(b"FIBD" + b"\0" * 100)
+    with pytest.raises(ValueError):
+        callgraph_csr.CallGraphCsr(path)